@@ -0,0 +1,98 @@
+package com.minimarket.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Converts databases created before amounts were stored as cents: each REAL
+ * amount column is copied into an INTEGER *_minor column (rounded half up to
+ * the cent, the Money rounding policy) and then dropped, all in one transaction.
+ *
+ * Runs before Hibernate starts, so ddl-auto finds the new columns already there
+ * instead of trying to add NOT NULL columns to tables that have rows. Tables that
+ * don't exist yet or are already converted are left alone.
+ */
+@Component
+public class MoneyColumnsMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(MoneyColumnsMigration.class);
+
+    private static final List<Column> COLUMNS = List.of(
+            new Column("products", "price", "price_minor"),
+            new Column("transactions", "total", "total_minor"),
+            new Column("daily_sales_summary", "revenue", "revenue_minor"));
+
+    private final DataSource dataSource;
+
+    @Autowired
+    public MoneyColumnsMigration(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @PostConstruct
+    public void migrate() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                int migrated = 0;
+                for (Column column : COLUMNS) {
+                    Set<String> existing = columnsOf(statement, column.table());
+                    if (!existing.contains(column.legacy()) || existing.contains(column.minor())) {
+                        continue;
+                    }
+                    statement.executeUpdate("ALTER TABLE " + column.table() + " ADD COLUMN " + column.minor() + " INTEGER");
+                    // ROUND in SQLite rounds halves away from zero, the same as RoundingMode.HALF_UP
+                    int rows = statement.executeUpdate("UPDATE " + column.table() + " SET " + column.minor()
+                            + " = CAST(ROUND(" + column.legacy() + " * 100) AS INTEGER)");
+                    statement.executeUpdate("ALTER TABLE " + column.table() + " DROP COLUMN " + column.legacy());
+                    log.info("Converted {}.{} to cents in {} ({} rows)", column.table(), column.legacy(), column.minor(), rows);
+                    migrated++;
+                }
+                connection.commit();
+                if (migrated == 0) {
+                    log.debug("Amount columns already stored as cents");
+                }
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private static Set<String> columnsOf(Statement statement, String table) throws SQLException {
+        Set<String> columns = new HashSet<>();
+        try (ResultSet rs = statement.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                columns.add(rs.getString("name"));
+            }
+        }
+        return columns;
+    }
+
+    private record Column(String table, String legacy, String minor) {
+    }
+
+    // Makes the JPA EntityManagerFactory (and with it ddl-auto) wait for the migration
+    @Component
+    static class EntityManagerFactoryDependency extends EntityManagerFactoryDependsOnPostProcessor {
+        EntityManagerFactoryDependency() {
+            super(MoneyColumnsMigration.class);
+        }
+    }
+}
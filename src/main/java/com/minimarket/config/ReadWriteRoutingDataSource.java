@@ -0,0 +1,41 @@
+package com.minimarket.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the read pool and everything else (writes,
+ * and work outside a transaction) to the single-connection write pool.
+ * Must sit behind a LazyConnectionDataSourceProxy: the read-only flag of a
+ * transaction is only known once it has begun, after Hibernate asked for a connection.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private static final String READ = "read";
+    private static final String WRITE = "write";
+
+    private final HikariDataSource readPool;
+    private final HikariDataSource writePool;
+
+    public ReadWriteRoutingDataSource(HikariDataSource readPool, HikariDataSource writePool) {
+        this.readPool = readPool;
+        this.writePool = writePool;
+        setTargetDataSources(Map.of(READ, readPool, WRITE, writePool));
+        setDefaultTargetDataSource(writePool);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? READ : WRITE;
+    }
+
+    @Override
+    public void close() {
+        readPool.close();
+        writePool.close();
+    }
+}
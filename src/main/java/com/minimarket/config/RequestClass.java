@@ -0,0 +1,38 @@
+package com.minimarket.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// Traffic classes that RequestScheduler limits separately, so one class can't take every Tomcat worker
+public enum RequestClass {
+
+    // Sales and purchases from the form, the batch upload and the JSON API
+    CHECKOUT,
+    // Pages, product lookups, listings and job status polls
+    INTERACTIVE,
+    // Reports generated while the client waits
+    REPORT;
+
+    /**
+     * Picks the class from the method and path alone (no body, no handler
+     * lookup). Returns null for requests that are never limited: static
+     * resources, the login page and the scheduler's own stats.
+     */
+    public static RequestClass of(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        boolean post = "POST".equals(request.getMethod());
+
+        if (post && (path.equals("/transactions/save") || path.equals("/transactions/batch")
+                || path.equals("/api/transactions") || path.equals("/api/transactions/batch"))) {
+            return CHECKOUT;
+        }
+        if (path.equals("/reports/generate") || path.equals("/reports/stream")
+                || path.equals("/reports/summary") || path.equals("/reports/summary/rebuild")) {
+            return REPORT;
+        }
+        if (path.startsWith("/css/") || path.startsWith("/js/") || path.startsWith("/images/")
+                || path.equals("/login") || path.equals("/logout") || path.equals("/scheduling")) {
+            return null;
+        }
+        return INTERACTIVE;
+    }
+}
@@ -0,0 +1,143 @@
+package com.minimarket.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control per RequestClass: at most max-concurrent requests of a
+ * class run at once, up to queue-capacity more wait (in arrival order) for at
+ * most max-wait, and anything beyond that is turned away with a 503.
+ *
+ * A waiting request still holds its Tomcat worker, so the interactive and report
+ * limits plus their queues are kept well below server.tomcat.threads.max: the
+ * workers they can never take are the ones left for checkouts.
+ */
+@Component
+public class RequestScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestScheduler.class);
+
+    private final Map<RequestClass, Lane> lanes = new EnumMap<>(RequestClass.class);
+
+    @Autowired
+    public RequestScheduler(@Value("${minimarket.scheduling.checkout.max-concurrent:64}") int checkoutConcurrent,
+                            @Value("${minimarket.scheduling.checkout.queue-capacity:64}") int checkoutQueue,
+                            @Value("${minimarket.scheduling.checkout.max-wait:2s}") Duration checkoutWait,
+                            @Value("${minimarket.scheduling.interactive.max-concurrent:32}") int interactiveConcurrent,
+                            @Value("${minimarket.scheduling.interactive.queue-capacity:32}") int interactiveQueue,
+                            @Value("${minimarket.scheduling.interactive.max-wait:1s}") Duration interactiveWait,
+                            @Value("${minimarket.scheduling.report.max-concurrent:2}") int reportConcurrent,
+                            @Value("${minimarket.scheduling.report.queue-capacity:4}") int reportQueue,
+                            @Value("${minimarket.scheduling.report.max-wait:5s}") Duration reportWait,
+                            @Value("${server.tomcat.threads.max:200}") int workerThreads) {
+        lanes.put(RequestClass.CHECKOUT, new Lane(checkoutConcurrent, checkoutQueue, checkoutWait));
+        lanes.put(RequestClass.INTERACTIVE, new Lane(interactiveConcurrent, interactiveQueue, interactiveWait));
+        lanes.put(RequestClass.REPORT, new Lane(reportConcurrent, reportQueue, reportWait));
+
+        int nonCheckout = interactiveConcurrent + interactiveQueue + reportConcurrent + reportQueue;
+        if (nonCheckout >= workerThreads) {
+            log.warn("Interactive and report requests can hold {} of {} worker threads; checkouts may be starved",
+                    nonCheckout, workerThreads);
+        }
+    }
+
+    /**
+     * Returns true once the request may run; it must then call release. Returns
+     * false (and counts a rejection) when the queue is full or max-wait passed.
+     */
+    public boolean acquire(RequestClass requestClass) {
+        return lanes.get(requestClass).acquire();
+    }
+
+    public void release(RequestClass requestClass) {
+        lanes.get(requestClass).permits.release();
+    }
+
+    // What a turned-away client is told to wait before trying again
+    public long getRetryAfterSeconds(RequestClass requestClass) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(lanes.get(requestClass).maxWaitNanos));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lanes.forEach((requestClass, lane) -> stats.put(requestClass.name().toLowerCase(), lane.getStats()));
+        return stats;
+    }
+
+    private static final class Lane {
+        private final int maxConcurrent;
+        private final int queueCapacity;
+        private final long maxWaitNanos;
+        // Fair, so queued requests are admitted in arrival order
+        private final Semaphore permits;
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder queued = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder timedOut = new LongAdder();
+
+        Lane(int maxConcurrent, int queueCapacity, Duration maxWait) {
+            if (maxConcurrent < 1 || queueCapacity < 0) {
+                throw new IllegalArgumentException("max-concurrent must be positive and queue-capacity not negative");
+            }
+            this.maxConcurrent = maxConcurrent;
+            this.queueCapacity = queueCapacity;
+            this.maxWaitNanos = maxWait.toNanos();
+            this.permits = new Semaphore(maxConcurrent, true);
+        }
+
+        boolean acquire() {
+            // The timed form with no timeout still honours fairness, unlike tryAcquire()
+            try {
+                if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                    admitted.increment();
+                    return true;
+                }
+                if (waiting.incrementAndGet() > queueCapacity) {
+                    waiting.decrementAndGet();
+                    rejected.increment();
+                    return false;
+                }
+                queued.increment();
+                try {
+                    if (permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                        admitted.increment();
+                        return true;
+                    }
+                } finally {
+                    waiting.decrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            timedOut.increment();
+            rejected.increment();
+            return false;
+        }
+
+        Map<String, Object> getStats() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("maxConcurrent", maxConcurrent);
+            stats.put("active", maxConcurrent - permits.availablePermits());
+            stats.put("queueDepth", waiting.get());
+            stats.put("queueCapacity", queueCapacity);
+            stats.put("admitted", admitted.sum());
+            stats.put("queued", queued.sum());
+            stats.put("rejected", rejected.sum());
+            stats.put("timedOut", timedOut.sum());
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.minimarket.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs each request under its RequestClass limit. Registered after Spring
+ * Security, so unauthenticated requests are turned away before they queue.
+ */
+@Component
+@ConditionalOnProperty(name = "minimarket.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class RequestSchedulingFilter extends OncePerRequestFilter {
+
+    private final RequestScheduler scheduler;
+
+    @Autowired
+    public RequestSchedulingFilter(RequestScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestClass requestClass = RequestClass.of(request);
+        if (requestClass == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!scheduler.acquire(requestClass)) {
+            reject(request, response, requestClass);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Streamed reports keep writing after the handler returns; the slot is held until they finish
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(requestClass));
+            } else {
+                scheduler.release(requestClass);
+            }
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, RequestClass requestClass)
+            throws IOException {
+        String message = "Too many " + requestClass.name().toLowerCase() + " requests, try again later";
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(scheduler.getRetryAfterSeconds(requestClass)));
+        if (request.getRequestURI().startsWith(request.getContextPath() + "/api/")) {
+            // Same shape as the API's other errors
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"status\":503,\"error\":\"" + message + "\"}");
+        } else {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, message);
+        }
+    }
+
+    private final class ReleaseOnCompletion implements AsyncListener {
+        private final RequestClass requestClass;
+        // onError and onTimeout are followed by onComplete
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleaseOnCompletion(RequestClass requestClass) {
+            this.requestClass = requestClass;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Another async cycle on the same request: keep listening
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                scheduler.release(requestClass);
+            }
+        }
+    }
+}
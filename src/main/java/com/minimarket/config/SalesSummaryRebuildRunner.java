@@ -0,0 +1,36 @@
+package com.minimarket.config;
+
+import com.minimarket.service.SalesSummaryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the daily sales aggregates from the ledger when the application is started
+ * with {@code --rebuild-sales-summary}, e.g. after the first deploy of the summary table.
+ */
+@Component
+public class SalesSummaryRebuildRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesSummaryRebuildRunner.class);
+
+    static final String OPTION = "rebuild-sales-summary";
+
+    private final SalesSummaryService salesSummaryService;
+
+    @Autowired
+    public SalesSummaryRebuildRunner(SalesSummaryService salesSummaryService) {
+        this.salesSummaryService = salesSummaryService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(OPTION)) {
+            int buckets = salesSummaryService.rebuild();
+            log.info("Daily sales summary rebuilt: {} buckets", buckets);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.minimarket.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.sqlite.SQLiteDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Dual-datasource mode for SQLite in WAL journal mode: one write connection
+ * (SQLite only ever has one writer, so more would just queue on the file lock)
+ * and a pool of read-only connections. In WAL mode a read transaction works on
+ * a snapshot, so long report scans neither block nor are blocked by checkouts.
+ * Read-only transactions (@Transactional(readOnly = true)) use the read pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "minimarket.datasource.split", havingValue = "true")
+public class SqliteDataSourceConfig {
+
+    private static final Set<String> SYNCHRONOUS_MODES = Set.of("OFF", "NORMAL", "FULL", "EXTRA");
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(DataSourceProperties properties,
+                                                       @Value("${minimarket.datasource.read-pool-size:4}") int readPoolSize,
+                                                       @Value("${minimarket.sqlite.synchronous:NORMAL}") String synchronous,
+                                                       @Value("${minimarket.sqlite.busy-timeout-ms:5000}") int busyTimeoutMs,
+                                                       @Value("${minimarket.sqlite.cache-size:-65536}") int cacheSize,
+                                                       @Value("${minimarket.sqlite.mmap-size:268435456}") long mmapSize) {
+        if (!SYNCHRONOUS_MODES.contains(synchronous.toUpperCase())) {
+            throw new IllegalArgumentException("Unknown SQLite synchronous mode: " + synchronous);
+        }
+        List<String> pragmas = List.of(
+                "PRAGMA busy_timeout = " + busyTimeoutMs,
+                "PRAGMA cache_size = " + cacheSize,
+                "PRAGMA mmap_size = " + mmapSize);
+
+        List<String> writePragmas = new ArrayList<>(pragmas);
+        // journal_mode is stored in the database file; synchronous=NORMAL is durable enough under WAL
+        writePragmas.add(0, "PRAGMA journal_mode = WAL");
+        writePragmas.add("PRAGMA synchronous = " + synchronous.toUpperCase());
+        // Created first so the file is in WAL mode before any reader opens it
+        HikariDataSource writePool = pool("sqlite-write", properties.determineUrl(), 1, writePragmas);
+
+        List<String> readPragmas = new ArrayList<>(pragmas);
+        readPragmas.add("PRAGMA query_only = ON");
+        HikariDataSource readPool = pool("sqlite-read", properties.determineUrl(), readPoolSize, readPragmas);
+
+        return new ReadWriteRoutingDataSource(readPool, writePool);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    private static HikariDataSource pool(String name, String url, int size, List<String> pragmas) {
+        SQLiteDataSource sqlite = new SQLiteDataSource();
+        sqlite.setUrl(url);
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        config.setMaximumPoolSize(size);
+        config.setMinimumIdle(1);
+        config.setDataSource(new PragmaDataSource(sqlite, pragmas));
+        return new HikariDataSource(config);
+    }
+
+    // Hikari only asks its DataSource for a connection when it opens a physical one, so each PRAGMA runs once per connection
+    private static final class PragmaDataSource extends DelegatingDataSource {
+
+        private final List<String> pragmas;
+
+        private PragmaDataSource(DataSource target, List<String> pragmas) {
+            super(target);
+            this.pragmas = pragmas;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            try (Statement statement = connection.createStatement()) {
+                for (String pragma : pragmas) {
+                    statement.execute(pragma);
+                }
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+            return connection;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.minimarket.config;
+
+import com.minimarket.service.StockDrift;
+import com.minimarket.service.StockLedger;
+import com.minimarket.service.StockVerification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Replays the stock ledger when the application is started with {@code --verify-stock}
+ * (report only) or {@code --rebuild-stock} (also sets drifted stock columns from the ledger).
+ */
+@Component
+public class StockLedgerRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLedgerRunner.class);
+
+    static final String VERIFY_OPTION = "verify-stock";
+    static final String REBUILD_OPTION = "rebuild-stock";
+    private static final int DRIFTS_SHOWN = 20;
+
+    private final StockLedger stockLedger;
+
+    @Autowired
+    public StockLedgerRunner(StockLedger stockLedger) {
+        this.stockLedger = stockLedger;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        boolean rebuild = args.containsOption(REBUILD_OPTION);
+        if (!rebuild && !args.containsOption(VERIFY_OPTION)) {
+            return;
+        }
+        StockVerification result = stockLedger.verify(rebuild);
+        log.info("Stock ledger replayed: {} products, {} transactions in {} ms, {} drifted{}",
+                result.products(), result.transactionsReplayed(), result.elapsedMillis(),
+                result.drifts().size(), result.repaired() ? " (repaired)" : "");
+        // Largest differences first
+        for (StockDrift drift : result.drifts().subList(0, Math.min(DRIFTS_SHOWN, result.drifts().size()))) {
+            log.warn("  {}: stored {}, ledger {}{}", drift.code(), drift.storedStock(), drift.ledgerStock(),
+                    drift.badSnapshots() > 0 ? ", " + drift.badSnapshots() + " bad snapshots" : "");
+        }
+    }
+}
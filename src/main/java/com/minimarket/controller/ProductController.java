@@ -1,11 +1,31 @@
 package com.minimarket.controller;
 
+import com.minimarket.model.Money;
 import com.minimarket.model.Product;
+import com.minimarket.repository.Keyset;
+import com.minimarket.repository.ProductSort;
+import com.minimarket.service.ProductImportJob;
+import com.minimarket.service.ProductSuggestion;
+import com.minimarket.service.QueueFullException;
+import com.minimarket.service.StockLevel;
 import com.minimarket.service.facade.MinimarketFacade;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/products")
@@ -18,12 +38,56 @@ public class ProductController {
         this.minimarketFacade = minimarketFacade;
     }
 
+    static final int MAX_PAGE_SIZE = 200;
+
+    // after / before are cursors from the previous page's links; without one the listing starts at the top
     @GetMapping
-    public String listProducts(Model model) {
-        model.addAttribute("products", minimarketFacade.getAllProducts());
+    public String listProducts(@RequestParam(defaultValue = "CODE") ProductSort sort,
+                               @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+                               @RequestParam(required = false) String after,
+                               @RequestParam(required = false) String before,
+                               @RequestParam(defaultValue = "50") int size,
+                               Model model) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        try {
+            model.addAttribute("page", minimarketFacade.getProductPage(sort, direction, Keyset.of(after, before), pageSize));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        model.addAttribute("sort", sort);
+        model.addAttribute("direction", direction);
+        model.addAttribute("size", pageSize);
         return "products";
     }
 
+    // Hit ratio and size of the in-memory catalog
+    @GetMapping("/cache")
+    @ResponseBody
+    public Map<String, Object> cacheStats() {
+        return minimarketFacade.getProductCacheStats();
+    }
+
+    // Typeahead for the transaction form: called on every keystroke, answered from the in-memory index
+    @GetMapping("/search")
+    @ResponseBody
+    public List<ProductSuggestion> search(@RequestParam(defaultValue = "") String q,
+                                          @RequestParam(defaultValue = "10") int limit) {
+        return minimarketFacade.searchProducts(q, limit);
+    }
+
+    // Reorder dashboard: products at or below their reorder level, lowest first
+    @GetMapping("/low-stock")
+    @ResponseBody
+    public List<StockLevel> lowStock(@RequestParam(defaultValue = "100") int limit) {
+        return minimarketFacade.getLowStock(Math.min(Math.max(limit, 1), MAX_PAGE_SIZE));
+    }
+
+    @GetMapping("/low-stock/stats")
+    @ResponseBody
+    public Map<String, Object> lowStockStats() {
+        return minimarketFacade.getLowStockStats();
+    }
+
     @GetMapping("/new")
     public String showAddForm() {
         return "product_form";
@@ -32,13 +96,17 @@ public class ProductController {
     @PostMapping("/save")
     public String saveProduct(@RequestParam String code,
                               @RequestParam String name,
-                              @RequestParam Double price,
-                              @RequestParam Integer stock) {
+                              @RequestParam BigDecimal price,
+                              @RequestParam Integer stock,
+                              @RequestParam(required = false) String category,
+                              @RequestParam(required = false) Integer reorderLevel) {
 
         // Builder Pattern Usage
         Product product = new Product.Builder(code, name)
-                .price(price)
+                .price(Money.of(price))
                 .stock(stock)
+                .category(category == null || category.isBlank() ? null : category.trim())
+                .reorderLevel(reorderLevel)
                 .build();
 
         minimarketFacade.saveProduct(product);
@@ -50,4 +118,47 @@ public class ProductController {
         minimarketFacade.deleteProduct(id);
         return "redirect:/products";
     }
+
+    @GetMapping("/import")
+    public String showImportPage(Model model) {
+        model.addAttribute("imports", minimarketFacade.getProductImports());
+        return "product_import";
+    }
+
+    // Form upload from the import page: queue the file and go back to the job list
+    @PostMapping("/import")
+    public String submitImport(@RequestParam MultipartFile file) throws IOException {
+        submitImportFile(file);
+        return "redirect:/products/import";
+    }
+
+    // API clients asking for JSON get 202 with the job status and a Location to poll
+    @PostMapping(value = "/import", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> submitImportJson(@RequestParam MultipartFile file) throws IOException {
+        ProductImportJob job = submitImportFile(file);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequestUri()
+                        .path("/{id}").buildAndExpand(job.getId()).toUri())
+                .body(job.toStatus());
+    }
+
+    @GetMapping("/import/{id}")
+    @ResponseBody
+    public Map<String, Object> importStatus(@PathVariable String id) {
+        return minimarketFacade.getProductImport(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown product import: " + id))
+                .toStatus();
+    }
+
+    private ProductImportJob submitImportFile(MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The uploaded file is empty");
+        }
+        try (InputStream content = file.getInputStream()) {
+            return minimarketFacade.submitProductImport(file.getOriginalFilename(), content);
+        } catch (QueueFullException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+        }
+    }
 }
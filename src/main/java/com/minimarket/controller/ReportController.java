@@ -1,18 +1,55 @@
 package com.minimarket.controller;
 
+import com.minimarket.repository.TransactionFilter;
+import com.minimarket.service.QueueFullException;
 import com.minimarket.service.facade.MinimarketFacade;
+import com.minimarket.service.report.ReportCompression;
+import com.minimarket.service.report.ReportJob;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/reports")
 public class ReportController {
 
+    // Request attributes understood by Tomcat's sendfile support
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     private final MinimarketFacade minimarketFacade;
 
     @Autowired
@@ -21,13 +58,182 @@ public class ReportController {
     }
 
     @GetMapping
-    public String showReportPage() {
+    public String showReportPage(Model model) {
+        model.addAttribute("products", minimarketFacade.getAllProducts());
+        model.addAttribute("cacheStats", minimarketFacade.getReportCacheStats());
+        model.addAttribute("jobs", minimarketFacade.getReportJobs());
         return "reports";
     }
 
+    @GetMapping("/cache")
+    @ResponseBody
+    public Map<String, Object> cacheStats() {
+        return minimarketFacade.getReportCacheStats();
+    }
+
     @GetMapping("/generate")
     @ResponseBody
-    public String generateReport(@RequestParam String type) {
-        return minimarketFacade.generateReport(type);
+    public String generateReport(@RequestParam String type,
+                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                 @RequestParam(required = false) Long productId,
+                                 @RequestParam(required = false) String transactionType) {
+        return minimarketFacade.generateReport(type, new TransactionFilter(from, to, productId, transactionType));
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamReport(@RequestParam String type,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                              @RequestParam(required = false) Long productId,
+                                                              @RequestParam(required = false) String transactionType,
+                                                              @RequestParam(defaultValue = "false") boolean compress,
+                                                              @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        TransactionFilter filter = new TransactionFilter(from, to, productId, transactionType);
+
+        // Resolving the content type up front rejects unknown formats before the response is committed
+        MediaType contentType = MediaType.parseMediaType(minimarketFacade.getReportContentType(type));
+        boolean binary = minimarketFacade.isBinaryReport(type);
+        String filename = "transactions." + minimarketFacade.getReportFileExtension(type);
+
+        // compress=true downloads a .gz file; otherwise gzip/deflate is negotiated as a transfer-level Content-Encoding
+        ReportCompression compression = compress ? ReportCompression.GZIP : ReportCompression.negotiate(acceptEncoding);
+        StreamingResponseBody body = out -> {
+            OutputStream target = compression.wrap(out);
+            minimarketFacade.writeReport(type, filter, target);
+            compression.finish(target);
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (compress) {
+            return response
+                    .contentType(MediaType.parseMediaType("application/gzip"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, attachment(filename + "." + compression.getFileExtension()))
+                    .body(body);
+        }
+        if (compression != ReportCompression.NONE) {
+            response.header(HttpHeaders.CONTENT_ENCODING, compression.getContentEncoding());
+        }
+        return response
+                .contentType(binary ? contentType : new MediaType(contentType, StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, MediaType.TEXT_HTML.includes(contentType)
+                        ? ContentDisposition.inline().filename(filename).build().toString()
+                        : attachment(filename))
+                .body(body);
+    }
+
+    @GetMapping("/summary")
+    @ResponseBody
+    public String generateSummaryReport(@RequestParam String type,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                        @RequestParam(required = false) Long productId,
+                                        @RequestParam(required = false) String transactionType) {
+        return minimarketFacade.generateSummaryReport(type, new TransactionFilter(from, to, productId, transactionType));
+    }
+
+    @PostMapping("/summary/rebuild")
+    public String rebuildSummary() {
+        minimarketFacade.rebuildSalesSummary();
+        return "redirect:/reports";
+    }
+
+    // Form submit from the reports page: queue the job and go back to the job list
+    @PostMapping("/jobs")
+    public String submitJob(@RequestParam String type,
+                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                            @RequestParam(required = false) Long productId,
+                            @RequestParam(required = false) String transactionType) {
+        submit(type, new TransactionFilter(from, to, productId, transactionType));
+        return "redirect:/reports";
+    }
+
+    // API clients asking for JSON get 202 with the job status and a Location to poll
+    @PostMapping(value = "/jobs", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> submitJobJson(@RequestParam String type,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                             @RequestParam(required = false) Long productId,
+                                                             @RequestParam(required = false) String transactionType) {
+        ReportJob job = submit(type, new TransactionFilter(from, to, productId, transactionType));
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequestUri()
+                        .path("/{id}").buildAndExpand(job.getId()).toUri())
+                .body(job.toStatus());
+    }
+
+    @GetMapping("/jobs")
+    @ResponseBody
+    public List<Map<String, Object>> listJobs() {
+        return minimarketFacade.getReportJobs().stream().map(ReportJob::toStatus).toList();
+    }
+
+    @GetMapping("/jobs/{id}")
+    @ResponseBody
+    public Map<String, Object> jobStatus(@PathVariable String id) {
+        return findJob(id).toStatus();
+    }
+
+    @GetMapping("/jobs/{id}/download")
+    public void downloadJob(@PathVariable String id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ReportJob job = findJob(id);
+        if (job.getStatus() != ReportJob.Status.DONE) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Report job " + id + " is " + job.getStatus());
+        }
+        // Keeps the purge from deleting the file under an ongoing download
+        if (!job.beginDownload(Instant.now())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown or expired report job: " + id);
+        }
+        try {
+            Path file = job.getFile();
+            long size = job.getSizeBytes();
+
+            MediaType contentType = MediaType.parseMediaType(minimarketFacade.getReportContentType(job.getType()));
+            response.setContentType((minimarketFacade.isBinaryReport(job.getType())
+                    ? contentType : new MediaType(contentType, StandardCharsets.UTF_8)).toString());
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    attachment("transactions." + minimarketFacade.getReportFileExtension(job.getType())));
+            response.setContentLengthLong(size);
+
+            // Tomcat's NIO connector can sendfile() once the handler returns: the bytes never enter the JVM heap.
+            // That outlives the reservation below, but the download restarted the TTL, which covers the transfer
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, 0L);
+                request.setAttribute(SENDFILE_END, size);
+                return;
+            }
+
+            // Otherwise let the file channel drive the copy in large transfers instead of a read/write loop
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+                long position = 0;
+                while (position < size) {
+                    position += channel.transferTo(position, size - position, target);
+                }
+            }
+        } finally {
+            job.endDownload();
+        }
+    }
+
+    private ReportJob submit(String type, TransactionFilter filter) {
+        try {
+            return minimarketFacade.submitReportJob(type, filter);
+        } catch (QueueFullException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+        }
+    }
+
+    private ReportJob findJob(String id) {
+        return minimarketFacade.getReportJob(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown or expired report job: " + id));
+    }
+
+    private static String attachment(String filename) {
+        return ContentDisposition.attachment().filename(filename).build().toString();
     }
 }
@@ -0,0 +1,27 @@
+package com.minimarket.controller;
+
+import com.minimarket.config.RequestScheduler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.Map;
+
+@Controller
+public class SchedulingController {
+
+    private final RequestScheduler requestScheduler;
+
+    @Autowired
+    public SchedulingController(RequestScheduler requestScheduler) {
+        this.requestScheduler = requestScheduler;
+    }
+
+    // Per request class: limit, running, queue depth and admitted / rejected counts. Never limited itself.
+    @GetMapping("/scheduling")
+    @ResponseBody
+    public Map<String, Object> schedulingStats() {
+        return requestScheduler.getStats();
+    }
+}
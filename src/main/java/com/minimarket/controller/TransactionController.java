@@ -1,13 +1,29 @@
 package com.minimarket.controller;
 
+import com.minimarket.model.Transaction;
+import com.minimarket.repository.Keyset;
+import com.minimarket.repository.TransactionFilter;
+import com.minimarket.repository.TransactionSort;
+import com.minimarket.service.InsufficientStockException;
+import com.minimarket.service.QueueFullException;
+import com.minimarket.service.TransactionLine;
 import com.minimarket.service.facade.MinimarketFacade;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/transactions")
@@ -20,15 +36,52 @@ public class TransactionController {
         this.minimarketFacade = minimarketFacade;
     }
 
+    static final int MAX_PAGE_SIZE = 200;
+
+    // Newest first by default; after / before are cursors from the previous page's links
     @GetMapping
-    public String listTransactions(Model model) {
-        model.addAttribute("transactions", minimarketFacade.getAllTransactions());
+    public String listTransactions(@RequestParam(defaultValue = "DATE") TransactionSort sort,
+                                   @RequestParam(defaultValue = "DESC") Sort.Direction direction,
+                                   @RequestParam(required = false) String after,
+                                   @RequestParam(required = false) String before,
+                                   @RequestParam(defaultValue = "50") int size,
+                                   Model model) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        try {
+            model.addAttribute("page", minimarketFacade.getTransactionPage(TransactionFilter.none(), sort, direction,
+                    Keyset.of(after, before), pageSize));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        model.addAttribute("sort", sort);
+        model.addAttribute("direction", direction);
+        model.addAttribute("size", pageSize);
         return "transactions";
     }
 
+    @GetMapping("/writes")
+    @ResponseBody
+    public Map<String, Object> writeStats() {
+        return minimarketFacade.getTransactionWriteStats();
+    }
+
+    // Per asynchronous observer: pending outbox events, age of the oldest one, delivered and failed counts
+    @GetMapping("/events")
+    @ResponseBody
+    public Map<String, Object> observerLag() {
+        return minimarketFacade.getObserverLag();
+    }
+
+    // Loaded and live promotion rules, and when the compiled table next needs rebuilding
+    @GetMapping("/pricing")
+    @ResponseBody
+    public Map<String, Object> pricingStats() {
+        return minimarketFacade.getPricingStats();
+    }
+
+    // Products are picked through the /products/search typeahead, not a list of the whole catalog
     @GetMapping("/new")
-    public String showAddForm(Model model) {
-        model.addAttribute("products", minimarketFacade.getAllProducts());
+    public String showAddForm() {
         return "transaction_form";
     }
 
@@ -39,7 +92,34 @@ public class TransactionController {
                                   @RequestParam(defaultValue = "regularPricing") String strategy,
                                   @RequestParam(required = false) String extraInfo) {
 
-        minimarketFacade.createTransaction(type, productId, quantity, strategy, extraInfo);
+        try {
+            minimarketFacade.createTransaction(type, productId, quantity, strategy, extraInfo);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (InsufficientStockException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        } catch (QueueFullException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+        }
         return "redirect:/transactions";
     }
+
+    // Bulk upload (e.g. end of shift from a POS terminal): all lines are stored in one DB transaction or none are
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public Map<String, Object> saveTransactions(@RequestBody List<TransactionLine> lines) {
+        List<Transaction> saved;
+        try {
+            saved = minimarketFacade.createTransactions(lines);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (InsufficientStockException e) {
+            // Not enough stock for at least one product; nothing was stored
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        } catch (QueueFullException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+        }
+        return Map.of("count", saved.size(),
+                "ids", saved.stream().map(Transaction::getId).toList());
+    }
 }
@@ -0,0 +1,4 @@
+package com.minimarket.controller.api;
+
+public record ApiError(int status, String error) {
+}
@@ -0,0 +1,43 @@
+package com.minimarket.controller.api;
+
+import com.minimarket.service.InsufficientStockException;
+import com.minimarket.service.QueueFullException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+
+// Service exceptions as status codes with a one-line JSON body, for the /api controllers only
+@RestControllerAdvice(basePackageClasses = ApiExceptionHandler.class)
+public class ApiExceptionHandler {
+
+    // Seconds a client should wait before retrying when the write queue is full
+    static final String RETRY_AFTER_SECONDS = "1";
+
+    @ExceptionHandler({IllegalArgumentException.class, HttpMessageNotReadableException.class,
+            MethodArgumentTypeMismatchException.class})
+    public ResponseEntity<ApiError> badRequest(Exception e) {
+        return error(HttpStatus.BAD_REQUEST, e instanceof HttpMessageNotReadableException ? "Malformed JSON body" : e.getMessage());
+    }
+
+    // Not enough stock for at least one product; nothing was stored
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<ApiError> conflict(InsufficientStockException e) {
+        return error(HttpStatus.CONFLICT, e.getMessage());
+    }
+
+    // Write queue is full; any other IllegalStateException is a server error, not a reason to retry
+    @ExceptionHandler(QueueFullException.class)
+    public ResponseEntity<ApiError> unavailable(QueueFullException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(new ApiError(HttpStatus.SERVICE_UNAVAILABLE.value(), e.getMessage()));
+    }
+
+    private static ResponseEntity<ApiError> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).body(new ApiError(status.value(), message));
+    }
+}
@@ -0,0 +1,48 @@
+package com.minimarket.controller.api;
+
+import com.minimarket.service.ProductSuggestion;
+import com.minimarket.service.facade.MinimarketFacade;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+// Catalog lookups for POS terminals; all of them are answered from the product cache
+@RestController
+@RequestMapping("/api/products")
+public class ProductApiController {
+
+    private final MinimarketFacade minimarketFacade;
+
+    @Autowired
+    public ProductApiController(MinimarketFacade minimarketFacade) {
+        this.minimarketFacade = minimarketFacade;
+    }
+
+    @GetMapping
+    public List<ProductResponse> listProducts() {
+        return minimarketFacade.getAllProducts().stream().map(ProductResponse::of).toList();
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ProductResponse> getProduct(@PathVariable Long id) {
+        return ResponseEntity.of(minimarketFacade.getProductById(id).map(ProductResponse::of));
+    }
+
+    // Lookup by a typed prefix of the code or name words, best match first
+    @GetMapping("/search")
+    public List<ProductSuggestion> search(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+        return minimarketFacade.searchProducts(q, limit);
+    }
+
+    // Barcode scans
+    @GetMapping("/code/{code}")
+    public ResponseEntity<ProductResponse> getProductByCode(@PathVariable String code) {
+        return ResponseEntity.of(minimarketFacade.getProductByCode(code).map(ProductResponse::of));
+    }
+}
@@ -0,0 +1,16 @@
+package com.minimarket.controller.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.minimarket.model.Money;
+import com.minimarket.model.Product;
+
+// What a terminal needs to ring up a product; no version or other persistence details
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductResponse(Long id, String code, String name, Money price, Integer stock, String category,
+                              Integer reorderLevel) {
+
+    public static ProductResponse of(Product product) {
+        return new ProductResponse(product.getId(), product.getCode(), product.getName(),
+                product.getPrice(), product.getStock(), product.getCategory(), product.getReorderLevel());
+    }
+}
@@ -0,0 +1,90 @@
+package com.minimarket.controller.api;
+
+import com.minimarket.model.Transaction;
+import com.minimarket.repository.Keyset;
+import com.minimarket.repository.KeysetPage;
+import com.minimarket.repository.TransactionFilter;
+import com.minimarket.repository.TransactionRow;
+import com.minimarket.repository.TransactionSort;
+import com.minimarket.service.TransactionLine;
+import com.minimarket.service.facade.MinimarketFacade;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// One request per sale (or per batch) and the stored transaction in the response: no redirect and no page render
+@RestController
+@RequestMapping("/api/transactions")
+public class TransactionApiController {
+
+    static final int MAX_PAGE_SIZE = 500;
+    static final int MAX_BATCH_SIZE = 1_000;
+
+    private final MinimarketFacade minimarketFacade;
+
+    @Autowired
+    public TransactionApiController(MinimarketFacade minimarketFacade) {
+        this.minimarketFacade = minimarketFacade;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public TransactionResponse createTransaction(@RequestBody TransactionLine line) {
+        validate(line);
+        Transaction saved = minimarketFacade.createTransaction(line.getType(), line.getProductId(),
+                line.getQuantity(), line.getStrategy(), line.getExtraInfo());
+        return TransactionResponse.of(saved);
+    }
+
+    // All lines are stored in one DB transaction or none are
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<TransactionResponse> createTransactions(@RequestBody List<TransactionLine> lines) {
+        if (lines.isEmpty() || lines.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("A batch must have between 1 and " + MAX_BATCH_SIZE + " lines");
+        }
+        lines.forEach(TransactionApiController::validate);
+        return minimarketFacade.createTransactions(lines).stream().map(TransactionResponse::of).toList();
+    }
+
+    // Cursor paging: pass the previous response's next (or previous) cursor as after (or before)
+    @GetMapping
+    public TransactionPage listTransactions(@RequestParam(defaultValue = "DATE") TransactionSort sort,
+                                            @RequestParam(defaultValue = "DESC") Sort.Direction direction,
+                                            @RequestParam(required = false) String after,
+                                            @RequestParam(required = false) String before,
+                                            @RequestParam(defaultValue = "50") int size,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                            @RequestParam(required = false) Long productId,
+                                            @RequestParam(required = false) String type) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        TransactionFilter filter = new TransactionFilter(from, to, productId, type);
+        KeysetPage<TransactionRow> page = minimarketFacade.getTransactionPage(filter, sort, direction,
+                Keyset.of(after, before), size);
+        return new TransactionPage(page.getNextCursor(), page.getPreviousCursor(),
+                page.getItems().stream().map(TransactionResponse::of).toList());
+    }
+
+    private static void validate(TransactionLine line) {
+        if (line.getType() == null || line.getProductId() == null) {
+            throw new IllegalArgumentException("type and productId are required");
+        }
+        if (line.getQuantity() <= 0) {
+            throw new IllegalArgumentException("quantity must be positive");
+        }
+    }
+}
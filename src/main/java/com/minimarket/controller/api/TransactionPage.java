@@ -0,0 +1,10 @@
+package com.minimarket.controller.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+// Cursors for the neighbouring pages are left out at either end of the listing
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TransactionPage(String next, String previous, List<TransactionResponse> items) {
+}
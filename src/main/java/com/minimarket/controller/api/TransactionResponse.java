@@ -0,0 +1,30 @@
+package com.minimarket.controller.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.minimarket.model.Money;
+import com.minimarket.model.Purchase;
+import com.minimarket.model.Sale;
+import com.minimarket.model.Transaction;
+import com.minimarket.repository.TransactionRow;
+
+import java.time.LocalDateTime;
+
+// A stored transaction with its product as an id only, so writes never load the product to answer
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TransactionResponse(Long id, LocalDateTime date, String type, Long productId, Integer quantity,
+                                  Money total, String extraInfo) {
+
+    public static TransactionResponse of(Transaction transaction) {
+        String extraInfo = transaction instanceof Sale sale ? sale.getCustomer()
+                : transaction instanceof Purchase purchase ? purchase.getSupplier() : null;
+        // getId() on the product reference doesn't initialize it
+        return new TransactionResponse(transaction.getId(), transaction.getDate(),
+                transaction instanceof Sale ? "SALE" : "PURCHASE", transaction.getProduct().getId(),
+                transaction.getQuantity(), transaction.getTotal(), extraInfo);
+    }
+
+    public static TransactionResponse of(TransactionRow row) {
+        return new TransactionResponse(row.getId(), row.getDate(), row.isSale() ? "SALE" : "PURCHASE",
+                row.getProductId(), row.getQuantity(), row.getTotal(), row.getExtraInfo());
+    }
+}
@@ -0,0 +1,80 @@
+package com.minimarket.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+// Materialized per product / day / transaction type totals, kept current by DailySalesAggregator
+@Entity
+@Table(name = "daily_sales_summary",
+        uniqueConstraints = @UniqueConstraint(name = "uk_daily_sales_summary_bucket",
+                columnNames = {"product_id", "day", "transaction_type"}),
+        indexes = @Index(name = "idx_daily_sales_summary_day", columnList = "day"))
+public class DailySalesSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Column(name = "transaction_type", nullable = false, length = 31)
+    private String transactionType;
+
+    @Column(nullable = false)
+    private Long units;
+
+    // Cents, kept primitive because add() runs once per aggregated transaction
+    @Column(name = "revenue_minor", nullable = false)
+    private long revenueMinor;
+
+    public DailySalesSummary() {
+    }
+
+    public DailySalesSummary(Product product, LocalDate day, String transactionType) {
+        this.product = product;
+        this.day = day;
+        this.transactionType = transactionType;
+        this.units = 0L;
+    }
+
+    // Same values as the transaction_type discriminator on the transactions table
+    public static String typeOf(Transaction transaction) {
+        if (transaction instanceof Purchase) {
+            return "PURCHASE";
+        } else if (transaction instanceof Sale) {
+            return "SALE";
+        }
+        throw new IllegalArgumentException("Unknown transaction type: " + transaction.getClass().getSimpleName());
+    }
+
+    public void add(int quantity, long totalMinor) {
+        this.units += quantity;
+        this.revenueMinor = Math.addExact(revenueMinor, totalMinor);
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Product getProduct() { return product; }
+    public void setProduct(Product product) { this.product = product; }
+
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+
+    public String getTransactionType() { return transactionType; }
+    public void setTransactionType(String transactionType) { this.transactionType = transactionType; }
+
+    public Long getUnits() { return units; }
+    public void setUnits(Long units) { this.units = units; }
+
+    public long getRevenueMinor() { return revenueMinor; }
+    public void setRevenueMinor(long revenueMinor) { this.revenueMinor = revenueMinor; }
+
+    public Money getRevenue() { return Money.ofMinor(revenueMinor); }
+}
@@ -0,0 +1,126 @@
+package com.minimarket.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money as a whole number of cents. Entities and the UI use this
+ * type; loops that price or sum many lines (pricing strategies, aggregations,
+ * report writers) work on the raw long through the static helpers, so they
+ * neither allocate nor pick up floating-point error.
+ *
+ * Rounding policy: amounts only ever get rounded to the cent, half up, and only
+ * where a fraction of a cent can appear (percentage discounts and input parsing).
+ * Sums and quantity multiples are exact and throw on overflow.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final RoundingMode ROUNDING = RoundingMode.HALF_UP;
+    public static final Money ZERO = new Money(0);
+
+    // 100% expressed in basis points (1 bp = 0.01%)
+    public static final int FULL_BASIS_POINTS = 10_000;
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    public static Money of(BigDecimal amount) {
+        return ofMinor(amount.setScale(SCALE, ROUNDING).unscaledValue().longValueExact());
+    }
+
+    // "12.5", "12.50" and "-3" are all accepted; more than two decimals are rounded half up
+    public static Money parse(String amount) {
+        return of(new BigDecimal(amount.trim()));
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money times(int quantity) {
+        return ofMinor(times(minorUnits, quantity));
+    }
+
+    public Money discounted(int basisPoints) {
+        return ofMinor(discounted(minorUnits, basisPoints));
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    // Primitive helpers for hot paths
+
+    public static long times(long minorUnits, int quantity) {
+        return Math.multiplyExact(minorUnits, quantity);
+    }
+
+    // Takes basisPoints percent (1000 = 10%) off the amount, rounding the result to the cent half up
+    public static long discounted(long minorUnits, int basisPoints) {
+        if (basisPoints <= 0) {
+            return minorUnits;
+        }
+        long scaled = Math.multiplyExact(minorUnits, FULL_BASIS_POINTS - basisPoints);
+        long half = FULL_BASIS_POINTS / 2;
+        // Half up means away from zero for negative amounts too, like RoundingMode.HALF_UP
+        return scaled >= 0 ? (scaled + half) / FULL_BASIS_POINTS : -((-scaled + half) / FULL_BASIS_POINTS);
+    }
+
+    public static int toBasisPoints(double percent) {
+        return (int) Math.round(percent * 100);
+    }
+
+    // Same text as toString() without creating the Money or a String
+    public static StringBuilder appendTo(StringBuilder out, long minorUnits) {
+        if (minorUnits < 0) {
+            out.append('-');
+            if (minorUnits == Long.MIN_VALUE) {
+                return out.append(BigDecimal.valueOf(minorUnits, SCALE).negate().toPlainString());
+            }
+            minorUnits = -minorUnits;
+        }
+        long cents = minorUnits % 100;
+        out.append(minorUnits / 100).append('.');
+        if (cents < 10) {
+            out.append('0');
+        }
+        return out.append(cents);
+    }
+
+    public static String format(long minorUnits) {
+        return appendTo(new StringBuilder(24), minorUnits).toString();
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && other.minorUnits == minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    // Plain decimal with two places, e.g. "12.50"; also how Thymeleaf and the reports print it
+    @Override
+    public String toString() {
+        return format(minorUnits);
+    }
+}
@@ -0,0 +1,80 @@
+package com.minimarket.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.id.IncrementGenerator;
+
+import java.time.LocalDateTime;
+
+// A transaction waiting to be delivered to one asynchronous observer; the row is deleted once delivered
+@Entity
+@Table(name = "outbox_events", indexes = @Index(name = "idx_outbox_events_observer", columnList = "observer"))
+public class OutboxEvent {
+
+    // Increasing ids give the delivery order
+    @Id
+    @GeneratedValue(generator = "outbox_event_ids")
+    @GenericGenerator(name = "outbox_event_ids", type = IncrementGenerator.class)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String observer;
+
+    @Column(name = "transaction_id", nullable = false)
+    private Long transactionId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Failed deliveries so far
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int attempts;
+
+    // Not delivered again before this time; null after no failure
+    @Column(name = "retry_at")
+    private LocalDateTime retryAt;
+
+    // Set once attempts run out; parked events are kept but no longer delivered
+    @Column(name = "parked_at")
+    private LocalDateTime parkedAt;
+
+    public OutboxEvent() {
+    }
+
+    public OutboxEvent(String observer, Transaction transaction) {
+        this.observer = observer;
+        this.transactionId = transaction.getId();
+        this.productId = transaction.getProduct().getId();
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getObserver() { return observer; }
+    public void setObserver(String observer) { this.observer = observer; }
+
+    public Long getTransactionId() { return transactionId; }
+    public void setTransactionId(Long transactionId) { this.transactionId = transactionId; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getRetryAt() { return retryAt; }
+    public void setRetryAt(LocalDateTime retryAt) { this.retryAt = retryAt; }
+
+    public LocalDateTime getParkedAt() { return parkedAt; }
+    public void setParkedAt(LocalDateTime parkedAt) { this.parkedAt = parkedAt; }
+}
@@ -1,13 +1,21 @@
 package com.minimarket.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.id.IncrementGenerator;
 
 @Entity
-@Table(name = "products")
+// Listing orders (see ProductSort); code is covered by its unique index
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_name", columnList = "name"),
+        @Index(name = "idx_products_price", columnList = "price_minor")
+})
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Same in-memory increment as Transaction, so product inserts can be batched too
+    @GeneratedValue(generator = "product_ids")
+    @GenericGenerator(name = "product_ids", type = IncrementGenerator.class)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -16,12 +24,24 @@ public class Product {
     @Column(nullable = false)
     private String name;
 
-    @Column(nullable = false)
-    private Double price;
+    @Column(name = "price_minor", nullable = false)
+    private Money price;
 
     @Column(nullable = false)
     private Integer stock;
 
+    // Optional grouping that promotions can target
+    @Column(length = 100)
+    private String category;
+
+    // Stock at or below this is low (see LowStockIndex); null when the product isn't reordered
+    @Column(name = "reorder_level")
+    private Integer reorderLevel;
+
+    // Optimistic lock for whole-entity saves; stock updates in ProductRepository bump it too
+    @Version
+    private Long version;
+
     // Private constructor to enforce Builder usage
     private Product(Builder builder) {
         this.id = builder.id;
@@ -29,6 +49,8 @@ public class Product {
         this.name = builder.name;
         this.price = builder.price;
         this.stock = builder.stock;
+        this.category = builder.category;
+        this.reorderLevel = builder.reorderLevel;
     }
 
     public Product() {
@@ -38,23 +60,31 @@ public class Product {
     public Long getId() { return id; }
     public String getCode() { return code; }
     public String getName() { return name; }
-    public Double getPrice() { return price; }
+    public Money getPrice() { return price; }
     public Integer getStock() { return stock; }
+    public String getCategory() { return category; }
+    public Integer getReorderLevel() { return reorderLevel; }
+    public Long getVersion() { return version; }
 
     // Setters (needed for JPA/Updates)
     public void setId(Long id) { this.id = id; }
     public void setCode(String code) { this.code = code; }
     public void setName(String name) { this.name = name; }
-    public void setPrice(Double price) { this.price = price; }
+    public void setPrice(Money price) { this.price = price; }
     public void setStock(Integer stock) { this.stock = stock; }
+    public void setCategory(String category) { this.category = category; }
+    public void setReorderLevel(Integer reorderLevel) { this.reorderLevel = reorderLevel; }
+    public void setVersion(Long version) { this.version = version; }
 
     // Builder Pattern
     public static class Builder {
         private Long id;
         private String code;
         private String name;
-        private Double price;
+        private Money price;
         private Integer stock;
+        private String category;
+        private Integer reorderLevel;
 
         public Builder(String code, String name) {
             this.code = code;
@@ -66,7 +96,7 @@ public class Product {
             return this;
         }
 
-        public Builder price(Double price) {
+        public Builder price(Money price) {
             this.price = price;
             return this;
         }
@@ -76,6 +106,16 @@ public class Product {
             return this;
         }
 
+        public Builder category(String category) {
+            this.category = category;
+            return this;
+        }
+
+        public Builder reorderLevel(Integer reorderLevel) {
+            this.reorderLevel = reorderLevel;
+            return this;
+        }
+
         public Product build() {
             return new Product(this);
         }
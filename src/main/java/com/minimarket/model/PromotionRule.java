@@ -0,0 +1,86 @@
+package com.minimarket.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.id.IncrementGenerator;
+
+import java.time.LocalDateTime;
+
+/**
+ * A declarative promotion: percentOff off the line total when at least minQuantity
+ * units are bought. It targets one product, one category, or (with neither set)
+ * every product, and is live between startsAt (inclusive) and endsAt (exclusive);
+ * a missing bound means open-ended.
+ */
+@Entity
+@Table(name = "promotion_rules")
+public class PromotionRule {
+
+    @Id
+    @GeneratedValue(generator = "promotion_rule_ids")
+    @GenericGenerator(name = "promotion_rule_ids", type = IncrementGenerator.class)
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(length = 100)
+    private String category;
+
+    @Column(name = "min_quantity", nullable = false)
+    private Integer minQuantity = 1;
+
+    @Column(name = "percent_off", nullable = false)
+    private Double percentOff;
+
+    @Column(name = "starts_at")
+    private LocalDateTime startsAt;
+
+    @Column(name = "ends_at")
+    private LocalDateTime endsAt;
+
+    @Column(nullable = false)
+    private Boolean active = true;
+
+    public PromotionRule() {
+    }
+
+    public PromotionRule(String name, Long productId, String category, int minQuantity, double percentOff) {
+        this.name = name;
+        this.productId = productId;
+        this.category = category;
+        this.minQuantity = minQuantity;
+        this.percentOff = percentOff;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public Integer getMinQuantity() { return minQuantity; }
+    public void setMinQuantity(Integer minQuantity) { this.minQuantity = minQuantity; }
+
+    public Double getPercentOff() { return percentOff; }
+    public void setPercentOff(Double percentOff) { this.percentOff = percentOff; }
+
+    public LocalDateTime getStartsAt() { return startsAt; }
+    public void setStartsAt(LocalDateTime startsAt) { this.startsAt = startsAt; }
+
+    public LocalDateTime getEndsAt() { return endsAt; }
+    public void setEndsAt(LocalDateTime endsAt) { this.endsAt = endsAt; }
+
+    public Boolean getActive() { return active; }
+    public void setActive(Boolean active) { this.active = active; }
+}
@@ -13,7 +13,7 @@ public class Purchase extends Transaction {
         super();
     }
 
-    public Purchase(Product product, Integer quantity, Double total, String supplier) {
+    public Purchase(Product product, Integer quantity, Money total, String supplier) {
         super(product, quantity, total);
         this.supplier = supplier;
     }
@@ -13,7 +13,7 @@ public class Sale extends Transaction {
         super();
     }
 
-    public Sale(Product product, Integer quantity, Double total, String customer) {
+    public Sale(Product product, Integer quantity, Money total, String customer) {
         super(product, quantity, total);
         this.customer = customer;
     }
@@ -0,0 +1,69 @@
+package com.minimarket.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.id.IncrementGenerator;
+
+import java.time.LocalDateTime;
+
+// A product's stock as of a point in the ledger: its stock now is the latest snapshot plus its transactions after it
+@Entity
+@Table(name = "stock_snapshots",
+        indexes = @Index(name = "idx_stock_snapshots_product", columnList = "product_id, last_transaction_id"))
+public class StockSnapshot {
+
+    @Id
+    // Counted in memory like Transaction ids, so the baselines of a product import go out in JDBC batches
+    @GeneratedValue(generator = "stock_snapshot_ids")
+    @GenericGenerator(name = "stock_snapshot_ids", type = IncrementGenerator.class)
+    private Long id;
+
+    // No foreign key, so products can be deleted without touching their history first
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    // Highest transaction id folded into stock (0 before any transaction)
+    @Column(name = "last_transaction_id", nullable = false)
+    private long lastTransactionId;
+
+    @Column(nullable = false)
+    private int stock;
+
+    // Set by hand (product form, adoption of an existing product) instead of computed from the ledger;
+    // a replay starts from the latest one
+    @Column(nullable = false)
+    private boolean baseline;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public StockSnapshot() {
+    }
+
+    public StockSnapshot(Long productId, long lastTransactionId, int stock, boolean baseline) {
+        this.productId = productId;
+        this.lastTransactionId = lastTransactionId;
+        this.stock = stock;
+        this.baseline = baseline;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public long getLastTransactionId() { return lastTransactionId; }
+    public void setLastTransactionId(long lastTransactionId) { this.lastTransactionId = lastTransactionId; }
+
+    public int getStock() { return stock; }
+    public void setStock(int stock) { this.stock = stock; }
+
+    public boolean isBaseline() { return baseline; }
+    public void setBaseline(boolean baseline) { this.baseline = baseline; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,27 @@
+package com.minimarket.repository;
+
+import com.minimarket.model.DailySalesSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+public interface DailySalesSummaryRepository extends JpaRepository<DailySalesSummary, Long>, DailySalesSummaryRepositoryCustom {
+
+    // Single-statement upsert so concurrent transactions for the same bucket never lose an increment
+    @Modifying
+    @Query(value = "insert into daily_sales_summary (product_id, day, transaction_type, units, revenue_minor) " +
+            "values (:productId, :day, :transactionType, :units, :revenueMinor) " +
+            "on conflict (product_id, day, transaction_type) do update set " +
+            "units = units + excluded.units, revenue_minor = revenue_minor + excluded.revenue_minor",
+            nativeQuery = true)
+    void addToBucket(@Param("productId") Long productId,
+                     @Param("day") LocalDate day,
+                     @Param("transactionType") String transactionType,
+                     @Param("units") long units,
+                     @Param("revenueMinor") long revenueMinor);
+}
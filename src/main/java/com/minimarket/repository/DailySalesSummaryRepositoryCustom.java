@@ -0,0 +1,11 @@
+package com.minimarket.repository;
+
+import com.minimarket.model.DailySalesSummary;
+
+import java.util.List;
+
+public interface DailySalesSummaryRepositoryCustom {
+
+    // Buckets matching the filter, ordered by day, product name and type
+    List<DailySalesSummary> findByFilter(TransactionFilter filter);
+}
@@ -0,0 +1,50 @@
+package com.minimarket.repository;
+
+import com.minimarket.model.DailySalesSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the summary report query with only the predicates that are set, so SQLite can
+ * use idx_daily_sales_summary_day or the (product_id, day, transaction_type) bucket index
+ * instead of scanning the whole table.
+ */
+public class DailySalesSummaryRepositoryImpl implements DailySalesSummaryRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<DailySalesSummary> findByFilter(TransactionFilter filter) {
+        StringBuilder jpql = new StringBuilder("select s from DailySalesSummary s join fetch s.product p");
+        Map<String, Object> params = new LinkedHashMap<>();
+
+        if (filter.getProductId() != null) {
+            params.put("productId", filter.getProductId());
+            jpql.append(params.size() == 1 ? " where" : " and").append(" p.id = :productId");
+        }
+        if (filter.getFrom() != null) {
+            params.put("from", filter.getFrom());
+            jpql.append(params.size() == 1 ? " where" : " and").append(" s.day >= :from");
+        }
+        if (filter.getTo() != null) {
+            params.put("to", filter.getTo());
+            jpql.append(params.size() == 1 ? " where" : " and").append(" s.day <= :to");
+        }
+        if (filter.getTransactionType() != null) {
+            // Buckets store the type upper-case (DailySalesSummary.typeOf)
+            params.put("transactionType", filter.getTransactionType().toUpperCase());
+            jpql.append(params.size() == 1 ? " where" : " and").append(" s.transactionType = :transactionType");
+        }
+        jpql.append(" order by s.day, p.name, s.transactionType");
+
+        TypedQuery<DailySalesSummary> query = entityManager.createQuery(jpql.toString(), DailySalesSummary.class);
+        params.forEach(query::setParameter);
+        return query.getResultList();
+    }
+}
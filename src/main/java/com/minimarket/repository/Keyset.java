@@ -0,0 +1,68 @@
+package com.minimarket.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Where a listing page starts: at the beginning, or just after / just before
+ * the row a cursor points at. A cursor holds that row's sort value and id, so
+ * the page is found with an index seek however deep it is, instead of reading
+ * and skipping OFFSET rows. Clients treat cursors as opaque strings.
+ */
+public final class Keyset {
+
+    private static final Keyset FIRST = new Keyset(null, false);
+
+    private final Cursor cursor;
+    private final boolean backward;
+
+    private Keyset(Cursor cursor, boolean backward) {
+        this.cursor = cursor;
+        this.backward = backward;
+    }
+
+    public static Keyset first() {
+        return FIRST;
+    }
+
+    // The page starting after the given cursor; a missing cursor means the first page
+    public static Keyset after(String cursor) {
+        return cursor == null || cursor.isBlank() ? FIRST : new Keyset(decode(cursor), false);
+    }
+
+    // The page ending before the given cursor
+    public static Keyset before(String cursor) {
+        return cursor == null || cursor.isBlank() ? FIRST : new Keyset(decode(cursor), true);
+    }
+
+    // From the after / before request parameters of a listing, at most one of which is set
+    public static Keyset of(String after, String before) {
+        if (after != null && !after.isBlank() && before != null && !before.isBlank()) {
+            throw new IllegalArgumentException("Only one of 'after' and 'before' may be given");
+        }
+        return before != null && !before.isBlank() ? before(before) : after(after);
+    }
+
+    public boolean isFirst() { return cursor == null; }
+    public boolean isBackward() { return backward; }
+
+    Cursor getCursor() { return cursor; }
+
+    static String encode(long id, String key) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((id + ":" + key).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decode(String cursor) {
+        try {
+            String text = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = text.indexOf(':');
+            return new Cursor(Long.parseLong(text.substring(0, separator)), text.substring(separator + 1));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+        }
+    }
+
+    record Cursor(long id, String key) {
+    }
+}
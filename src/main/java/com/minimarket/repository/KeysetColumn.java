@@ -0,0 +1,14 @@
+package com.minimarket.repository;
+
+// A listing order that can be paged by seeking: this column, then the row id as a tie-breaker, both covered by an index
+interface KeysetColumn<R> {
+
+    // JPQL path of the sort column
+    String path();
+
+    // The row's sort value as it is written into a cursor
+    String keyOf(R row);
+
+    // A cursor's sort value as it is bound to the query
+    Object parseKey(String key);
+}
@@ -0,0 +1,24 @@
+package com.minimarket.repository;
+
+import java.util.List;
+
+// One page of a keyset listing, with cursors for the pages on either side (null when there is none)
+public class KeysetPage<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+    private final String previousCursor;
+
+    public KeysetPage(List<T> items, String nextCursor, String previousCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.previousCursor = previousCursor;
+    }
+
+    public List<T> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+    public String getPreviousCursor() { return previousCursor; }
+
+    public boolean hasNext() { return nextCursor != null; }
+    public boolean hasPrevious() { return previousCursor != null; }
+}
@@ -0,0 +1,76 @@
+package com.minimarket.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+// Seek predicate, ordering and page assembly shared by the keyset listings
+final class KeysetQueries {
+
+    private KeysetQueries() {
+    }
+
+    /**
+     * Completes jpql (a select with its filter predicates already in params)
+     * and reads one row more than the page to learn whether another follows.
+     */
+    static <R> KeysetPage<R> fetch(EntityManager entityManager, StringBuilder jpql, Map<String, Object> params,
+                                   Class<R> type, KeysetColumn<R> column, String idPath, ToLongFunction<R> idOf,
+                                   Sort.Direction direction, Keyset keyset, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        // A page before the cursor is read walking away from it, then put back in listing order
+        boolean ascending = direction.isAscending() != keyset.isBackward();
+        if (!keyset.isFirst()) {
+            String comparison = ascending ? " > " : " < ";
+            // "key >= :k and (key > :k or id > :id)" rather than a bare OR, so SQLite seeks the index on key
+            jpql.append(params.isEmpty() ? " where " : " and ")
+                    .append(column.path()).append(ascending ? " >= " : " <= ").append(":seekKey and (")
+                    .append(column.path()).append(comparison).append(":seekKey or ")
+                    .append(idPath).append(comparison).append(":seekId)");
+            params.put("seekKey", parseKey(column, keyset.getCursor().key()));
+            params.put("seekId", keyset.getCursor().id());
+        }
+        String order = ascending ? " asc" : " desc";
+        jpql.append(" order by ").append(column.path()).append(order).append(", ").append(idPath).append(order);
+
+        TypedQuery<R> query = entityManager.createQuery(jpql.toString(), type).setMaxResults(size + 1);
+        params.forEach(query::setParameter);
+        List<R> rows = new ArrayList<>(query.getResultList());
+
+        boolean more = rows.size() > size;
+        if (more) {
+            rows.remove(size);
+        }
+        if (keyset.isBackward()) {
+            Collections.reverse(rows);
+        }
+        // Coming back from a later page means there is a next one; coming from an earlier one, a previous one
+        boolean hasNext = keyset.isBackward() || more;
+        boolean hasPrevious = keyset.isBackward() ? more : !keyset.isFirst();
+        if (rows.isEmpty()) {
+            return new KeysetPage<>(rows, null, null);
+        }
+        R first = rows.get(0);
+        R last = rows.get(rows.size() - 1);
+        return new KeysetPage<>(rows,
+                hasNext ? Keyset.encode(idOf.applyAsLong(last), column.keyOf(last)) : null,
+                hasPrevious ? Keyset.encode(idOf.applyAsLong(first), column.keyOf(first)) : null);
+    }
+
+    // A cursor from another listing or sort order doesn't parse; that is the client's mistake, not ours
+    private static Object parseKey(KeysetColumn<?> column, String key) {
+        try {
+            return column.parseKey(key);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Page cursor doesn't match the sort order", e);
+        }
+    }
+}
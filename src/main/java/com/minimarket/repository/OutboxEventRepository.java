@@ -0,0 +1,44 @@
+package com.minimarket.repository;
+
+import com.minimarket.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Oldest deliverable events. One waiting out its retry delay holds back the later events of the same
+    // observer and product, so they still arrive in order; parked events hold back nothing.
+    @Query("select e from OutboxEvent e where e.parkedAt is null and not exists (" +
+            "select b from OutboxEvent b where b.observer = e.observer and b.productId = e.productId " +
+            "and b.parkedAt is null and b.id <= e.id and b.retryAt > :now) " +
+            "order by e.id")
+    List<OutboxEvent> findPending(@Param("now") LocalDateTime now, Pageable page);
+
+    // Per observer: [observer, pending count, oldest created_at]
+    @Query("select e.observer, count(e), min(e.createdAt) from OutboxEvent e where e.parkedAt is null group by e.observer")
+    List<Object[]> findBacklog();
+
+    // Per observer: [observer, parked count]
+    @Query("select e.observer, count(e) from OutboxEvent e where e.parkedAt is not null group by e.observer")
+    List<Object[]> findParked();
+
+    @Modifying
+    @Query("update OutboxEvent e set e.attempts = e.attempts + 1, e.retryAt = :retryAt where e.id in :ids")
+    int recordFailure(@Param("ids") List<Long> ids, @Param("retryAt") LocalDateTime retryAt);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.parkedAt = :now where e.id in :ids and e.attempts >= :maxAttempts")
+    int parkExhausted(@Param("ids") List<Long> ids, @Param("maxAttempts") int maxAttempts, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.observer = :observer")
+    int deleteByObserver(@Param("observer") String observer);
+}
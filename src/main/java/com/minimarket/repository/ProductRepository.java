@@ -2,11 +2,38 @@ package com.minimarket.repository;
 
 import com.minimarket.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
     Optional<Product> findByCode(String code);
+
+    // One query for a whole import chunk (SQLite allows far more bound parameters than a chunk has rows)
+    List<Product> findByCodeIn(Collection<String> codes);
+
+    // The products LowStockIndex tracks
+    List<Product> findByReorderLevelIsNotNull();
+
+    // Stock changes are single UPDATEs so concurrent transactions never lose an increment.
+    // "versioned" bumps Product.version, so an entity loaded before the change can't be saved over it.
+    @Modifying
+    @Query("update versioned Product p set p.stock = p.stock + :quantity where p.id = :id")
+    int addStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // Returns 0 (and changes nothing) when the product has less than quantity in stock
+    @Modifying
+    @Query("update versioned Product p set p.stock = p.stock - :quantity where p.id = :id and p.stock >= :quantity")
+    int removeStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // Stock rebuilt from the ledger by StockLedger.verify
+    @Modifying
+    @Query("update versioned Product p set p.stock = :stock where p.id = :id")
+    int setStock(@Param("id") Long id, @Param("stock") int stock);
 }
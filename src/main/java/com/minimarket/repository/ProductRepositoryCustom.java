@@ -0,0 +1,9 @@
+package com.minimarket.repository;
+
+import com.minimarket.model.Product;
+import org.springframework.data.domain.Sort;
+
+public interface ProductRepositoryCustom {
+
+    KeysetPage<Product> findPage(ProductSort sort, Sort.Direction direction, Keyset keyset, int size);
+}
@@ -0,0 +1,20 @@
+package com.minimarket.repository;
+
+import com.minimarket.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Sort;
+
+import java.util.LinkedHashMap;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public KeysetPage<Product> findPage(ProductSort sort, Sort.Direction direction, Keyset keyset, int size) {
+        return KeysetQueries.fetch(entityManager, new StringBuilder("select p from Product p"), new LinkedHashMap<>(),
+                Product.class, sort, "p.id", Product::getId, direction, keyset, size);
+    }
+}
@@ -0,0 +1,41 @@
+package com.minimarket.repository;
+
+import com.minimarket.model.Money;
+import com.minimarket.model.Product;
+
+// Orders of the product listing; each is backed by an index ending in the row id (see Product)
+public enum ProductSort implements KeysetColumn<Product> {
+
+    CODE("p.code") {
+        @Override
+        public String keyOf(Product product) { return product.getCode(); }
+
+        @Override
+        public Object parseKey(String key) { return key; }
+    },
+    NAME("p.name") {
+        @Override
+        public String keyOf(Product product) { return product.getName(); }
+
+        @Override
+        public Object parseKey(String key) { return key; }
+    },
+    PRICE("p.price") {
+        @Override
+        public String keyOf(Product product) { return Long.toString(product.getPrice().getMinorUnits()); }
+
+        @Override
+        public Object parseKey(String key) { return Money.ofMinor(Long.parseLong(key)); }
+    };
+
+    private final String path;
+
+    ProductSort(String path) {
+        this.path = path;
+    }
+
+    @Override
+    public String path() {
+        return path;
+    }
+}
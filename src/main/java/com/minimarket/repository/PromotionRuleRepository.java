@@ -0,0 +1,18 @@
+package com.minimarket.repository;
+
+import com.minimarket.model.PromotionRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PromotionRuleRepository extends JpaRepository<PromotionRule, Long> {
+
+    // Active rules that are live now or start later; expired ones are never needed again
+    @Query("select r from PromotionRule r where r.active = true and (r.endsAt is null or r.endsAt > :now)")
+    List<PromotionRule> findCurrentAndUpcoming(@Param("now") LocalDateTime now);
+}
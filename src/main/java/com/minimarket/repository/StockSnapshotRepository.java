@@ -0,0 +1,30 @@
+package com.minimarket.repository;
+
+import com.minimarket.model.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+
+    // One seek on idx_stock_snapshots_product
+    Optional<StockSnapshot> findFirstByProductIdOrderByLastTransactionIdDescIdDesc(Long productId);
+
+    List<StockSnapshot> findByProductIdOrderByLastTransactionIdAscIdAsc(Long productId);
+
+    // [id, stock] of the products that have no snapshot yet. StockLedger saves their baselines as entities:
+    // a native insert would pick ids behind the back of the in-memory id generator
+    @Query("select p.id, p.stock from Product p " +
+            "where not exists (select 1 from StockSnapshot s where s.productId = p.id)")
+    List<Object[]> findStockOfProductsWithoutSnapshot();
+
+    @Modifying
+    @Query("delete from StockSnapshot s where s.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+}
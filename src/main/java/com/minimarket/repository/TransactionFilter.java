@@ -0,0 +1,66 @@
+package com.minimarket.repository;
+
+import com.minimarket.model.Purchase;
+import com.minimarket.model.Sale;
+import com.minimarket.model.Transaction;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Optional criteria for transaction queries; a null field means "no restriction"
+public class TransactionFilter {
+
+    private final LocalDate from;
+    private final LocalDate to;
+    private final Long productId;
+    private final String transactionType;
+
+    public TransactionFilter(LocalDate from, LocalDate to, Long productId, String transactionType) {
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        this.from = from;
+        this.to = to;
+        this.productId = productId;
+        this.transactionType = transactionType == null || transactionType.isBlank() ? null : transactionType;
+        // Fail fast on unknown types instead of silently returning an empty report
+        getTransactionClass();
+    }
+
+    public static TransactionFilter none() {
+        return new TransactionFilter(null, null, null, null);
+    }
+
+    public LocalDate getFrom() { return from; }
+    public LocalDate getTo() { return to; }
+    public Long getProductId() { return productId; }
+    public String getTransactionType() { return transactionType; }
+
+    // Inclusive lower bound on Transaction.date
+    public LocalDateTime getFromDateTime() {
+        return from == null ? null : from.atStartOfDay();
+    }
+
+    // Exclusive upper bound on Transaction.date ('to' is an inclusive day)
+    public LocalDateTime getToDateTimeExclusive() {
+        return to == null ? null : to.plusDays(1).atStartOfDay();
+    }
+
+    public Class<? extends Transaction> getTransactionClass() {
+        if (transactionType == null) {
+            return null;
+        } else if ("PURCHASE".equalsIgnoreCase(transactionType)) {
+            return Purchase.class;
+        } else if ("SALE".equalsIgnoreCase(transactionType)) {
+            return Sale.class;
+        }
+        throw new IllegalArgumentException("Unknown transaction type: " + transactionType);
+    }
+
+    // Stable textual form, used as part of report cache keys
+    @Override
+    public String toString() {
+        return "from=" + from + ",to=" + to + ",productId=" + productId
+                + ",transactionType=" + (transactionType == null ? null : transactionType.toUpperCase());
+    }
+}
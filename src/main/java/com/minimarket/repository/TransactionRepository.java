@@ -1,12 +1,37 @@
 package com.minimarket.repository;
 
 import com.minimarket.model.Transaction;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionRepositoryCustom {
     List<Transaction> findByProductId(Long productId);
+
+    // What a transaction does to its product's stock: purchases add, sales remove
+    String STOCK_CHANGE = "case when type(t) = Purchase then t.quantity when type(t) = Sale then -t.quantity else 0 end";
+
+    @Query("select coalesce(max(t.id), 0) from Transaction t")
+    long findLastId();
+
+    // One row: [net stock change, transaction count, highest id] of a product's transactions after afterId.
+    // A range of idx_transactions_product, so its cost is bounded by how recent the product's snapshot is.
+    @Query("select coalesce(sum(" + STOCK_CHANGE + "), 0), count(t), coalesce(max(t.id), :afterId) " +
+            "from Transaction t where t.product.id = :productId and t.id > :afterId")
+    List<Object[]> sumStockChangesAfter(@Param("productId") Long productId, @Param("afterId") long afterId);
+
+    // [id, stock change] in ledger order, for replays
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select t.id, " + STOCK_CHANGE + " from Transaction t " +
+            "where t.product.id = :productId and t.id > :afterId order by t.id")
+    Stream<Object[]> streamStockChangesAfter(@Param("productId") Long productId, @Param("afterId") long afterId);
 }
@@ -0,0 +1,20 @@
+package com.minimarket.repository;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface TransactionRepositoryCustom {
+
+    List<TransactionRow> findRows(TransactionFilter filter);
+
+    // One page of the listing in the given order, found by seeking from the keyset's cursor
+    KeysetPage<TransactionRow> findRowPage(TransactionFilter filter, TransactionSort sort, Sort.Direction direction,
+                                           Keyset keyset, int size);
+
+    // Cursor-backed scan for streaming reports; must be consumed inside a transaction
+    Stream<TransactionRow> streamRows(TransactionFilter filter);
+
+    long countRows(TransactionFilter filter);
+}
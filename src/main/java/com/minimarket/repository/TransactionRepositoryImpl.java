@@ -0,0 +1,97 @@
+package com.minimarket.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Sort;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+/**
+ * Builds the report query with only the predicates that are set, so SQLite can
+ * pick idx_transactions_date or idx_transactions_product_date instead of
+ * falling back to a full scan on "(:param is null or ...)" clauses.
+ */
+public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
+
+    // Rows pulled from the JDBC cursor per round trip when streaming reports
+    static final int REPORT_FETCH_SIZE = 500;
+
+    // Constructor projection: one joined select, no managed entities and no per-row product loads
+    private static final String ROW_SELECT = "select new com.minimarket.repository.TransactionRow("
+            + "t.id, t.date, type(t), p.id, p.name, t.quantity, t.total, "
+            + "treat(t as Purchase).supplier, treat(t as Sale).customer) "
+            + "from Transaction t join t.product p";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TransactionRow> findRows(TransactionFilter filter) {
+        return createQuery(filter).getResultList();
+    }
+
+    @Override
+    public KeysetPage<TransactionRow> findRowPage(TransactionFilter filter, TransactionSort sort, Sort.Direction direction,
+                                                  Keyset keyset, int size) {
+        StringBuilder jpql = new StringBuilder(ROW_SELECT);
+        Map<String, Object> params = appendPredicates(jpql, filter);
+        return KeysetQueries.fetch(entityManager, jpql, params, TransactionRow.class,
+                sort, "t.id", TransactionRow::getId, direction, keyset, size);
+    }
+
+    @Override
+    public Stream<TransactionRow> streamRows(TransactionFilter filter) {
+        return createQuery(filter)
+                .setHint(HINT_FETCH_SIZE, REPORT_FETCH_SIZE)
+                .getResultStream();
+    }
+
+    @Override
+    public long countRows(TransactionFilter filter) {
+        StringBuilder jpql = new StringBuilder("select count(t) from Transaction t join t.product p");
+        Map<String, Object> params = appendPredicates(jpql, filter);
+
+        TypedQuery<Long> query = entityManager.createQuery(jpql.toString(), Long.class);
+        params.forEach(query::setParameter);
+        return query.getSingleResult();
+    }
+
+    private TypedQuery<TransactionRow> createQuery(TransactionFilter filter) {
+        StringBuilder jpql = new StringBuilder(ROW_SELECT);
+        Map<String, Object> params = appendPredicates(jpql, filter);
+        // Matches the index order (rowid is the implicit tail of every SQLite index)
+        jpql.append(" order by t.date, t.id");
+
+        TypedQuery<TransactionRow> query = entityManager.createQuery(jpql.toString(), TransactionRow.class);
+        params.forEach(query::setParameter);
+        return query;
+    }
+
+    private static Map<String, Object> appendPredicates(StringBuilder jpql, TransactionFilter filter) {
+        Map<String, Object> params = new LinkedHashMap<>();
+
+        if (filter.getProductId() != null) {
+            params.put("productId", filter.getProductId());
+            jpql.append(params.size() == 1 ? " where" : " and").append(" p.id = :productId");
+        }
+        if (filter.getFromDateTime() != null) {
+            params.put("from", filter.getFromDateTime());
+            jpql.append(params.size() == 1 ? " where" : " and").append(" t.date >= :from");
+        }
+        if (filter.getToDateTimeExclusive() != null) {
+            params.put("to", filter.getToDateTimeExclusive());
+            jpql.append(params.size() == 1 ? " where" : " and").append(" t.date < :to");
+        }
+        if (filter.getTransactionClass() != null) {
+            params.put("type", filter.getTransactionClass());
+            jpql.append(params.size() == 1 ? " where" : " and").append(" type(t) = :type");
+        }
+        return params;
+    }
+}
@@ -0,0 +1,44 @@
+package com.minimarket.repository;
+
+import com.minimarket.model.Money;
+
+import java.time.LocalDateTime;
+
+// Flat read model of a transaction and its product name, built by a single join (no entity hydration)
+public class TransactionRow {
+
+    private final Long id;
+    private final LocalDateTime date;
+    private final String type;
+    private final Long productId;
+    private final String productName;
+    private final Integer quantity;
+    private final long totalMinor;
+    private final String extraInfo;
+
+    public TransactionRow(Long id, LocalDateTime date, Class<?> type, Long productId, String productName,
+                          Integer quantity, Money total, String supplier, String customer) {
+        this.id = id;
+        this.date = date;
+        // Same value the entity-based views showed: Purchase / Sale
+        this.type = type.getSimpleName();
+        this.productId = productId;
+        this.productName = productName;
+        this.quantity = quantity;
+        this.totalMinor = total.getMinorUnits();
+        this.extraInfo = supplier != null ? supplier : customer;
+    }
+
+    public Long getId() { return id; }
+    public LocalDateTime getDate() { return date; }
+    public String getType() { return type; }
+    public Long getProductId() { return productId; }
+    public String getProductName() { return productName; }
+    public Integer getQuantity() { return quantity; }
+    public Money getTotal() { return Money.ofMinor(totalMinor); }
+    public long getTotalMinor() { return totalMinor; }
+    public String getExtraInfo() { return extraInfo; }
+
+    public boolean isPurchase() { return "Purchase".equals(type); }
+    public boolean isSale() { return "Sale".equals(type); }
+}
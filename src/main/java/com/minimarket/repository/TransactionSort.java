@@ -0,0 +1,43 @@
+package com.minimarket.repository;
+
+import com.minimarket.model.Money;
+
+import java.time.LocalDateTime;
+
+// Orders of the transaction listing; each is backed by an index ending in the row id (see Transaction)
+public enum TransactionSort implements KeysetColumn<TransactionRow> {
+
+    DATE("t.date") {
+        @Override
+        public String keyOf(TransactionRow row) { return row.getDate().toString(); }
+
+        @Override
+        public Object parseKey(String key) { return LocalDateTime.parse(key); }
+    },
+    // Groups the listing by product (in catalog id order), oldest first within a product
+    PRODUCT("t.product.id") {
+        @Override
+        public String keyOf(TransactionRow row) { return row.getProductId().toString(); }
+
+        @Override
+        public Object parseKey(String key) { return Long.valueOf(key); }
+    },
+    TOTAL("t.total") {
+        @Override
+        public String keyOf(TransactionRow row) { return Long.toString(row.getTotalMinor()); }
+
+        @Override
+        public Object parseKey(String key) { return Money.ofMinor(Long.parseLong(key)); }
+    };
+
+    private final String path;
+
+    TransactionSort(String path) {
+        this.path = path;
+    }
+
+    @Override
+    public String path() {
+        return path;
+    }
+}
@@ -0,0 +1,52 @@
+package com.minimarket.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers an update of in-memory state (caches, indexes) until the current DB
+ * transaction commits, so a rollback never leaves them ahead of the database.
+ * Without a transaction the action runs right away.
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    public static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // Like run(action), and then calls finished when the transaction ends, whether it committed or rolled back
+    public static void run(Runnable action, Runnable finished) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    try {
+                        if (status == STATUS_COMMITTED) {
+                            action.run();
+                        }
+                    } finally {
+                        finished.run();
+                    }
+                }
+            });
+        } else {
+            try {
+                action.run();
+            } finally {
+                finished.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.minimarket.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 CSV one record at a time: quoted fields may hold commas,
+ * doubled quotes and line breaks. Only the current record is held in memory,
+ * so a file of any size streams through a small buffer.
+ */
+final class CsvRecordReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long line = 1;
+    private long recordLine;
+    private boolean started;
+
+    CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    // The next record's fields, or null at the end of the input; blank lines are skipped
+    List<String> next() throws IOException {
+        if (!started) {
+            started = true;
+            // Spreadsheet exports often start with a byte order mark
+            if (peek() == '\uFEFF') {
+                position++;
+            }
+        }
+        while (true) {
+            int c = peek();
+            if (c < 0) {
+                return null;
+            }
+            if (c == '\r' || c == '\n') {
+                endOfLine();
+                continue;
+            }
+            break;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        while (true) {
+            int c = read();
+            if (quoted) {
+                if (c < 0) {
+                    throw new IOException("Line " + recordLine + ": quoted field is never closed");
+                }
+                if (c == '"') {
+                    if (peek() == '"') {
+                        position++;
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n' || (c == '\r' && peek() != '\n')) {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty() && !wasQuoted) {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                fields.add(wasQuoted ? field.toString() : field.toString().trim());
+                field.setLength(0);
+                wasQuoted = false;
+            } else if (c < 0 || c == '\r' || c == '\n') {
+                fields.add(wasQuoted ? field.toString() : field.toString().trim());
+                if (c >= 0) {
+                    position--;
+                    endOfLine();
+                }
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    // Line the last record returned by next started on (1-based)
+    long getRecordLine() {
+        return recordLine;
+    }
+
+    private void endOfLine() throws IOException {
+        if (read() == '\r' && peek() == '\n') {
+            position++;
+        }
+        line++;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
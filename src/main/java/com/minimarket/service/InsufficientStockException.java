@@ -0,0 +1,9 @@
+package com.minimarket.service;
+
+// A sale asked for more units than the product has; the DB transaction it ran in is rolled back
+public class InsufficientStockException extends IllegalStateException {
+
+    public InsufficientStockException(Long productId) {
+        super("Insufficient stock for product " + productId);
+    }
+}
@@ -0,0 +1,5 @@
+package com.minimarket.service;
+
+// Published by LowStockIndex when a product drops to its reorder level (low) or is restocked above it
+public record LowStockEvent(StockLevel level, boolean low) {
+}
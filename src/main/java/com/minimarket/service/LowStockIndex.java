@@ -0,0 +1,199 @@
+package com.minimarket.service;
+
+import com.minimarket.model.Product;
+import com.minimarket.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Products that have a reorder level, ordered by how far their stock is above
+ * it. The low ones are the head of that order, so listing them is one seek
+ * (O(log n)) plus the products returned, instead of a scan of the catalog.
+ *
+ * Kept current by StockUpdater and ProductService after each commit, and rebuilt
+ * from the database at startup. A LowStockEvent is published whenever a change
+ * takes a product across its reorder level, in either direction.
+ */
+@Component
+public class LowStockIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(LowStockIndex.class);
+
+    private static final Comparator<StockLevel> BY_MARGIN =
+            Comparator.comparingLong(StockLevel::getMargin).thenComparing(StockLevel::id);
+    // Sorts after every low product and before every other one
+    private static final StockLevel LAST_LOW = new StockLevel(Long.MAX_VALUE, null, null, 0, 0);
+
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtomicLong alerts = new AtomicLong();
+
+    private final NavigableSet<StockLevel> byMargin = new TreeSet<>(BY_MARGIN);
+    private final Map<Long, StockLevel> byId = new HashMap<>();
+    // Ids written to while a rebuild is loading, so it can re-read them; null when no rebuild runs
+    private Set<Long> changedDuringRebuild;
+
+    @Autowired
+    public LowStockIndex(ProductRepository productRepository, ApplicationEventPublisher eventPublisher) {
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Loads every tracked product, then re-reads the ones written to meanwhile
+     * (a sale from a runner or an early request) until none are left, and only
+     * then swaps the result in. Writes keep applying to the old contents until
+     * the swap. Products that were already low before the restart are listed,
+     * but not announced again.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            changedDuringRebuild = new HashSet<>();
+        }
+        try {
+            Map<Long, StockLevel> loaded = new HashMap<>();
+            for (Product product : productRepository.findByReorderLevelIsNotNull()) {
+                loaded.put(product.getId(), StockLevel.of(product));
+            }
+            while (true) {
+                Set<Long> changed;
+                synchronized (this) {
+                    changed = changedDuringRebuild;
+                    if (changed.isEmpty()) {
+                        byMargin.clear();
+                        byId.clear();
+                        loaded.values().forEach(this::store);
+                        return;
+                    }
+                    changedDuringRebuild = new HashSet<>();
+                }
+                changed.forEach(loaded::remove);
+                for (Product product : productRepository.findAllById(changed)) {
+                    if (product.getReorderLevel() != null) {
+                        loaded.put(product.getId(), StockLevel.of(product));
+                    }
+                }
+            }
+        } finally {
+            synchronized (this) {
+                changedDuringRebuild = null;
+            }
+        }
+    }
+
+    // Lowest stock relative to the reorder level first
+    public synchronized List<StockLevel> getLow(int limit) {
+        return byMargin.headSet(LAST_LOW, true).stream().limit(limit).toList();
+    }
+
+    public void putAfterCommit(Product product) {
+        StockLevel level = product.getReorderLevel() == null ? null : StockLevel.of(product);
+        Long id = product.getId();
+        AfterCommit.run(() -> put(id, level));
+    }
+
+    public void removeAfterCommit(Long id) {
+        AfterCommit.run(() -> put(id, null));
+    }
+
+    // Mirrors a stock UPDATE made by StockUpdater
+    public void adjustStockAfterCommit(Long id, int change) {
+        AfterCommit.run(() -> adjustStock(id, change));
+    }
+
+    public void put(Product product) {
+        put(product.getId(), product.getReorderLevel() == null ? null : StockLevel.of(product));
+    }
+
+    public void adjustStock(Long id, int change) {
+        StockLevel previous;
+        StockLevel current;
+        synchronized (this) {
+            markChanged(id);
+            previous = byId.get(id);
+            if (previous == null) {
+                return;
+            }
+            current = previous.withStock(previous.stock() + change);
+            unstore(id);
+            store(current);
+        }
+        announceCrossing(previous, current);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (this) {
+            stats.put("tracked", byId.size());
+            stats.put("low", byMargin.headSet(LAST_LOW, true).size());
+        }
+        stats.put("alerts", alerts.get());
+        return stats;
+    }
+
+    // level is null when the product is gone or no longer has a reorder level
+    private void put(Long id, StockLevel level) {
+        StockLevel previous;
+        synchronized (this) {
+            markChanged(id);
+            previous = unstore(id);
+            if (level != null) {
+                store(level);
+            }
+        }
+        if (level != null) {
+            announceCrossing(previous, level);
+        }
+    }
+
+    // A product that wasn't tracked before counts as not low, so one added below its level is announced
+    private void announceCrossing(StockLevel previous, StockLevel current) {
+        boolean wasLow = previous != null && previous.isLow();
+        if (wasLow == current.isLow()) {
+            return;
+        }
+        if (current.isLow()) {
+            alerts.incrementAndGet();
+            log.info("Product {} is low on stock: {} left, reorder level {}",
+                    current.code(), current.stock(), current.reorderLevel());
+        }
+        eventPublisher.publishEvent(new LowStockEvent(current, current.isLow()));
+    }
+
+    private void store(StockLevel level) {
+        byId.put(level.id(), level);
+        byMargin.add(level);
+    }
+
+    private StockLevel unstore(Long id) {
+        StockLevel previous = byId.remove(id);
+        if (previous != null) {
+            byMargin.remove(previous);
+        }
+        return previous;
+    }
+
+    // Called holding the lock
+    private void markChanged(Long id) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(id);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.minimarket.service;
+
+import com.minimarket.model.Product;
+import com.minimarket.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process copy of the product catalog, indexed by id and by code. Entries are
+ * detached snapshots and callers always get their own copy. Writes that go through
+ * ProductService and StockUpdater are applied here once their DB transaction commits;
+ * anything else that writes products must call put/evict too.
+ *
+ * Cached stock is for display only: checkouts never read it, the conditional
+ * UPDATE in ProductRepository.removeStock is what decides whether a sale fits.
+ * Least recently used entries are dropped once maxEntries is exceeded.
+ */
+@Component
+public class ProductCache {
+
+    private final ProductRepository productRepository;
+    private final int maxEntries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<Long, Product> byId = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Long> idByCode = new HashMap<>();
+    // True while every product in the DB is cached, so getAll can skip the query
+    private boolean complete;
+    // Bumped by every write; a load that raced with a write is returned but not cached
+    private long modifications;
+    // Stock changes whose DB transaction has not finished. Between the commit and the adjust a
+    // load can already see the new stock, so nothing loaded meanwhile is cached.
+    private int pendingStockChanges;
+
+    @Autowired
+    public ProductCache(ProductRepository productRepository,
+                        @Value("${minimarket.products.cache.max-entries:10000}") int maxEntries) {
+        this.productRepository = productRepository;
+        this.maxEntries = maxEntries;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        loadAll();
+    }
+
+    public Optional<Product> getById(Long id) {
+        synchronized (this) {
+            Product cached = byId.get(id);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return Optional.of(copyOf(cached));
+            }
+        }
+        misses.incrementAndGet();
+        long seen = modificationCount();
+        Optional<Product> loaded = productRepository.findById(id);
+        loaded.ifPresent(product -> putIfUnchanged(List.of(product), seen));
+        return loaded.map(ProductCache::copyOf);
+    }
+
+    public Optional<Product> getByCode(String code) {
+        synchronized (this) {
+            Long id = idByCode.get(code);
+            if (id != null) {
+                hits.incrementAndGet();
+                return Optional.of(copyOf(byId.get(id)));
+            }
+        }
+        misses.incrementAndGet();
+        long seen = modificationCount();
+        Optional<Product> loaded = productRepository.findByCode(code);
+        loaded.ifPresent(product -> putIfUnchanged(List.of(product), seen));
+        return loaded.map(ProductCache::copyOf);
+    }
+
+    // Products that don't exist are left out of the result; the ones not cached are loaded with one query
+    public Map<Long, Product> getAllById(Collection<Long> ids) {
+        Map<Long, Product> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        synchronized (this) {
+            for (Long id : ids) {
+                Product cached = byId.get(id);
+                if (cached != null) {
+                    found.put(id, copyOf(cached));
+                } else {
+                    missing.add(id);
+                }
+            }
+        }
+        hits.addAndGet(found.size());
+        if (missing.isEmpty()) {
+            return found;
+        }
+        misses.addAndGet(missing.size());
+        long seen = modificationCount();
+        List<Product> loaded = productRepository.findAllById(missing);
+        putIfUnchanged(loaded, seen);
+        for (Product product : loaded) {
+            found.put(product.getId(), copyOf(product));
+        }
+        return found;
+    }
+
+    public List<Product> getAll() {
+        synchronized (this) {
+            if (complete) {
+                hits.incrementAndGet();
+                return byId.values().stream()
+                        .sorted(Comparator.comparing(Product::getId))
+                        .map(ProductCache::copyOf)
+                        .toList();
+            }
+        }
+        misses.incrementAndGet();
+        return loadAll().stream().map(ProductCache::copyOf).toList();
+    }
+
+    public void putAfterCommit(Product product) {
+        Product snapshot = copyOf(product);
+        AfterCommit.run(() -> put(snapshot));
+    }
+
+    public void evictAfterCommit(Long id) {
+        AfterCommit.run(() -> evict(id));
+    }
+
+    // Mirrors the "update versioned" stock change in ProductRepository, including the version bump.
+    // Must be called inside the transaction that made the change, before it commits.
+    public void adjustStockAfterCommit(Long id, int change) {
+        synchronized (this) {
+            pendingStockChanges++;
+        }
+        AfterCommit.run(() -> adjustStock(id, change), this::stockChangeFinished);
+    }
+
+    public synchronized void put(Product product) {
+        modifications++;
+        Product previous = byId.get(product.getId());
+        if (previous != null) {
+            idByCode.remove(previous.getCode());
+        }
+        store(copyOf(product));
+    }
+
+    public synchronized void evict(Long id) {
+        modifications++;
+        Product removed = byId.remove(id);
+        if (removed != null) {
+            idByCode.remove(removed.getCode());
+        }
+    }
+
+    public synchronized void adjustStock(Long id, int change) {
+        modifications++;
+        Product cached = byId.get(id);
+        if (cached != null) {
+            cached.setStock(cached.getStock() + change);
+            cached.setVersion(cached.getVersion() == null ? null : cached.getVersion() + 1);
+        }
+    }
+
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    public synchronized int getSize() { return byId.size(); }
+    public int getMaxEntries() { return maxEntries; }
+
+    public Map<String, Object> getStats() {
+        long hitCount = getHits();
+        long lookups = hitCount + getMisses();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hitCount);
+        stats.put("misses", getMisses());
+        stats.put("hitRatio", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        stats.put("entries", getSize());
+        stats.put("maxEntries", getMaxEntries());
+        synchronized (this) {
+            stats.put("complete", complete);
+        }
+        return stats;
+    }
+
+    // Replaces the cache with the whole catalog, unless it is too big or a write happened meanwhile
+    private List<Product> loadAll() {
+        long seen = modificationCount();
+        List<Product> products = productRepository.findAll();
+        synchronized (this) {
+            if (isUnchangedSince(seen) && products.size() <= maxEntries) {
+                byId.clear();
+                idByCode.clear();
+                products.forEach(product -> store(copyOf(product)));
+                complete = true;
+            }
+        }
+        return products;
+    }
+
+    private synchronized long modificationCount() {
+        return modifications;
+    }
+
+    private synchronized void stockChangeFinished() {
+        pendingStockChanges--;
+        modifications++;
+    }
+
+    // Called holding the lock
+    private boolean isUnchangedSince(long seen) {
+        return seen == modifications && pendingStockChanges == 0;
+    }
+
+    private synchronized void putIfUnchanged(List<Product> loaded, long seen) {
+        if (!isUnchangedSince(seen)) {
+            return;
+        }
+        for (Product product : loaded) {
+            Product previous = byId.get(product.getId());
+            if (previous != null) {
+                idByCode.remove(previous.getCode());
+            }
+            store(copyOf(product));
+        }
+    }
+
+    private void store(Product product) {
+        byId.put(product.getId(), product);
+        idByCode.put(product.getCode(), product.getId());
+        Iterator<Product> lru = byId.values().iterator();
+        while (byId.size() > maxEntries && lru.hasNext()) {
+            idByCode.remove(lru.next().getCode());
+            lru.remove();
+            complete = false;
+        }
+    }
+
+    private static Product copyOf(Product product) {
+        Product copy = new Product.Builder(product.getCode(), product.getName())
+                .id(product.getId())
+                .price(product.getPrice())
+                .stock(product.getStock())
+                .category(product.getCategory())
+                .reorderLevel(product.getReorderLevel())
+                .build();
+        copy.setVersion(product.getVersion());
+        return copy;
+    }
+}
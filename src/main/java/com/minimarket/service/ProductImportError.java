@@ -0,0 +1,5 @@
+package com.minimarket.service;
+
+// Why one row of an import was skipped; line is where the row starts in the file
+public record ProductImportError(long line, String code, String message) {
+}
@@ -0,0 +1,126 @@
+package com.minimarket.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A CSV product import running in the background. Like ReportJob, state is
+ * written by the import thread and read by request threads, so the mutable
+ * fields are volatile or atomic. Only the first maxErrors row errors are kept;
+ * all of them are counted.
+ */
+public class ProductImportJob {
+
+    public enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+    private final String id;
+    private final String filename;
+    private final long sizeBytes;
+    private final int maxErrors;
+    private final Instant createdAt;
+
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong inserted = new AtomicLong();
+    private final AtomicLong updated = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final List<ProductImportError> errors = new ArrayList<>();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile String error;
+    private volatile Instant completedAt;
+
+    public ProductImportJob(String id, String filename, long sizeBytes, int maxErrors, Instant createdAt) {
+        this.id = id;
+        this.filename = filename;
+        this.sizeBytes = sizeBytes;
+        this.maxErrors = maxErrors;
+        this.createdAt = createdAt;
+    }
+
+    public boolean isPending() {
+        return status == Status.QUEUED || status == Status.RUNNING;
+    }
+
+    public void start() {
+        this.status = Status.RUNNING;
+    }
+
+    public void complete(Instant completedAt) {
+        this.completedAt = completedAt;
+        this.status = Status.DONE;
+    }
+
+    // The file as a whole could not be read; rows committed before that stay imported
+    public void fail(String error, Instant completedAt) {
+        this.error = error;
+        this.completedAt = completedAt;
+        this.status = Status.FAILED;
+    }
+
+    public void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    public void imported(long insertedRows, long updatedRows) {
+        inserted.addAndGet(insertedRows);
+        updated.addAndGet(updatedRows);
+    }
+
+    public void rowFailed(ProductImportError rowError) {
+        failed.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < maxErrors) {
+                errors.add(rowError);
+            }
+        }
+    }
+
+    // 0-100 by bytes of the file read so far
+    public int getProgressPercent() {
+        if (status == Status.DONE) {
+            return 100;
+        }
+        return sizeBytes <= 0 ? 0 : (int) Math.min(100, bytesRead.get() * 100 / sizeBytes);
+    }
+
+    public Map<String, Object> toStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("id", id);
+        status.put("filename", filename);
+        status.put("status", this.status.name());
+        status.put("progressPercent", getProgressPercent());
+        status.put("rowsRead", rowsRead.get());
+        status.put("inserted", inserted.get());
+        status.put("updated", updated.get());
+        status.put("failed", failed.get());
+        status.put("createdAt", createdAt.toString());
+        status.put("completedAt", completedAt == null ? null : completedAt.toString());
+        status.put("error", error);
+        status.put("errors", getErrors());
+        return status;
+    }
+
+    public String getId() { return id; }
+    public String getFilename() { return filename; }
+    public long getSizeBytes() { return sizeBytes; }
+    public Instant getCreatedAt() { return createdAt; }
+    public AtomicLong getBytesRead() { return bytesRead; }
+    public long getRowsRead() { return rowsRead.get(); }
+    public long getInserted() { return inserted.get(); }
+    public long getUpdated() { return updated.get(); }
+    public long getFailed() { return failed.get(); }
+    public Status getStatus() { return status; }
+    public String getError() { return error; }
+    public Instant getCompletedAt() { return completedAt; }
+
+    public List<ProductImportError> getErrors() {
+        synchronized (errors) {
+            return List.copyOf(errors);
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.minimarket.service;
+
+import com.minimarket.model.Money;
+import com.minimarket.model.Product;
+import com.minimarket.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports supplier catalogs from CSV, upserting by product code. An upload is
+ * staged to a file under the imports directory and read back as a stream, so
+ * only one chunk of rows is ever in memory. Each chunk is one DB transaction:
+ * one query finds the codes that already exist, then the inserts and updates go
+ * out in JDBC batches through ProductService.saveProducts. A chunk that fails
+ * rolls back on its own; the rows before it stay imported. A file that can't be
+ * read to the end fails the job, after the valid rows before the break are
+ * imported.
+ *
+ * The header names the columns: code, name and price are required; stock,
+ * category and reorder_level are optional. An empty optional cell clears the
+ * value, except stock, which is then left as it is (0 for new products).
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final String STAGED_SUFFIX = ".import.csv";
+    private static final int MAX_JOBS_KEPT = 50;
+
+    private final ProductService productService;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate writeTemplate;
+    private final Path directory;
+    private final int chunkSize;
+    private final int maxErrors;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, ProductImportJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ProductImportService(ProductService productService,
+                                ProductRepository productRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${minimarket.products.import.dir:data/imports}") String directory,
+                                @Value("${minimarket.products.import.chunk-size:1000}") int chunkSize,
+                                @Value("${minimarket.products.import.max-errors:1000}") int maxErrors,
+                                @Value("${minimarket.products.import.queue-capacity:4}") int queueCapacity) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("minimarket.products.import.chunk-size must be positive");
+        }
+        this.productService = productService;
+        this.productRepository = productRepository;
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.directory = Paths.get(directory);
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+        // One import at a time: they all go through the single write connection anyway
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "product-import");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(directory);
+        // Jobs do not survive a restart, so uploads staged by a previous run would never be imported
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + STAGED_SUFFIX)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Stages the upload (a stream copy, never the whole file in memory) and queues its import
+    public ProductImportJob submit(String filename, InputStream content) throws IOException {
+        String id = UUID.randomUUID().toString();
+        Path staged = directory.resolve(id + STAGED_SUFFIX);
+        Files.copy(content, staged, StandardCopyOption.REPLACE_EXISTING);
+
+        ProductImportJob job = new ProductImportJob(id, filename, Files.size(staged), maxErrors, Instant.now());
+        try {
+            executor.execute(() -> run(job, staged));
+        } catch (RejectedExecutionException e) {
+            Files.deleteIfExists(staged);
+            throw new QueueFullException("Product import queue is full, try again later", e);
+        }
+        jobs.put(id, job);
+        forgetOldJobs();
+        return job;
+    }
+
+    public Optional<ProductImportJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public List<ProductImportJob> getJobs() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing(ProductImportJob::getCreatedAt).reversed())
+                .toList();
+    }
+
+    private void run(ProductImportJob job, Path staged) {
+        try (InputStream in = new CountingInputStream(Files.newInputStream(staged), job)) {
+            importCsv(job, new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Product import {} failed", job.getId(), e);
+            job.fail(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName(), Instant.now());
+        } finally {
+            try {
+                Files.deleteIfExists(staged);
+            } catch (IOException e) {
+                log.warn("Could not delete staged import {}", staged, e);
+            }
+        }
+    }
+
+    // Runs the whole import on the calling thread
+    void importCsv(ProductImportJob job, Reader csv) throws IOException {
+        job.start();
+        CsvRecordReader reader = new CsvRecordReader(new BufferedReader(csv));
+        List<String> header = reader.next();
+        if (header == null) {
+            throw new IOException("The file is empty");
+        }
+        Columns columns = Columns.of(header);
+
+        // Keyed by code: a code seen twice in one chunk closes the chunk first, so rows still apply in file order
+        Map<String, Row> chunk = new LinkedHashMap<>();
+        try {
+            List<String> fields;
+            while ((fields = reader.next()) != null) {
+                job.rowRead();
+                long line = reader.getRecordLine();
+                Row row;
+                try {
+                    row = columns.parse(fields, line);
+                } catch (IllegalArgumentException e) {
+                    job.rowFailed(new ProductImportError(line, columns.codeOf(fields), e.getMessage()));
+                    continue;
+                }
+                if (chunk.containsKey(row.code()) || chunk.size() >= chunkSize) {
+                    importChunk(job, chunk);
+                    chunk.clear();
+                }
+                chunk.put(row.code(), row);
+            }
+        } finally {
+            // Also when the file breaks off (an unclosed quote): the rows read before that are as good as the rest
+            importChunk(job, chunk);
+        }
+        job.complete(Instant.now());
+        log.info("Product import {} done: {} rows, {} inserted, {} updated, {} failed", job.getId(),
+                job.getRowsRead(), job.getInserted(), job.getUpdated(), job.getFailed());
+    }
+
+    private void importChunk(ProductImportJob job, Map<String, Row> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Row> rows = new ArrayList<>(chunk.values());
+        try {
+            long updated = writeTemplate.execute(status -> upsert(rows));
+            job.imported(rows.size() - updated, updated);
+        } catch (RuntimeException e) {
+            log.warn("Product import {}: rows from line {} rolled back", job.getId(), rows.get(0).line(), e);
+            String message = "Not imported, its chunk was rolled back: "
+                    + (e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            for (Row row : rows) {
+                job.rowFailed(new ProductImportError(row.line(), row.code(), message));
+            }
+        }
+    }
+
+    // Returns how many of the rows updated an existing product; the rest were inserted
+    private long upsert(List<Row> rows) {
+        Map<String, Product> existing = productRepository.findByCodeIn(rows.stream().map(Row::code).toList())
+                .stream()
+                .collect(Collectors.toMap(Product::getCode, Function.identity()));
+
+        List<Product> products = new ArrayList<>(rows.size());
+        List<Product> stockEntered = new ArrayList<>();
+        for (Row row : rows) {
+            Product product = existing.get(row.code());
+            if (product == null) {
+                product = new Product.Builder(row.code(), row.name())
+                        .price(row.price())
+                        .stock(row.stock() == null ? 0 : row.stock())
+                        .build();
+                stockEntered.add(product);
+            } else {
+                product.setName(row.name());
+                product.setPrice(row.price());
+                if (row.stock() != null) {
+                    product.setStock(row.stock());
+                    stockEntered.add(product);
+                }
+            }
+            if (row.hasCategory()) {
+                product.setCategory(row.category());
+            }
+            if (row.hasReorderLevel()) {
+                product.setReorderLevel(row.reorderLevel());
+            }
+            products.add(product);
+        }
+        productService.saveProducts(products, stockEntered);
+        return existing.size();
+    }
+
+    private void forgetOldJobs() {
+        List<ProductImportJob> finished = getJobs().stream().filter(job -> !job.isPending()).toList();
+        for (ProductImportJob job : finished.subList(Math.min(MAX_JOBS_KEPT, finished.size()), finished.size())) {
+            jobs.remove(job.getId(), job);
+        }
+    }
+
+    // A parsed, valid row; hasCategory / hasReorderLevel tell whether the file has those columns
+    private record Row(long line, String code, String name, Money price, Integer stock,
+                       boolean hasCategory, String category, boolean hasReorderLevel, Integer reorderLevel) {
+    }
+
+    // Positions of the known columns in the header, -1 when absent
+    private record Columns(int code, int name, int price, int stock, int category, int reorderLevel) {
+
+        static Columns of(List<String> header) throws IOException {
+            Map<String, Integer> positions = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                // "Reorder Level", "reorder_level" and "reorderLevel" all name the same column
+                positions.putIfAbsent(header.get(i).toLowerCase(Locale.ROOT).replaceAll("[^a-z]", ""), i);
+            }
+            Columns columns = new Columns(positions.getOrDefault("code", -1), positions.getOrDefault("name", -1),
+                    positions.getOrDefault("price", -1), positions.getOrDefault("stock", -1),
+                    positions.getOrDefault("category", -1), positions.getOrDefault("reorderlevel", -1));
+            if (columns.code < 0 || columns.name < 0 || columns.price < 0) {
+                throw new IOException("The header must name the code, name and price columns");
+            }
+            return columns;
+        }
+
+        Row parse(List<String> fields, long line) {
+            String codeValue = value(fields, code);
+            if (codeValue.isEmpty()) {
+                throw new IllegalArgumentException("code is required");
+            }
+            String nameValue = value(fields, name);
+            if (nameValue.isEmpty()) {
+                throw new IllegalArgumentException("name is required");
+            }
+            String priceValue = value(fields, price);
+            Money priceAmount;
+            try {
+                priceAmount = Money.parse(priceValue);
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw new IllegalArgumentException("price is not an amount: '" + priceValue + "'");
+            }
+            if (priceAmount.getMinorUnits() < 0) {
+                throw new IllegalArgumentException("price must not be negative");
+            }
+            String categoryValue = value(fields, category);
+            if (categoryValue.length() > 100) {
+                throw new IllegalArgumentException("category is longer than 100 characters");
+            }
+            return new Row(line, codeValue, nameValue, priceAmount, count(fields, stock, "stock"),
+                    category >= 0, categoryValue.isEmpty() ? null : categoryValue,
+                    reorderLevel >= 0, count(fields, reorderLevel, "reorder_level"));
+        }
+
+        String codeOf(List<String> fields) {
+            String codeValue = value(fields, code);
+            return codeValue.isEmpty() ? null : codeValue;
+        }
+
+        // Missing trailing cells read as empty
+        private static String value(List<String> fields, int position) {
+            return position < 0 || position >= fields.size() ? "" : fields.get(position);
+        }
+
+        private static Integer count(List<String> fields, int position, String column) {
+            String value = value(fields, position);
+            if (value.isEmpty()) {
+                return null;
+            }
+            int parsed;
+            try {
+                parsed = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + " is not a whole number: '" + value + "'");
+            }
+            if (parsed < 0) {
+                throw new IllegalArgumentException(column + " must not be negative");
+            }
+            return parsed;
+        }
+    }
+
+    // Progress is the share of the staged file read so far
+    private static final class CountingInputStream extends FilterInputStream {
+        private final ProductImportJob job;
+
+        CountingInputStream(InputStream in, ProductImportJob job) {
+            super(in);
+            this.job = job;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                job.getBytesRead().incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                job.getBytesRead().addAndGet(read);
+            }
+            return read;
+        }
+    }
+}
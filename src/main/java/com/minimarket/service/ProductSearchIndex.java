@@ -0,0 +1,300 @@
+package com.minimarket.service;
+
+import com.minimarket.model.Money;
+import com.minimarket.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Typeahead search over product codes and names. Every word of a code or name
+ * is folded (lower case, accents stripped) and kept in a sorted map, so the
+ * products whose words start with a typed prefix are one range of that map:
+ * the sorted map does the job of a prefix trie with far fewer objects.
+ *
+ * Each query word must prefix some word of the product. Results are ranked:
+ * exact code, code prefix, exact name, name prefix, first word, any word; then
+ * shorter names first. Kept current by ProductService after each commit.
+ */
+@Component
+public class ProductSearchIndex {
+
+    public static final int MAX_RESULTS = 50;
+    // Upper bound on products scored per query; only reached by one- or two-letter prefixes
+    static final int MAX_CANDIDATES = 2_000;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Comparator<Match> RANKING = Comparator.comparingInt(Match::score).reversed()
+            .thenComparingInt(match -> match.entry().nameKey().length())
+            .thenComparing(match -> match.entry().nameKey())
+            .thenComparingLong(match -> match.entry().id());
+
+    private final ProductCache productCache;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Folded word -> ids of the products that have it in their code or name
+    private final NavigableMap<String, Set<Long>> idsByWord = new TreeMap<>();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    // Ids written to while a rebuild is loading, so it can re-read them; null when no rebuild runs
+    private Set<Long> changedDuringRebuild;
+
+    @Autowired
+    public ProductSearchIndex(ProductCache productCache) {
+        this.productCache = productCache;
+    }
+
+    /**
+     * Indexes the whole catalog, then re-reads the products written to meanwhile
+     * until none are left, and only then swaps the result in; until the swap,
+     * writes keep applying to the old contents.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            Map<Long, Product> loaded = new HashMap<>();
+            for (Product product : productCache.getAll()) {
+                loaded.put(product.getId(), product);
+            }
+            while (true) {
+                Set<Long> changed;
+                lock.writeLock().lock();
+                try {
+                    changed = changedDuringRebuild;
+                    if (changed.isEmpty()) {
+                        idsByWord.clear();
+                        entries.clear();
+                        loaded.values().forEach(this::store);
+                        return;
+                    }
+                    changedDuringRebuild = new HashSet<>();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                changed.forEach(loaded::remove);
+                loaded.putAll(productCache.getAllById(changed));
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public List<ProductSuggestion> search(String query, int limit) {
+        String[] words = wordsOf(fold(query));
+        if (words.length == 0 || limit < 1) {
+            return List.of();
+        }
+        // The longest word narrows the candidates the most; the others are checked per candidate
+        String driver = Arrays.stream(words).max(Comparator.comparingInt(String::length)).orElseThrow();
+        String queryKey = String.join(" ", words);
+        String compactQuery = String.join("", words);
+
+        int size = Math.min(limit, MAX_RESULTS);
+        // The best `size` matches so far, worst on top so it is the one dropped
+        PriorityQueue<Match> best = new PriorityQueue<>(size + 1, RANKING.reversed());
+        lock.readLock().lock();
+        try {
+            Set<Long> seen = new HashSet<>();
+            candidates:
+            for (Set<Long> ids : idsByWord.subMap(driver, true, driver + Character.MAX_VALUE, false).values()) {
+                for (Long id : ids) {
+                    if (!seen.add(id)) {
+                        continue;
+                    }
+                    Entry entry = entries.get(id);
+                    if (words.length == 1 || entry.matchesAll(words)) {
+                        best.add(new Match(entry, entry.score(queryKey, compactQuery, words)));
+                        if (best.size() > size) {
+                            best.poll();
+                        }
+                    }
+                    if (seen.size() >= MAX_CANDIDATES) {
+                        break candidates;
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Match> matches = new ArrayList<>(best);
+        matches.sort(RANKING);
+        return matches.stream().map(match -> match.entry().toSuggestion()).toList();
+    }
+
+    public void putAfterCommit(Product product) {
+        Entry entry = Entry.of(product);
+        AfterCommit.run(() -> put(entry));
+    }
+
+    public void removeAfterCommit(Long id) {
+        AfterCommit.run(() -> remove(id));
+    }
+
+    public void put(Product product) {
+        put(Entry.of(product));
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            markChanged(id);
+            unstore(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int getSize() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Lower case with accents removed, so "Café" and "CAFE" are the same word
+    static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        return COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private static String[] wordsOf(String folded) {
+        return Arrays.stream(SEPARATORS.split(folded)).filter(word -> !word.isEmpty()).toArray(String[]::new);
+    }
+
+    private void put(Entry entry) {
+        lock.writeLock().lock();
+        try {
+            markChanged(entry.id());
+            unstore(entry.id());
+            store(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void store(Product product) {
+        store(Entry.of(product));
+    }
+
+    private void store(Entry entry) {
+        entries.put(entry.id(), entry);
+        for (String word : entry.words()) {
+            idsByWord.computeIfAbsent(word, key -> new HashSet<>(2)).add(entry.id());
+        }
+    }
+
+    private void unstore(Long id) {
+        Entry previous = entries.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String word : previous.words()) {
+            Set<Long> ids = idsByWord.get(word);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                idsByWord.remove(word);
+            }
+        }
+    }
+
+    // Called holding the write lock
+    private void markChanged(Long id) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(id);
+        }
+    }
+
+    // One indexed product: what a suggestion shows, plus its folded forms
+    private record Entry(long id, String code, String name, Money price,
+                         String compactCode, String nameKey, String[] nameWords, String[] words) {
+
+        static Entry of(Product product) {
+            String[] codeWords = wordsOf(fold(product.getCode()));
+            String[] nameWords = wordsOf(fold(product.getName()));
+            // "AB-12" is also findable as "ab12"
+            String compactCode = String.join("", codeWords);
+            Set<String> all = new LinkedHashSet<>(Arrays.asList(codeWords));
+            all.add(compactCode);
+            all.addAll(Arrays.asList(nameWords));
+            all.remove("");
+            return new Entry(product.getId(), product.getCode(), product.getName(), product.getPrice(),
+                    compactCode, String.join(" ", nameWords), nameWords, all.toArray(String[]::new));
+        }
+
+        boolean matchesAll(String[] queryWords) {
+            for (String queryWord : queryWords) {
+                if (!matches(queryWord)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean matches(String queryWord) {
+            for (String word : words) {
+                if (word.startsWith(queryWord)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int score(String queryKey, String compactQuery, String[] queryWords) {
+            if (compactCode.equals(compactQuery)) {
+                return 100;
+            } else if (compactCode.startsWith(compactQuery)) {
+                return 80;
+            } else if (nameKey.equals(queryKey)) {
+                return 70;
+            } else if (nameKey.startsWith(queryKey)) {
+                return 60;
+            } else if (nameWords.length > 0 && nameWords[0].startsWith(queryWords[0])) {
+                return 40;
+            }
+            return 20;
+        }
+
+        ProductSuggestion toSuggestion() {
+            return new ProductSuggestion(id, code, name, price);
+        }
+    }
+
+    private record Match(Entry entry, int score) {
+    }
+}
@@ -1,36 +1,119 @@
 package com.minimarket.service;
 
 import com.minimarket.model.Product;
+import com.minimarket.repository.Keyset;
+import com.minimarket.repository.KeysetPage;
 import com.minimarket.repository.ProductRepository;
+import com.minimarket.repository.ProductSort;
+import com.minimarket.service.report.ReportCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ReportCache reportCache;
+    private final ProductCache productCache;
+    private final ProductSearchIndex searchIndex;
+    private final LowStockIndex lowStockIndex;
+    private final StockLedger stockLedger;
 
     @Autowired
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, ReportCache reportCache, ProductCache productCache,
+                          ProductSearchIndex searchIndex, LowStockIndex lowStockIndex, StockLedger stockLedger) {
         this.productRepository = productRepository;
+        this.reportCache = reportCache;
+        this.productCache = productCache;
+        this.searchIndex = searchIndex;
+        this.lowStockIndex = lowStockIndex;
+        this.stockLedger = stockLedger;
     }
 
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        return productCache.getAll();
+    }
+
+    // Listing pages come from the database (read pool) in index order rather than sorting the cached catalog
+    @Transactional(readOnly = true)
+    public KeysetPage<Product> getProductPage(ProductSort sort, Sort.Direction direction, Keyset keyset, int size) {
+        return productRepository.findPage(sort, direction, keyset, size);
     }
 
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        return productCache.getById(id);
+    }
+
+    public Optional<Product> getProductByCode(String code) {
+        return productCache.getByCode(code);
     }
 
+    // The stock entered is a new ledger baseline, committed with the product
+    @Transactional
     public Product saveProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        stockLedger.recordBaseline(saved);
+        productCache.putAfterCommit(saved);
+        searchIndex.putAfterCommit(saved);
+        lowStockIndex.putAfterCommit(saved);
+        // Product names appear in reports
+        reportCache.invalidateAfterCommit();
+        return saved;
     }
 
+    /**
+     * Batch form of saveProduct, for imports: the inserts and updates go out in JDBC
+     * batches, and are flushed before the cached copies are taken so those carry the
+     * new versions. Only stockEntered (a subset of products: new ones and those whose
+     * stock was given) start a new ledger baseline; for the others the stock column
+     * is left as it was and must not overwrite what the ledger says.
+     */
+    @Transactional
+    public List<Product> saveProducts(List<Product> products, List<Product> stockEntered) {
+        List<Product> saved = productRepository.saveAllAndFlush(products);
+        if (!stockEntered.isEmpty()) {
+            stockLedger.recordBaselines(stockEntered);
+        }
+        for (Product product : saved) {
+            productCache.putAfterCommit(product);
+            searchIndex.putAfterCommit(product);
+            lowStockIndex.putAfterCommit(product);
+        }
+        reportCache.invalidateAfterCommit();
+        return saved;
+    }
+
+    @Transactional
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        stockLedger.forget(id);
+        productCache.evictAfterCommit(id);
+        searchIndex.removeAfterCommit(id);
+        lowStockIndex.removeAfterCommit(id);
+        reportCache.invalidateAfterCommit();
+    }
+
+    // Typeahead: ranked matches on code and name words, from memory
+    public List<ProductSuggestion> searchProducts(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+
+    // Products at or below their reorder level, lowest first
+    public List<StockLevel> getLowStock(int limit) {
+        return lowStockIndex.getLow(limit);
+    }
+
+    public Map<String, Object> getLowStockStats() {
+        return lowStockIndex.getStats();
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return productCache.getStats();
     }
 }
@@ -0,0 +1,7 @@
+package com.minimarket.service;
+
+import com.minimarket.model.Money;
+
+// A search hit as the typeahead shows it; stock is left out because it changes with every sale
+public record ProductSuggestion(Long id, String code, String name, Money price) {
+}
@@ -0,0 +1,13 @@
+package com.minimarket.service;
+
+// A bounded queue (transaction writes, report jobs, product imports) turned work away; retrying later may succeed
+public class QueueFullException extends RuntimeException {
+
+    public QueueFullException(String message) {
+        super(message);
+    }
+
+    public QueueFullException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,181 @@
+package com.minimarket.service;
+
+import com.minimarket.repository.TransactionFilter;
+import com.minimarket.service.report.ReportJob;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Renders reports in the background into files under the jobs directory so a
+ * large export neither ties up a request thread nor is re-rendered per client.
+ * Results live until their TTL passes, counted from the last download and never
+ * while one is in progress; job state itself is kept in memory.
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportJobService.class);
+
+    // Result files are named <uuid>.<ext>, in-progress ones get a .part suffix
+    private static final Pattern JOB_FILE = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}\\..+");
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final ReportService reportService;
+    private final Path directory;
+    private final Duration ttl;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, ReportJob> pendingByKey = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ReportJobService(ReportService reportService,
+                            @Value("${minimarket.reports.jobs.dir:data/reports}") String directory,
+                            @Value("${minimarket.reports.jobs.threads:2}") int threads,
+                            @Value("${minimarket.reports.jobs.queue-capacity:16}") int queueCapacity,
+                            @Value("${minimarket.reports.jobs.ttl:1h}") Duration ttl) {
+        this.reportService = reportService;
+        this.directory = Paths.get(directory);
+        this.ttl = ttl;
+
+        // Bounded queue: once it is full new jobs are rejected instead of piling up in memory
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(directory);
+        // Job state does not survive a restart, so results left behind by a previous run are unreachable
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (Files.isRegularFile(file) && JOB_FILE.matcher(file.getFileName().toString()).matches()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues a report, or returns the job already queued or running for the
+     * same type and filter.
+     */
+    public ReportJob submit(String type, TransactionFilter filter) {
+        // Fails fast on unknown formats instead of queueing a job that can only fail
+        String extension = reportService.getFileExtension(type);
+
+        return pendingByKey.compute(ReportJob.keyOf(type, filter), (key, pending) -> {
+            if (pending != null && pending.isPending()) {
+                return pending;
+            }
+            ReportJob job = new ReportJob(UUID.randomUUID().toString(), type, filter, Instant.now());
+            try {
+                executor.execute(() -> run(job, extension));
+            } catch (RejectedExecutionException e) {
+                throw new QueueFullException("Report job queue is full, try again later", e);
+            }
+            jobs.put(job.getId(), job);
+            return job;
+        });
+    }
+
+    public Optional<ReportJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public List<ReportJob> getJobs() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing(ReportJob::getCreatedAt).reversed())
+                .toList();
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @Scheduled(fixedDelayString = "${minimarket.reports.jobs.cleanup-interval-ms:60000}")
+    public void purgeExpired() {
+        purgeExpired(Instant.now());
+    }
+
+    public int purgeExpired(Instant now) {
+        int purged = 0;
+        for (ReportJob job : jobs.values()) {
+            if (job.purgeIfExpired(now, ttl)) {
+                jobs.remove(job.getId(), job);
+                deleteQuietly(job.getFile());
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    private void run(ReportJob job, String extension) {
+        Path part = directory.resolve(job.getId() + "." + extension + ".part");
+        try {
+            job.start(reportService.countRows(job.getFilter()));
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part), WRITE_BUFFER_SIZE)) {
+                reportService.writeReport(job.getType(), job.getFilter(), out, job.getRowsWritten());
+            }
+            // Downloads only ever see complete files
+            Path result = Files.move(part, directory.resolve(job.getId() + "." + extension), StandardCopyOption.ATOMIC_MOVE);
+            job.complete(result, Files.size(result), Instant.now());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Report job {} failed", job.getId(), e);
+            deleteQuietly(part);
+            job.fail(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName(), Instant.now());
+        } finally {
+            pendingByKey.remove(job.getKey(), job);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete report file {}", file, e);
+        }
+    }
+}
@@ -1,40 +1,143 @@
 package com.minimarket.service;
 
-import com.minimarket.model.Transaction;
+import com.minimarket.model.DailySalesSummary;
+import com.minimarket.repository.DailySalesSummaryRepository;
+import com.minimarket.repository.TransactionFilter;
 import com.minimarket.repository.TransactionRepository;
+import com.minimarket.repository.TransactionRow;
+import com.minimarket.service.report.ReportCache;
+import com.minimarket.service.report.SalesSummaryReportGenerator;
 import com.minimarket.service.report.TransactionReportGenerator;
+import com.minimarket.service.report.formatter.BinaryReportFormatter;
 import com.minimarket.service.report.formatter.ReportFormatter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
+// Read-only throughout, so with the split datasource every report reads a WAL snapshot from the read pool
 @Service
+@Transactional(readOnly = true)
 public class ReportService {
 
     private final TransactionRepository transactionRepository;
+    private final DailySalesSummaryRepository summaryRepository;
     private final Map<String, ReportFormatter> formatters;
+    private final Map<String, BinaryReportFormatter> binaryFormatters;
+    private final ReportCache reportCache;
 
     @Autowired
     public ReportService(TransactionRepository transactionRepository,
-                         Map<String, ReportFormatter> formatters) {
+                         DailySalesSummaryRepository summaryRepository,
+                         Map<String, ReportFormatter> formatters,
+                         Map<String, BinaryReportFormatter> binaryFormatters,
+                         ReportCache reportCache) {
         this.transactionRepository = transactionRepository;
+        this.summaryRepository = summaryRepository;
         this.formatters = formatters;
+        this.binaryFormatters = binaryFormatters;
+        this.reportCache = reportCache;
     }
 
     public String generateReport(String type) {
-        List<Transaction> transactions = transactionRepository.findAll();
+        return generateReport(type, TransactionFilter.none());
+    }
 
+    public String generateReport(String type, TransactionFilter filter) {
         // Bridge Pattern: Select formatter (Implementor)
+        ReportFormatter formatter = getFormatter(type);
+
+        return reportCache.get("transactions:" + type + ":" + filter, () -> {
+            List<TransactionRow> transactions = transactionRepository.findRows(filter);
+
+            // Bridge Pattern: Create generator (Abstraction) with selected formatter
+            TransactionReportGenerator generator = new TransactionReportGenerator(formatter);
+
+            // Large reports are rendered in chunks on the common fork/join pool
+            return generator.generateReport(transactions, ForkJoinPool.commonPool());
+        });
+    }
+
+    public void writeReport(String type, TransactionFilter filter, OutputStream out) throws IOException {
+        writeReport(type, filter, out, new AtomicLong());
+    }
+
+    // rowsWritten is bumped as each row is handed to the formatter so callers on other threads can poll progress
+    public void writeReport(String type, TransactionFilter filter, OutputStream out, AtomicLong rowsWritten) throws IOException {
+        BinaryReportFormatter binaryFormatter = binaryFormatters.get(type + "Formatter");
+        if (binaryFormatter != null) {
+            // Typed rows go straight to the formatter, there are no text cells to render
+            try (Stream<TransactionRow> transactions = streamRows(filter, rowsWritten)) {
+                binaryFormatter.write(transactions, out);
+            }
+            return;
+        }
+
+        TransactionReportGenerator generator = new TransactionReportGenerator(getFormatter(type));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+
+        // Rows are projections, not managed entities, so nothing accumulates in the persistence context
+        try (Stream<TransactionRow> transactions = streamRows(filter, rowsWritten)) {
+            generator.writeReport(transactions, writer);
+        }
+    }
+
+    public long countRows(TransactionFilter filter) {
+        return transactionRepository.countRows(filter);
+    }
+
+    private Stream<TransactionRow> streamRows(TransactionFilter filter, AtomicLong rowsWritten) {
+        return transactionRepository.streamRows(filter).peek(row -> rowsWritten.incrementAndGet());
+    }
+
+    // Reads the pre-aggregated daily_sales_summary table instead of the ledger
+    public String generateSummaryReport(String type, TransactionFilter filter) {
+        ReportFormatter formatter = getFormatter(type);
+
+        return reportCache.get("summary:" + type + ":" + filter, () -> {
+            List<DailySalesSummary> summaries = summaryRepository.findByFilter(filter);
+
+            return new SalesSummaryReportGenerator(formatter).generateReport(summaries, ForkJoinPool.commonPool());
+        });
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return reportCache.getStats();
+    }
+
+    public String getContentType(String type) {
+        BinaryReportFormatter binaryFormatter = binaryFormatters.get(type + "Formatter");
+        return binaryFormatter != null ? binaryFormatter.getContentType() : getFormatter(type).getContentType();
+    }
+
+    public String getFileExtension(String type) {
+        BinaryReportFormatter binaryFormatter = binaryFormatters.get(type + "Formatter");
+        return binaryFormatter != null ? binaryFormatter.getFileExtension() : getFormatter(type).getFileExtension();
+    }
+
+    public boolean isBinary(String type) {
+        return binaryFormatters.containsKey(type + "Formatter");
+    }
+
+    public ReportFormatter getFormatter(String type) {
         ReportFormatter formatter = formatters.get(type + "Formatter");
         if (formatter == null) {
+            if (isBinary(type)) {
+                throw new IllegalArgumentException("Report format " + type + " is binary and can only be streamed");
+            }
             throw new IllegalArgumentException("Unknown report format: " + type);
         }
-
-        // Bridge Pattern: Create generator (Abstraction) with selected formatter
-        TransactionReportGenerator generator = new TransactionReportGenerator(formatter);
-
-        return generator.generateReport(transactions);
+        return formatter;
     }
 }
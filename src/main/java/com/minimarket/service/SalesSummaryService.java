@@ -0,0 +1,71 @@
+package com.minimarket.service;
+
+import com.minimarket.model.DailySalesSummary;
+import com.minimarket.model.Product;
+import com.minimarket.repository.DailySalesSummaryRepository;
+import com.minimarket.repository.OutboxEventRepository;
+import com.minimarket.repository.TransactionFilter;
+import com.minimarket.repository.TransactionRepository;
+import com.minimarket.repository.TransactionRow;
+import com.minimarket.service.observer.DailySalesAggregator;
+import com.minimarket.service.report.ReportCache;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@Service
+public class SalesSummaryService {
+
+    private final DailySalesSummaryRepository summaryRepository;
+    private final TransactionRepository transactionRepository;
+    private final EntityManager entityManager;
+    private final ReportCache reportCache;
+    private final OutboxEventRepository outboxRepository;
+
+    @Autowired
+    public SalesSummaryService(DailySalesSummaryRepository summaryRepository,
+                               TransactionRepository transactionRepository,
+                               EntityManager entityManager,
+                               ReportCache reportCache,
+                               OutboxEventRepository outboxRepository) {
+        this.summaryRepository = summaryRepository;
+        this.transactionRepository = transactionRepository;
+        this.entityManager = entityManager;
+        this.reportCache = reportCache;
+        this.outboxRepository = outboxRepository;
+    }
+
+    /**
+     * Recomputes daily_sales_summary from the raw ledger. The table is cleared first so
+     * the write lock is held for the whole rebuild and no new transaction slips in between
+     * the scan and the insert.
+     *
+     * @return number of buckets written
+     */
+    @Transactional
+    public int rebuild() {
+        summaryRepository.deleteAllInBatch();
+        // The rebuild counts every stored transaction, so undelivered aggregator events would be counted twice
+        outboxRepository.deleteByObserver(DailySalesAggregator.NAME);
+
+        Map<String, DailySalesSummary> buckets = new LinkedHashMap<>();
+        try (Stream<TransactionRow> ledger = transactionRepository.streamRows(TransactionFilter.none())) {
+            ledger.forEach(t -> {
+                String type = t.getType().toUpperCase();
+                String key = t.getProductId() + "|" + t.getDate().toLocalDate() + "|" + type;
+                buckets.computeIfAbsent(key, k -> new DailySalesSummary(
+                                entityManager.getReference(Product.class, t.getProductId()), t.getDate().toLocalDate(), type))
+                        .add(t.getQuantity(), t.getTotalMinor());
+            });
+        }
+
+        summaryRepository.saveAll(buckets.values());
+        reportCache.invalidateAfterCommit();
+        return buckets.size();
+    }
+}
@@ -0,0 +1,9 @@
+package com.minimarket.service;
+
+// A product whose stored stock column (or one of its snapshots) disagrees with its replayed ledger
+public record StockDrift(Long productId, String code, int storedStock, long ledgerStock, int badSnapshots) {
+
+    public long getDifference() {
+        return storedStock - ledgerStock;
+    }
+}
@@ -0,0 +1,261 @@
+package com.minimarket.service;
+
+import com.minimarket.model.Product;
+import com.minimarket.model.StockSnapshot;
+import com.minimarket.repository.ProductRepository;
+import com.minimarket.repository.StockSnapshotRepository;
+import com.minimarket.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Stock as a fold of the Purchase/Sale ledger. A product's stock is its latest
+ * StockSnapshot plus the stock changes of its transactions after that snapshot.
+ *
+ * Baseline snapshots record stock set by hand: every product save writes one, and
+ * products that predate this table get one from their stock column at startup,
+ * before the web server and the ApplicationRunners can record a sale.
+ * With minimarket.stock.event-sourced, StockUpdater decides whether a sale fits
+ * from the ledger instead of the conditional UPDATE, and writes a checkpoint
+ * snapshot once a product has snapshot-interval transactions after its latest
+ * one, so a lookup never folds more than that many rows. products.stock is still
+ * updated as a projection for listings, the cache and the low-stock index.
+ *
+ * Baselines and checkpoints are positioned at the highest transaction id the
+ * writing transaction can see. That is only exact while no other insert can
+ * commit in between, which holds with minimarket.datasource.split and its single
+ * write connection; event-sourced mode is refused without it.
+ *
+ * verify replays every product's ledger from its latest baseline, in parallel
+ * per product, and reports where the stock column or a checkpoint disagrees.
+ */
+@Service
+public class StockLedger implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLedger.class);
+
+    private final StockSnapshotRepository snapshotRepository;
+    private final TransactionRepository transactionRepository;
+    private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final LowStockIndex lowStockIndex;
+    private final TransactionTemplate writeTemplate;
+    private final TransactionTemplate readTemplate;
+    private final boolean eventSourced;
+    private final int snapshotInterval;
+    private final int replayThreads;
+
+    @Autowired
+    public StockLedger(StockSnapshotRepository snapshotRepository,
+                       TransactionRepository transactionRepository,
+                       ProductRepository productRepository,
+                       ProductCache productCache,
+                       LowStockIndex lowStockIndex,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${minimarket.stock.event-sourced:false}") boolean eventSourced,
+                       @Value("${minimarket.stock.snapshot-interval:500}") int snapshotInterval,
+                       @Value("${minimarket.stock.replay-threads:4}") int replayThreads,
+                       @Value("${minimarket.datasource.split:false}") boolean singleWriter) {
+        if (snapshotInterval < 1 || replayThreads < 1) {
+            throw new IllegalArgumentException("snapshot-interval and replay-threads must be positive");
+        }
+        if (eventSourced && !singleWriter) {
+            // With a pooled writer a sale could commit between findLastId and the snapshot and be folded twice or never
+            throw new IllegalArgumentException(
+                    "minimarket.stock.event-sourced requires minimarket.datasource.split=true (a single write connection)");
+        }
+        this.snapshotRepository = snapshotRepository;
+        this.transactionRepository = transactionRepository;
+        this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.lowStockIndex = lowStockIndex;
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        // Read-only transactions go to the reader pool, so replays don't hold the write connection
+        this.readTemplate.setReadOnly(true);
+        this.eventSourced = eventSourced;
+        this.snapshotInterval = snapshotInterval;
+        this.replayThreads = replayThreads;
+    }
+
+    public boolean isEventSourced() {
+        return eventSourced;
+    }
+
+    // Runs once every bean exists but before the context starts the web server; ApplicationReadyEvent
+    // would be too late, a sale folded without a baseline would start from 0
+    @Override
+    public void afterSingletonsInstantiated() {
+        adopt();
+    }
+
+    public void adopt() {
+        // Products that have no snapshot start from their stock column, as of the end of the ledger
+        int adopted = writeTemplate.execute(status -> {
+            List<Object[]> missing = snapshotRepository.findStockOfProductsWithoutSnapshot();
+            if (missing.isEmpty()) {
+                return 0;
+            }
+            long position = transactionRepository.findLastId();
+            snapshotRepository.saveAll(missing.stream()
+                    .map(row -> new StockSnapshot((Long) row[0], position, ((Number) row[1]).intValue(), true))
+                    .toList());
+            return missing.size();
+        });
+        if (adopted > 0) {
+            log.info("Recorded the stock column of {} products as their ledger baseline", adopted);
+        }
+    }
+
+    /**
+     * The product's stock according to the ledger, including changes not yet
+     * committed in the current transaction (the query flushes them first). Writes
+     * a checkpoint when the fold passed snapshot-interval transactions. Must run in
+     * the writing transaction, whose single connection orders the ledger by id.
+     */
+    public long currentStock(Long productId) {
+        StockSnapshot latest = snapshotRepository.findFirstByProductIdOrderByLastTransactionIdDescIdDesc(productId)
+                .orElse(null);
+        long position = latest == null ? 0 : latest.getLastTransactionId();
+        long stock = latest == null ? 0 : latest.getStock();
+
+        Object[] changes = transactionRepository.sumStockChangesAfter(productId, position).get(0);
+        stock += ((Number) changes[0]).longValue();
+        if (((Number) changes[1]).longValue() >= snapshotInterval) {
+            snapshotRepository.save(new StockSnapshot(productId, ((Number) changes[2]).longValue(), (int) stock, false));
+        }
+        return stock;
+    }
+
+    // Called in the transaction that saves the product: its stock from here on is what was entered.
+    // The position is exact only because the single write connection keeps other inserts out until it commits.
+    public void recordBaseline(Product product) {
+        snapshotRepository.save(new StockSnapshot(product.getId(), transactionRepository.findLastId(),
+                product.getStock(), true));
+    }
+
+    // Batch form of recordBaseline, for imports
+    public void recordBaselines(List<Product> products) {
+        long position = transactionRepository.findLastId();
+        snapshotRepository.saveAll(products.stream()
+                .map(product -> new StockSnapshot(product.getId(), position, product.getStock(), true))
+                .toList());
+    }
+
+    public void forget(Long productId) {
+        snapshotRepository.deleteByProductId(productId);
+    }
+
+    /**
+     * Replays every product and compares the result with its stock column and
+     * checkpoints. With repair, each drifted product gets a checkpoint at the end
+     * of its replay and its column is set from the ledger.
+     */
+    public StockVerification verify(boolean repair) {
+        long start = System.nanoTime();
+        adopt();
+        List<Long> productIds = readTemplate.execute(status ->
+                productRepository.findAll().stream().map(Product::getId).toList());
+
+        ExecutorService pool = Executors.newFixedThreadPool(replayThreads, runnable -> {
+            Thread thread = new Thread(runnable, "stock-replay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<ProductReplay>> running = new ArrayList<>(productIds.size());
+        try {
+            for (Long productId : productIds) {
+                running.add(pool.submit(() -> readTemplate.execute(status -> replay(productId))));
+            }
+            long replayed = 0;
+            List<StockDrift> drifts = new ArrayList<>();
+            for (Future<ProductReplay> future : running) {
+                ProductReplay result = future.get();
+                if (result == null) {
+                    // Deleted since the id list was read
+                    continue;
+                }
+                replayed += result.replay().getEntries();
+                if (result.drift() != null) {
+                    drifts.add(result.drift());
+                    if (repair) {
+                        writeTemplate.executeWithoutResult(status -> repair(result));
+                    }
+                }
+            }
+            drifts.sort(Comparator.comparingLong((StockDrift drift) -> Math.abs(drift.getDifference())).reversed());
+            return new StockVerification(productIds.size(), replayed,
+                    (System.nanoTime() - start) / 1_000_000, drifts, repair);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Stock verification interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Stock replay failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // One read transaction, so the column, snapshots and ledger are all read as of the same moment
+    private ProductReplay replay(Long productId) {
+        Product product = productRepository.findById(productId).orElse(null);
+        if (product == null) {
+            return null;
+        }
+        List<StockSnapshot> snapshots = snapshotRepository.findByProductIdOrderByLastTransactionIdAscIdAsc(productId);
+        int from = 0;
+        for (int i = 0; i < snapshots.size(); i++) {
+            if (snapshots.get(i).isBaseline()) {
+                from = i;
+            }
+        }
+        StockSnapshot baseline = snapshots.isEmpty() || !snapshots.get(from).isBaseline() ? null : snapshots.get(from);
+        List<StockSnapshot> checkpoints = snapshots.subList(baseline == null ? 0 : from + 1, snapshots.size());
+        long[] positions = checkpoints.stream().mapToLong(StockSnapshot::getLastTransactionId).toArray();
+        int[] stocks = checkpoints.stream().mapToInt(StockSnapshot::getStock).toArray();
+
+        StockReplay replay = new StockReplay(baseline == null ? 0 : baseline.getStock(),
+                baseline == null ? 0 : baseline.getLastTransactionId(), positions, stocks);
+        try (Stream<Object[]> ledger = transactionRepository.streamStockChangesAfter(productId, replay.getPosition())) {
+            ledger.forEach(row -> replay.apply(((Number) row[0]).longValue(), ((Number) row[1]).intValue()));
+        }
+        replay.finish();
+
+        boolean drifted = replay.getStock() != product.getStock() || replay.getBadCheckpoints() > 0;
+        return new ProductReplay(replay, drifted
+                ? new StockDrift(productId, product.getCode(), product.getStock(), replay.getStock(), replay.getBadCheckpoints())
+                : null);
+    }
+
+    // Sales may have landed since the replay: the column is set to the new checkpoint plus whatever followed it
+    private void repair(ProductReplay result) {
+        Long productId = result.drift().productId();
+        StockReplay replay = result.replay();
+        snapshotRepository.save(new StockSnapshot(productId, replay.getPosition(), (int) replay.getStock(), false));
+        long stock = currentStock(productId);
+        productRepository.setStock(productId, (int) stock);
+        productRepository.findById(productId).ifPresent(product -> {
+            productCache.putAfterCommit(product);
+            lowStockIndex.putAfterCommit(product);
+        });
+        log.info("Stock of product {} set from {} to {} (ledger)", result.drift().code(), result.drift().storedStock(), stock);
+    }
+
+    private record ProductReplay(StockReplay replay, StockDrift drift) {
+    }
+}
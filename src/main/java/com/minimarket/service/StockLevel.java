@@ -0,0 +1,25 @@
+package com.minimarket.service;
+
+import com.minimarket.model.Product;
+
+// A product's stock next to its reorder level; low at or below it
+public record StockLevel(Long id, String code, String name, int stock, int reorderLevel) {
+
+    static StockLevel of(Product product) {
+        return new StockLevel(product.getId(), product.getCode(), product.getName(),
+                product.getStock(), product.getReorderLevel());
+    }
+
+    // How far above the reorder level the stock is; zero or less is low
+    public long getMargin() {
+        return (long) stock - reorderLevel;
+    }
+
+    public boolean isLow() {
+        return getMargin() <= 0;
+    }
+
+    StockLevel withStock(int newStock) {
+        return new StockLevel(id, code, name, newStock, reorderLevel);
+    }
+}
@@ -0,0 +1,55 @@
+package com.minimarket.service;
+
+/**
+ * Folds one product's ledger, in id order, onto the snapshot it starts from.
+ * Checkpoint snapshots met on the way are compared with the running stock, so
+ * a replay also proves the snapshots that later stock lookups start from.
+ */
+final class StockReplay {
+
+    private final long[] checkpointPositions;
+    private final int[] checkpointStocks;
+    private int nextCheckpoint;
+    private int badCheckpoints;
+
+    private long stock;
+    private long position;
+    private long entries;
+
+    // checkpointPositions ascending, all at or after startPosition
+    StockReplay(int startStock, long startPosition, long[] checkpointPositions, int[] checkpointStocks) {
+        this.stock = startStock;
+        this.position = startPosition;
+        this.checkpointPositions = checkpointPositions;
+        this.checkpointStocks = checkpointStocks;
+    }
+
+    void apply(long transactionId, int change) {
+        // Checkpoints before this transaction must agree with the stock folded so far
+        while (nextCheckpoint < checkpointPositions.length && checkpointPositions[nextCheckpoint] < transactionId) {
+            checkNextCheckpoint();
+        }
+        stock += change;
+        position = transactionId;
+        entries++;
+    }
+
+    StockReplay finish() {
+        while (nextCheckpoint < checkpointPositions.length) {
+            checkNextCheckpoint();
+        }
+        return this;
+    }
+
+    long getStock() { return stock; }
+    long getPosition() { return position; }
+    long getEntries() { return entries; }
+    int getBadCheckpoints() { return badCheckpoints; }
+
+    private void checkNextCheckpoint() {
+        if (checkpointStocks[nextCheckpoint] != stock) {
+            badCheckpoints++;
+        }
+        nextCheckpoint++;
+    }
+}
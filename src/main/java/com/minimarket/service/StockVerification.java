@@ -0,0 +1,8 @@
+package com.minimarket.service;
+
+import java.util.List;
+
+// Outcome of StockLedger.verify; repaired is true when the drifts listed have been corrected
+public record StockVerification(int products, long transactionsReplayed, long elapsedMillis,
+                                List<StockDrift> drifts, boolean repaired) {
+}
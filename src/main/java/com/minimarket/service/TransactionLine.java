@@ -0,0 +1,37 @@
+package com.minimarket.service;
+
+// One line of a batched submission (e.g. an end-of-shift upload from a POS terminal)
+public class TransactionLine {
+
+    private String type;
+    private Long productId;
+    private int quantity;
+    private String strategy = "regularPricing";
+    private String extraInfo;
+
+    public TransactionLine() {
+    }
+
+    public TransactionLine(String type, Long productId, int quantity, String strategy, String extraInfo) {
+        this.type = type;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.strategy = strategy;
+        this.extraInfo = extraInfo;
+    }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+
+    public String getStrategy() { return strategy; }
+    public void setStrategy(String strategy) { this.strategy = strategy; }
+
+    public String getExtraInfo() { return extraInfo; }
+    public void setExtraInfo(String extraInfo) { this.extraInfo = extraInfo; }
+}
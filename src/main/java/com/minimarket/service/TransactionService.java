@@ -1,67 +1,132 @@
 package com.minimarket.service;
 
+import com.minimarket.model.Money;
 import com.minimarket.model.Product;
 import com.minimarket.model.Transaction;
+import com.minimarket.repository.Keyset;
+import com.minimarket.repository.KeysetPage;
 import com.minimarket.repository.ProductRepository;
+import com.minimarket.repository.TransactionFilter;
 import com.minimarket.repository.TransactionRepository;
+import com.minimarket.repository.TransactionRow;
+import com.minimarket.repository.TransactionSort;
 import com.minimarket.service.factory.TransactionFactory;
-import com.minimarket.service.observer.StockObserver;
+import com.minimarket.service.observer.TransactionEvents;
 import com.minimarket.service.strategy.PricingStrategy;
+import com.minimarket.service.strategy.ProductPricingStrategy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 public class TransactionService {
 
     private final TransactionRepository transactionRepository;
     private final ProductRepository productRepository;
+    private final ProductCache productCache;
     private final TransactionFactory transactionFactory;
     private final Map<String, PricingStrategy> pricingStrategies;
-    private final List<StockObserver> stockObservers;
+    private final TransactionEvents transactionEvents;
 
     @Autowired
     public TransactionService(TransactionRepository transactionRepository,
                               ProductRepository productRepository,
+                              ProductCache productCache,
                               TransactionFactory transactionFactory,
                               Map<String, PricingStrategy> pricingStrategies,
-                              List<StockObserver> stockObservers) {
+                              TransactionEvents transactionEvents) {
         this.transactionRepository = transactionRepository;
         this.productRepository = productRepository;
+        this.productCache = productCache;
         this.transactionFactory = transactionFactory;
         this.pricingStrategies = pricingStrategies;
-        this.stockObservers = stockObservers;
+        this.transactionEvents = transactionEvents;
     }
 
+    @Transactional(readOnly = true)
     public List<Transaction> getAllTransactions() {
         return transactionRepository.findAll();
     }
 
+    // A listing page costs the same however far back it is: it is sought by cursor, not skipped to by offset
+    @Transactional(readOnly = true)
+    public KeysetPage<TransactionRow> getTransactionPage(TransactionFilter filter, TransactionSort sort,
+                                                         Sort.Direction direction, Keyset keyset, int size) {
+        return transactionRepository.findRowPage(filter, sort, direction, keyset, size);
+    }
+
+    // Synchronous observers and the outbox rows for async ones commit (or roll back) with the sale.
+    // Existence and price come from the product cache; stock is only ever checked by StockUpdater's UPDATE.
+    @Transactional
     public Transaction createTransaction(String type, Long productId, int quantity, String strategyName, String extraInfo) {
-        Product product = productRepository.findById(productId)
+        requirePositive(quantity);
+        Product product = productCache.getById(productId)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found"));
 
-        // Strategy Pattern: Select pricing strategy
-        PricingStrategy strategy = pricingStrategies.getOrDefault(strategyName, pricingStrategies.get("regularPricing"));
-        double total = strategy.calculateTotal(product.getPrice(), quantity);
-
-        // Factory Pattern: Create transaction
-        Transaction transaction = transactionFactory.createTransaction(type, product, quantity, total, extraInfo);
+        Transaction transaction = price(type, product, quantity, strategyName, extraInfo);
 
         // Save transaction
         Transaction savedTransaction = transactionRepository.save(transaction);
 
         // Observer Pattern: Notify observers (e.g., update stock)
-        notifyObservers(savedTransaction);
+        transactionEvents.publish(savedTransaction);
 
         return savedTransaction;
     }
 
-    private void notifyObservers(Transaction transaction) {
-        for (StockObserver observer : stockObservers) {
-            observer.onTransaction(transaction);
+    // All lines commit together or not at all. Uncached products are loaded in one query and the inserts go out
+    // in JDBC batches (hibernate.jdbc.batch_size), which the increment id generator on Transaction allows.
+    @Transactional
+    public List<Transaction> createTransactions(List<TransactionLine> lines) {
+        Set<Long> productIds = new HashSet<>();
+        for (TransactionLine line : lines) {
+            requirePositive(line.getQuantity());
+            productIds.add(line.getProductId());
+        }
+        Map<Long, Product> products = productCache.getAllById(productIds);
+
+        List<Transaction> transactions = new ArrayList<>(lines.size());
+        for (TransactionLine line : lines) {
+            Product product = products.get(line.getProductId());
+            if (product == null) {
+                throw new IllegalArgumentException("Product not found: " + line.getProductId());
+            }
+            transactions.add(price(line.getType(), product, line.getQuantity(), line.getStrategy(), line.getExtraInfo()));
+        }
+
+        // Every insert is queued before any observer runs, so a flush triggered by an observer sends them all at once
+        List<Transaction> savedTransactions = transactionRepository.saveAll(transactions);
+
+        transactionEvents.publish(savedTransactions);
+
+        return savedTransactions;
+    }
+
+    // Checked here so every entry point gets it: a negative SALE would reach StockUpdater as a stock increase,
+    // and could offset the other lines of its batch past the conditional UPDATE
+    private static void requirePositive(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
         }
     }
+
+    // product is a cached snapshot; the transaction references the managed entity without loading it
+    private Transaction price(String type, Product product, int quantity, String strategyName, String extraInfo) {
+        // Strategy Pattern: Select pricing strategy
+        PricingStrategy strategy = pricingStrategies.getOrDefault(strategyName, pricingStrategies.get("regularPricing"));
+        long total = strategy instanceof ProductPricingStrategy productPricing
+                ? productPricing.calculateTotal(product, quantity)
+                : strategy.calculateTotal(product.getPrice().getMinorUnits(), quantity);
+
+        // Factory Pattern: Create transaction
+        Product reference = productRepository.getReferenceById(product.getId());
+        return transactionFactory.createTransaction(type, reference, quantity, Money.ofMinor(total), extraInfo);
+    }
 }
@@ -0,0 +1,225 @@
+package com.minimarket.service;
+
+import com.minimarket.model.Transaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Funnels every transaction write through one writer thread. SQLite allows a
+ * single writer, so instead of request threads competing for the file lock
+ * (and paying one fsync each), commands wait in a bounded queue and the writer
+ * commits whatever has queued up, up to batch-size lines or max-wait after the
+ * first one, as one DB transaction.
+ *
+ * A command is a list of lines that must commit together (one line for a
+ * checkout, many for a bulk upload). If a batch fails, its commands are
+ * replayed one by one so each caller gets its own result or error.
+ */
+@Service
+public class TransactionWritePipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionWritePipeline.class);
+
+    private final TransactionService transactionService;
+    private final int batchSize;
+    private final long maxWaitNanos;
+    private final BlockingQueue<Command> queue;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    // Written by the writer thread only, read by getStats
+    private long commits;
+    private long committedLines;
+    private long failedBatches;
+    private int lastBatchSize;
+    private int maxBatchSize;
+    private long currentSecond;
+    private int commitsInCurrentSecond;
+    private int commitsInLastSecond;
+
+    @Autowired
+    public TransactionWritePipeline(TransactionService transactionService,
+                                    @Value("${minimarket.writes.batch-size:100}") int batchSize,
+                                    @Value("${minimarket.writes.max-wait:5ms}") Duration maxWait,
+                                    @Value("${minimarket.writes.queue-capacity:1000}") int queueCapacity) {
+        this.transactionService = transactionService;
+        this.batchSize = batchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = new Thread(this::run, "transaction-writer");
+        this.writer.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        writer.interrupt();
+    }
+
+    // Blocks until the line is committed (or rejected); errors are rethrown as thrown by TransactionService
+    public Transaction write(TransactionLine line) {
+        return await(submit(List.of(line))).get(0);
+    }
+
+    public List<Transaction> writeAll(List<TransactionLine> lines) {
+        return await(submit(lines));
+    }
+
+    public CompletableFuture<List<Transaction>> submit(List<TransactionLine> lines) {
+        Command command = new Command(List.copyOf(lines));
+        if (!running) {
+            throw new IllegalStateException("Transaction writer is shutting down");
+        }
+        if (!queue.offer(command)) {
+            throw new QueueFullException("Transaction write queue is full, try again later");
+        }
+        return command.result;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        long second = System.currentTimeMillis() / 1000;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", queue.size());
+        stats.put("commits", commits);
+        stats.put("committedLines", committedLines);
+        stats.put("failedBatches", failedBatches);
+        stats.put("commitsPerSecond", second == currentSecond + 1 ? commitsInCurrentSecond
+                : second == currentSecond ? commitsInLastSecond : 0);
+        stats.put("lastBatchSize", lastBatchSize);
+        stats.put("maxBatchSize", maxBatchSize);
+        stats.put("averageBatchSize", commits == 0 ? 0.0 : (double) committedLines / commits);
+        stats.put("batchSizeLimit", batchSize);
+        stats.put("maxWaitMillis", TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+        return stats;
+    }
+
+    private void run() {
+        List<Command> batch = new ArrayList<>();
+        while (running) {
+            try {
+                batch.add(queue.take());
+                collect(batch);
+                commit(batch);
+            } catch (InterruptedException e) {
+                batch.forEach(TransactionWritePipeline::rejectOnShutdown);
+                break;
+            } catch (RuntimeException e) {
+                // commit() completes every future itself; this only guards the loop
+                log.error("Transaction writer failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+        for (Command command = queue.poll(); command != null; command = queue.poll()) {
+            rejectOnShutdown(command);
+        }
+    }
+
+    private static void rejectOnShutdown(Command command) {
+        command.result.completeExceptionally(new IllegalStateException("Transaction writer is shutting down"));
+    }
+
+    // Adds queued commands until batchSize lines are collected or maxWait has passed since the first one
+    private void collect(List<Command> batch) throws InterruptedException {
+        int lines = batch.get(0).lines.size();
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (lines < batchSize) {
+            long remaining = deadline - System.nanoTime();
+            Command next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            lines += next.lines.size();
+        }
+    }
+
+    private void commit(List<Command> batch) {
+        List<TransactionLine> lines = new ArrayList<>();
+        for (Command command : batch) {
+            lines.addAll(command.lines);
+        }
+
+        List<Transaction> saved;
+        try {
+            saved = transactionService.createTransactions(lines);
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(e);
+                return;
+            }
+            recordFailedBatch();
+            for (Command command : batch) {
+                commit(List.of(command));
+            }
+            return;
+        }
+
+        recordCommit(lines.size());
+        int from = 0;
+        for (Command command : batch) {
+            int to = from + command.lines.size();
+            command.result.complete(saved.subList(from, to));
+            from = to;
+        }
+    }
+
+    private synchronized void recordCommit(int lines) {
+        long second = System.currentTimeMillis() / 1000;
+        if (second != currentSecond) {
+            commitsInLastSecond = second == currentSecond + 1 ? commitsInCurrentSecond : 0;
+            commitsInCurrentSecond = 0;
+            currentSecond = second;
+        }
+        commitsInCurrentSecond++;
+        commits++;
+        committedLines += lines;
+        lastBatchSize = lines;
+        maxBatchSize = Math.max(maxBatchSize, lines);
+    }
+
+    private synchronized void recordFailedBatch() {
+        failedBatches++;
+    }
+
+    private static List<Transaction> await(CompletableFuture<List<Transaction>> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Command {
+        private final List<TransactionLine> lines;
+        private final CompletableFuture<List<Transaction>> result = new CompletableFuture<>();
+
+        private Command(List<TransactionLine> lines) {
+            this.lines = lines;
+        }
+    }
+}
@@ -2,13 +2,35 @@ package com.minimarket.service.facade;
 
 import com.minimarket.model.Product;
 import com.minimarket.model.Transaction;
+import com.minimarket.repository.Keyset;
+import com.minimarket.repository.KeysetPage;
+import com.minimarket.repository.ProductSort;
+import com.minimarket.repository.TransactionFilter;
+import com.minimarket.repository.TransactionRow;
+import com.minimarket.repository.TransactionSort;
+import com.minimarket.service.ProductImportJob;
+import com.minimarket.service.ProductImportService;
 import com.minimarket.service.ProductService;
+import com.minimarket.service.ProductSuggestion;
+import com.minimarket.service.StockLevel;
+import com.minimarket.service.ReportJobService;
 import com.minimarket.service.ReportService;
+import com.minimarket.service.SalesSummaryService;
+import com.minimarket.service.TransactionLine;
 import com.minimarket.service.TransactionService;
+import com.minimarket.service.TransactionWritePipeline;
+import com.minimarket.service.observer.OutboxDispatcher;
+import com.minimarket.service.report.ReportJob;
+import com.minimarket.service.strategy.PromotionPricingEngine;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Component
@@ -17,14 +39,32 @@ public class MinimarketFacade {
     private final ProductService productService;
     private final TransactionService transactionService;
     private final ReportService reportService;
+    private final SalesSummaryService salesSummaryService;
+    private final ReportJobService reportJobService;
+    private final ProductImportService productImportService;
+    private final TransactionWritePipeline transactionWritePipeline;
+    private final OutboxDispatcher outboxDispatcher;
+    private final PromotionPricingEngine promotionPricingEngine;
 
     @Autowired
     public MinimarketFacade(ProductService productService,
                             TransactionService transactionService,
-                            ReportService reportService) {
+                            ReportService reportService,
+                            SalesSummaryService salesSummaryService,
+                            ReportJobService reportJobService,
+                            ProductImportService productImportService,
+                            TransactionWritePipeline transactionWritePipeline,
+                            OutboxDispatcher outboxDispatcher,
+                            PromotionPricingEngine promotionPricingEngine) {
         this.productService = productService;
         this.transactionService = transactionService;
         this.reportService = reportService;
+        this.salesSummaryService = salesSummaryService;
+        this.reportJobService = reportJobService;
+        this.productImportService = productImportService;
+        this.transactionWritePipeline = transactionWritePipeline;
+        this.outboxDispatcher = outboxDispatcher;
+        this.promotionPricingEngine = promotionPricingEngine;
     }
 
     // Product Operations
@@ -32,10 +72,30 @@ public class MinimarketFacade {
         return productService.getAllProducts();
     }
 
+    public KeysetPage<Product> getProductPage(ProductSort sort, Sort.Direction direction, Keyset keyset, int size) {
+        return productService.getProductPage(sort, direction, keyset, size);
+    }
+
     public Optional<Product> getProductById(Long id) {
         return productService.getProductById(id);
     }
 
+    public Optional<Product> getProductByCode(String code) {
+        return productService.getProductByCode(code);
+    }
+
+    public List<ProductSuggestion> searchProducts(String query, int limit) {
+        return productService.searchProducts(query, limit);
+    }
+
+    public List<StockLevel> getLowStock(int limit) {
+        return productService.getLowStock(limit);
+    }
+
+    public Map<String, Object> getLowStockStats() {
+        return productService.getLowStockStats();
+    }
+
     public Product saveProduct(Product product) {
         return productService.saveProduct(product);
     }
@@ -44,17 +104,101 @@ public class MinimarketFacade {
         productService.deleteProduct(id);
     }
 
+    public Map<String, Object> getProductCacheStats() {
+        return productService.getCacheStats();
+    }
+
+    // Product Import Operations
+    public ProductImportJob submitProductImport(String filename, InputStream content) throws IOException {
+        return productImportService.submit(filename, content);
+    }
+
+    public Optional<ProductImportJob> getProductImport(String id) {
+        return productImportService.getJob(id);
+    }
+
+    public List<ProductImportJob> getProductImports() {
+        return productImportService.getJobs();
+    }
+
     // Transaction Operations
     public List<Transaction> getAllTransactions() {
         return transactionService.getAllTransactions();
     }
 
+    public KeysetPage<TransactionRow> getTransactionPage(TransactionFilter filter, TransactionSort sort,
+                                                         Sort.Direction direction, Keyset keyset, int size) {
+        return transactionService.getTransactionPage(filter, sort, direction, keyset, size);
+    }
+
+    // Writes go through the single-writer pipeline, which group-commits concurrent requests
     public Transaction createTransaction(String type, Long productId, int quantity, String strategyName, String extraInfo) {
-        return transactionService.createTransaction(type, productId, quantity, strategyName, extraInfo);
+        return transactionWritePipeline.write(new TransactionLine(type, productId, quantity, strategyName, extraInfo));
+    }
+
+    public List<Transaction> createTransactions(List<TransactionLine> lines) {
+        return transactionWritePipeline.writeAll(lines);
+    }
+
+    public Map<String, Object> getTransactionWriteStats() {
+        return transactionWritePipeline.getStats();
+    }
+
+    public Map<String, Object> getObserverLag() {
+        return outboxDispatcher.getStats();
+    }
+
+    public Map<String, Object> getPricingStats() {
+        return promotionPricingEngine.getStats();
     }
 
     // Report Operations
     public String generateReport(String type) {
         return reportService.generateReport(type);
     }
+
+    public String generateReport(String type, TransactionFilter filter) {
+        return reportService.generateReport(type, filter);
+    }
+
+    public void writeReport(String type, TransactionFilter filter, OutputStream out) throws IOException {
+        reportService.writeReport(type, filter, out);
+    }
+
+    public String generateSummaryReport(String type, TransactionFilter filter) {
+        return reportService.generateSummaryReport(type, filter);
+    }
+
+    public int rebuildSalesSummary() {
+        return salesSummaryService.rebuild();
+    }
+
+    public Map<String, Object> getReportCacheStats() {
+        return reportService.getCacheStats();
+    }
+
+    public String getReportContentType(String type) {
+        return reportService.getContentType(type);
+    }
+
+    public boolean isBinaryReport(String type) {
+        return reportService.isBinary(type);
+    }
+
+    public String getReportFileExtension(String type) {
+        return reportService.getFileExtension(type);
+    }
+
+    // Report Job Operations
+    public ReportJob submitReportJob(String type, TransactionFilter filter) {
+        return reportJobService.submit(type, filter);
+    }
+
+    public Optional<ReportJob> getReportJob(String id) {
+        return reportJobService.getJob(id);
+    }
+
+    public List<ReportJob> getReportJobs() {
+        return reportJobService.getJobs();
+    }
 }
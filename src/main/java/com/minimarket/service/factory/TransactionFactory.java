@@ -1,5 +1,6 @@
 package com.minimarket.service.factory;
 
+import com.minimarket.model.Money;
 import com.minimarket.model.Product;
 import com.minimarket.model.Purchase;
 import com.minimarket.model.Sale;
@@ -9,7 +10,7 @@ import org.springframework.stereotype.Component;
 @Component
 public class TransactionFactory {
 
-    public Transaction createTransaction(String type, Product product, int quantity, double total, String extraInfo) {
+    public Transaction createTransaction(String type, Product product, int quantity, Money total, String extraInfo) {
         if ("PURCHASE".equalsIgnoreCase(type)) {
             return new Purchase(product, quantity, total, extraInfo);
         } else if ("SALE".equalsIgnoreCase(type)) {
@@ -0,0 +1,64 @@
+package com.minimarket.service.observer;
+
+import com.minimarket.model.DailySalesSummary;
+import com.minimarket.model.Transaction;
+import com.minimarket.repository.DailySalesSummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class DailySalesAggregator implements StockObserver {
+
+    public static final String NAME = "DailySalesAggregator";
+
+    private final DailySalesSummaryRepository summaryRepository;
+
+    @Autowired
+    public DailySalesAggregator(DailySalesSummaryRepository summaryRepository) {
+        this.summaryRepository = summaryRepository;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    // Joins the sale's DB transaction, or opens its own when delivered from the outbox
+    @Override
+    @Transactional
+    public void onTransaction(Transaction transaction) {
+        summaryRepository.addToBucket(
+                transaction.getProduct().getId(),
+                transaction.getDate().toLocalDate(),
+                DailySalesSummary.typeOf(transaction),
+                transaction.getQuantity(),
+                transaction.getTotal().getMinorUnits());
+    }
+
+    // One upsert per touched bucket instead of one per line
+    @Override
+    @Transactional
+    public void onTransactions(List<Transaction> transactions) {
+        Map<Bucket, DailySalesSummary> buckets = new LinkedHashMap<>();
+        for (Transaction transaction : transactions) {
+            Bucket key = new Bucket(transaction.getProduct().getId(),
+                    transaction.getDate().toLocalDate(), DailySalesSummary.typeOf(transaction));
+            buckets.computeIfAbsent(key, k -> new DailySalesSummary(transaction.getProduct(), k.day(), k.transactionType()))
+                    .add(transaction.getQuantity(), transaction.getTotal().getMinorUnits());
+        }
+        for (Map.Entry<Bucket, DailySalesSummary> entry : buckets.entrySet()) {
+            Bucket key = entry.getKey();
+            summaryRepository.addToBucket(key.productId(), key.day(), key.transactionType(),
+                    entry.getValue().getUnits(), entry.getValue().getRevenueMinor());
+        }
+    }
+
+    private record Bucket(Long productId, LocalDate day, String transactionType) {
+    }
+}
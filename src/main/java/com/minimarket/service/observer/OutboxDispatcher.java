@@ -0,0 +1,273 @@
+package com.minimarket.service.observer;
+
+import com.minimarket.model.OutboxEvent;
+import com.minimarket.model.Transaction;
+import com.minimarket.repository.OutboxEventRepository;
+import com.minimarket.repository.TransactionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers outbox rows written by TransactionEvents to the asynchronous observers.
+ *
+ * Each poll reads the oldest pending rows and the transactions behind them in one
+ * read-only transaction, then splits the events by product over a fixed set of
+ * single-threaded workers, so one product's events are always delivered in order
+ * while different products proceed in parallel. Observers run outside any
+ * transaction the dispatcher holds, and an observer that writes opens its own. The
+ * delivered rows are then deleted in one short write transaction per poll, so the
+ * workers never queue on the single writer connection for their bookkeeping.
+ *
+ * Delivery and acknowledgement are separate commits: after a crash between them the
+ * events are delivered again, so observers must tolerate seeing an event more than
+ * once. A failed run of events for one observer and product waits out a retry delay
+ * that doubles per attempt, and holds back that product's later events meanwhile.
+ * After maxAttempts failures its events are parked: kept in the table and counted
+ * in the stats, but no longer delivered, so they stop holding back the rest.
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private final OutboxEventRepository outboxRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate readOnlyTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, StockObserver> observers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+    private final ExecutorService[] workers;
+
+    private final Map<String, AtomicLong> delivered = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> failed = new ConcurrentHashMap<>();
+
+    @Autowired
+    public OutboxDispatcher(TransactionEvents transactionEvents,
+                            OutboxEventRepository outboxRepository,
+                            TransactionRepository transactionRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${minimarket.events.partitions:4}") int partitions,
+                            @Value("${minimarket.events.batch-size:500}") int batchSize,
+                            @Value("${minimarket.events.max-attempts:5}") int maxAttempts,
+                            @Value("${minimarket.events.retry-delay:1s}") Duration retryDelay) {
+        this.outboxRepository = outboxRepository;
+        this.transactionRepository = transactionRepository;
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.observers = transactionEvents.getDeferredObservers().stream()
+                .collect(Collectors.toMap(StockObserver::getName, Function.identity()));
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryDelay = retryDelay;
+        this.workers = new ExecutorService[observers.isEmpty() ? 0 : partitions];
+        for (int i = 0; i < workers.length; i++) {
+            String name = "outbox-dispatch-" + (i + 1);
+            workers[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        for (String observer : observers.keySet()) {
+            delivered.put(observer, new AtomicLong());
+            failed.put(observer, new AtomicLong());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService worker : workers) {
+            worker.shutdownNow();
+        }
+    }
+
+    // fixedDelay, and each poll waits for its deliveries, so a row is never handed out twice at the same time
+    @Scheduled(fixedDelayString = "${minimarket.events.poll-interval-ms:200}")
+    public void poll() {
+        if (workers.length == 0) {
+            return;
+        }
+        Batch batch = readOnlyTemplate.execute(status -> load(LocalDateTime.now()));
+        if (batch == null || batch.events().isEmpty()) {
+            return;
+        }
+
+        List<List<OutboxEvent>> partitions = new ArrayList<>(workers.length);
+        for (int i = 0; i < workers.length; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (OutboxEvent event : batch.events()) {
+            partitions.get(Math.floorMod(event.getProductId().hashCode(), workers.length)).add(event);
+        }
+
+        List<Future<Outcome>> running = new ArrayList<>(workers.length);
+        for (int i = 0; i < workers.length; i++) {
+            List<OutboxEvent> partition = partitions.get(i);
+            if (!partition.isEmpty()) {
+                running.add(workers[i].submit(() -> deliver(partition, batch.transactions())));
+            }
+        }
+        Outcome outcome = new Outcome();
+        for (Future<Outcome> future : running) {
+            try {
+                outcome.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                log.error("Outbox delivery failed", e.getCause());
+            }
+        }
+        // Whatever was delivered before an interruption is still acknowledged
+        acknowledge(outcome, LocalDateTime.now());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (String observer : observers.keySet()) {
+            Map<String, Object> lag = new LinkedHashMap<>();
+            lag.put("pending", 0L);
+            lag.put("lagMillis", 0L);
+            lag.put("parked", 0L);
+            lag.put("delivered", delivered.get(observer).get());
+            lag.put("failed", failed.get(observer).get());
+            stats.put(observer, lag);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Object[] row : outboxRepository.findBacklog()) {
+            Map<String, Object> lag = statsOf(stats, (String) row[0]);
+            lag.put("pending", row[1]);
+            // Age of the oldest undelivered event
+            lag.put("lagMillis", Math.max(0, Duration.between((LocalDateTime) row[2], now).toMillis()));
+        }
+        for (Object[] row : outboxRepository.findParked()) {
+            statsOf(stats, (String) row[0]).put("parked", row[1]);
+        }
+        return stats;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> statsOf(Map<String, Object> stats, String observer) {
+        return (Map<String, Object>) stats.computeIfAbsent(observer, k -> new LinkedHashMap<>());
+    }
+
+    private Batch load(LocalDateTime now) {
+        List<OutboxEvent> events = outboxRepository.findPending(now, PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return new Batch(events, Map.of());
+        }
+        Set<Long> ids = events.stream().map(OutboxEvent::getTransactionId).collect(Collectors.toSet());
+        Map<Long, Transaction> transactions = transactionRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Transaction::getId, Function.identity()));
+        return new Batch(events, transactions);
+    }
+
+    private Outcome deliver(List<OutboxEvent> partition, Map<Long, Transaction> transactions) {
+        // Runs of consecutive events per observer and product, in id order
+        Map<String, List<OutboxEvent>> runs = new LinkedHashMap<>();
+        for (OutboxEvent event : partition) {
+            runs.computeIfAbsent(event.getObserver() + "|" + event.getProductId(), k -> new ArrayList<>()).add(event);
+        }
+        Outcome outcome = new Outcome();
+        for (List<OutboxEvent> run : runs.values()) {
+            String name = run.get(0).getObserver();
+            StockObserver observer = observers.get(name);
+            if (observer == null) {
+                // Retried and eventually parked (and visible in the stats) rather than silently dropped
+                log.warn("No asynchronous observer named {} for {} outbox events", name, run.size());
+                outcome.failedRuns.add(run);
+                continue;
+            }
+            try {
+                deliver(observer, run, transactions);
+                delivered.get(name).addAndGet(run.size());
+                run.forEach(event -> outcome.deliveredIds.add(event.getId()));
+            } catch (RuntimeException e) {
+                failed.get(name).incrementAndGet();
+                log.warn("Delivering {} outbox events to {} failed (attempt {} of {})",
+                        run.size(), name, run.get(0).getAttempts() + 1, maxAttempts, e);
+                outcome.failedRuns.add(run);
+            }
+        }
+        return outcome;
+    }
+
+    private static void deliver(StockObserver observer, List<OutboxEvent> run, Map<Long, Transaction> byId) {
+        List<Transaction> transactions = new ArrayList<>(run.size());
+        for (OutboxEvent event : run) {
+            // Missing only if the transaction was deleted since; nothing left to deliver
+            Transaction transaction = byId.get(event.getTransactionId());
+            if (transaction != null) {
+                transactions.add(transaction);
+            }
+        }
+        if (!transactions.isEmpty()) {
+            observer.onTransactions(transactions);
+        }
+    }
+
+    private void acknowledge(Outcome outcome, LocalDateTime now) {
+        if (outcome.deliveredIds.isEmpty() && outcome.failedRuns.isEmpty()) {
+            return;
+        }
+        Collections.sort(outcome.deliveredIds);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!outcome.deliveredIds.isEmpty()) {
+                outboxRepository.deleteAllByIdInBatch(outcome.deliveredIds);
+            }
+            for (List<OutboxEvent> run : outcome.failedRuns) {
+                List<Long> ids = run.stream().map(OutboxEvent::getId).toList();
+                // The run's first event has failed the most often
+                int attempt = run.get(0).getAttempts() + 1;
+                outboxRepository.recordFailure(ids, now.plus(retryDelay.multipliedBy(1L << Math.min(attempt - 1, 20))));
+                if (attempt >= maxAttempts) {
+                    outboxRepository.parkExhausted(ids, maxAttempts, now);
+                    log.error("Parked outbox events of {} for product {} after {} failed attempts",
+                            run.get(0).getObserver(), run.get(0).getProductId(), attempt);
+                }
+            }
+        });
+    }
+
+    private record Batch(List<OutboxEvent> events, Map<Long, Transaction> transactions) {
+    }
+
+    // What one worker (or, merged, one poll) delivered and what failed
+    private static final class Outcome {
+        private final List<Long> deliveredIds = new ArrayList<>();
+        private final List<List<OutboxEvent>> failedRuns = new ArrayList<>();
+
+        private void add(Outcome other) {
+            deliveredIds.addAll(other.deliveredIds);
+            failedRuns.addAll(other.failedRuns);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.minimarket.service.observer;
+
+import com.minimarket.model.Transaction;
+import com.minimarket.service.report.ReportCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class ReportCacheInvalidator implements StockObserver {
+
+    private final ReportCache reportCache;
+
+    @Autowired
+    public ReportCacheInvalidator(ReportCache reportCache) {
+        this.reportCache = reportCache;
+    }
+
+    @Override
+    public void onTransaction(Transaction transaction) {
+        // Deferred to commit so a report rendered before the commit can't be cached under the new version
+        reportCache.invalidateAfterCommit();
+    }
+
+    @Override
+    public void onTransactions(List<Transaction> transactions) {
+        reportCache.invalidateAfterCommit();
+    }
+
+    // Through the outbox a report could keep serving the old figures after the sale committed
+    @Override
+    public boolean canRunAsync() {
+        return false;
+    }
+}
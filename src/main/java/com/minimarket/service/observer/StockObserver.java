@@ -2,6 +2,26 @@ package com.minimarket.service.observer;
 
 import com.minimarket.model.Transaction;
 
+import java.util.List;
+
 public interface StockObserver {
     void onTransaction(Transaction transaction);
+
+    // Batched submissions notify once; observers that can coalesce work per batch override this
+    default void onTransactions(List<Transaction> transactions) {
+        for (Transaction transaction : transactions) {
+            onTransaction(transaction);
+        }
+    }
+
+    // With minimarket.events.async these observers are delivered after commit through the outbox
+    // (at least once, in order per product); the others always run inside the DB transaction
+    default boolean canRunAsync() {
+        return true;
+    }
+
+    // Stored in outbox rows, so renaming an observer orphans its pending events
+    default String getName() {
+        return getClass().getSimpleName();
+    }
 }
@@ -1,34 +1,84 @@
 package com.minimarket.service.observer;
 
-import com.minimarket.model.Product;
 import com.minimarket.model.Purchase;
 import com.minimarket.model.Sale;
 import com.minimarket.model.Transaction;
 import com.minimarket.repository.ProductRepository;
+import com.minimarket.service.InsufficientStockException;
+import com.minimarket.service.LowStockIndex;
+import com.minimarket.service.ProductCache;
+import com.minimarket.service.StockLedger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Component
 public class StockUpdater implements StockObserver {
 
     private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final LowStockIndex lowStockIndex;
+    private final StockLedger stockLedger;
 
     @Autowired
-    public StockUpdater(ProductRepository productRepository) {
+    public StockUpdater(ProductRepository productRepository, ProductCache productCache, LowStockIndex lowStockIndex,
+                        StockLedger stockLedger) {
         this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.lowStockIndex = lowStockIndex;
+        this.stockLedger = stockLedger;
+    }
+
+    // The stock check has to reject an oversell before the sale commits
+    @Override
+    public boolean canRunAsync() {
+        return false;
     }
 
     @Override
     public void onTransaction(Transaction transaction) {
-        Product product = transaction.getProduct();
-        int quantity = transaction.getQuantity();
+        applyChange(transaction.getProduct().getId(), stockChange(transaction));
+    }
+
+    // One UPDATE per product; a batch is rejected only if its net change would take stock below zero
+    @Override
+    public void onTransactions(List<Transaction> transactions) {
+        Map<Long, Integer> changes = new LinkedHashMap<>();
+        for (Transaction transaction : transactions) {
+            changes.merge(transaction.getProduct().getId(), stockChange(transaction), Integer::sum);
+        }
+        changes.forEach(this::applyChange);
+    }
 
+    private static int stockChange(Transaction transaction) {
         if (transaction instanceof Purchase) {
-            product.setStock(product.getStock() + quantity);
+            return transaction.getQuantity();
         } else if (transaction instanceof Sale) {
-            product.setStock(product.getStock() - quantity);
+            return -transaction.getQuantity();
         }
+        return 0;
+    }
 
-        productRepository.save(product);
+    // Throwing rolls back the surrounding DB transaction, so the oversold sale is never stored
+    private void applyChange(Long productId, int change) {
+        if (change != 0 && stockLedger.isEventSourced()) {
+            // The ledger already holds this change (the lookup flushes it); the column only mirrors it
+            long stock = stockLedger.currentStock(productId);
+            if (change < 0 && stock < 0) {
+                throw new InsufficientStockException(productId);
+            }
+            productRepository.addStock(productId, change);
+        } else if (change > 0) {
+            productRepository.addStock(productId, change);
+        } else if (change < 0 && productRepository.removeStock(productId, -change) == 0) {
+            throw new InsufficientStockException(productId);
+        }
+        if (change != 0) {
+            productCache.adjustStockAfterCommit(productId, change);
+            lowStockIndex.adjustStockAfterCommit(productId, change);
+        }
     }
 }
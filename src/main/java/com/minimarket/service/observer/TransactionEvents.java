@@ -0,0 +1,66 @@
+package com.minimarket.service.observer;
+
+import com.minimarket.model.OutboxEvent;
+import com.minimarket.model.Transaction;
+import com.minimarket.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Notifies observers of new transactions. Called inside the DB transaction that
+ * stores them: synchronous observers run right away; in async mode the others get
+ * one outbox row per transaction, committed with it and delivered later by
+ * OutboxDispatcher, so they add no latency to a checkout.
+ */
+@Component
+public class TransactionEvents {
+
+    private final List<StockObserver> inline = new ArrayList<>();
+    private final List<StockObserver> deferred = new ArrayList<>();
+    private final OutboxEventRepository outboxRepository;
+
+    @Autowired
+    public TransactionEvents(List<StockObserver> observers,
+                             OutboxEventRepository outboxRepository,
+                             @Value("${minimarket.events.async:false}") boolean async) {
+        this.outboxRepository = outboxRepository;
+        for (StockObserver observer : observers) {
+            (async && observer.canRunAsync() ? deferred : inline).add(observer);
+        }
+    }
+
+    public void publish(Transaction transaction) {
+        for (StockObserver observer : inline) {
+            observer.onTransaction(transaction);
+        }
+        enqueue(List.of(transaction));
+    }
+
+    public void publish(List<Transaction> transactions) {
+        for (StockObserver observer : inline) {
+            observer.onTransactions(transactions);
+        }
+        enqueue(transactions);
+    }
+
+    public List<StockObserver> getDeferredObservers() {
+        return deferred;
+    }
+
+    private void enqueue(List<Transaction> transactions) {
+        if (deferred.isEmpty()) {
+            return;
+        }
+        List<OutboxEvent> events = new ArrayList<>(transactions.size() * deferred.size());
+        for (Transaction transaction : transactions) {
+            for (StockObserver observer : deferred) {
+                events.add(new OutboxEvent(observer.getName(), transaction));
+            }
+        }
+        outboxRepository.saveAll(events);
+    }
+}
@@ -0,0 +1,110 @@
+package com.minimarket.service.report;
+
+import com.minimarket.service.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Rendered reports keyed by report kind, format and filter, stamped with the data version
+ * they were rendered from. Any change to the data behind reports bumps the version, so a
+ * cached report is served only until the next transaction (or product edit) commits.
+ * Least recently used entries are evicted once the total size exceeds the byte budget.
+ */
+@Component
+public class ReportCache {
+
+    private final long maxBytes;
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes;
+
+    public ReportCache(@Value("${minimarket.reports.cache.max-bytes:67108864}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public String get(String key, Supplier<String> renderer) {
+        // Read the version before rendering: if data changes meanwhile, the entry is already stale
+        long renderedVersion = version.get();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.version == renderedVersion) {
+                hits.incrementAndGet();
+                return entry.report;
+            }
+        }
+
+        misses.incrementAndGet();
+        String report = renderer.get();
+        put(key, new Entry(report, renderedVersion));
+        return report;
+    }
+
+    // Bumps the version once the current DB transaction commits (immediately if there is none)
+    public void invalidateAfterCommit() {
+        AfterCommit.run(this::invalidate);
+    }
+
+    public synchronized void invalidate() {
+        version.incrementAndGet();
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    public long getVersion() { return version.get(); }
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    public synchronized int getSize() { return entries.size(); }
+    public synchronized long getBytes() { return currentBytes; }
+    public long getMaxBytes() { return maxBytes; }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", getHits());
+        stats.put("misses", getMisses());
+        stats.put("entries", getSize());
+        stats.put("bytes", getBytes());
+        stats.put("maxBytes", getMaxBytes());
+        stats.put("version", getVersion());
+        return stats;
+    }
+
+    private synchronized void put(String key, Entry entry) {
+        if (entry.version != version.get() || entry.bytes > maxBytes) {
+            return;
+        }
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            currentBytes -= previous.bytes;
+        }
+        currentBytes += entry.bytes;
+
+        Iterator<Entry> lru = entries.values().iterator();
+        while (currentBytes > maxBytes && lru.hasNext()) {
+            currentBytes -= lru.next().bytes;
+            lru.remove();
+        }
+    }
+
+    private static final class Entry {
+        private final String report;
+        private final long version;
+        // Upper bound on the retained size: two bytes per char
+        private final long bytes;
+
+        private Entry(String report, long version) {
+            this.report = report;
+            this.version = version;
+            this.bytes = 2L * report.length();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.minimarket.service.report;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+// On-the-fly compression of streamed reports using the JDK codecs
+public enum ReportCompression {
+
+    NONE(null, null),
+    GZIP("gzip", "gz"),
+    // HTTP "deflate" is the zlib format, which is what DeflaterOutputStream writes by default
+    DEFLATE("deflate", "zz");
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final String contentEncoding;
+    private final String fileExtension;
+
+    ReportCompression(String contentEncoding, String fileExtension) {
+        this.contentEncoding = contentEncoding;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentEncoding() { return contentEncoding; }
+    public String getFileExtension() { return fileExtension; }
+
+    public OutputStream wrap(OutputStream out) throws IOException {
+        return switch (this) {
+            case NONE -> out;
+            case GZIP -> new GZIPOutputStream(out, BUFFER_SIZE);
+            // Default deflater, so close() releases its native memory; the buffer batches its small writes
+            case DEFLATE -> new DeflaterOutputStream(new BufferedOutputStream(out, BUFFER_SIZE), false);
+        };
+    }
+
+    // Writes the compressed trailer and releases the codec; the response is complete afterwards
+    public void finish(OutputStream wrapped) throws IOException {
+        if (this == NONE) {
+            wrapped.flush();
+        } else {
+            wrapped.close();
+        }
+    }
+
+    /**
+     * Picks the codec from an Accept-Encoding header, preferring gzip. Codings listed with
+     * q=0 are refused; "*" accepts gzip.
+     */
+    public static ReportCompression negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return NONE;
+        }
+        boolean gzip = false;
+        boolean deflate = false;
+        for (String part : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+            String[] params = part.trim().split(";");
+            String coding = params[0].trim();
+            if (isRefused(params)) {
+                continue;
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip") || coding.equals("*")) {
+                gzip = true;
+            } else if (coding.equals("deflate")) {
+                deflate = true;
+            }
+        }
+        return gzip ? GZIP : deflate ? DEFLATE : NONE;
+    }
+
+    private static boolean isRefused(String[] params) {
+        for (int i = 1; i < params.length; i++) {
+            String param = params[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2)) <= 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
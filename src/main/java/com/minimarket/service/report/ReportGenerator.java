@@ -1,31 +1,166 @@
 package com.minimarket.service.report;
 
-import com.minimarket.model.Transaction;
+import com.minimarket.service.report.formatter.CellReportFormatter;
 import com.minimarket.service.report.formatter.ReportFormatter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+
+public abstract class ReportGenerator<T> {
 
-public abstract class ReportGenerator {
+    // Below this many rows the fork/join overhead outweighs the gain, so rendering stays sequential
+    public static final int PARALLEL_THRESHOLD = 10_000;
+    // Rows rendered by one fork/join leaf task
+    public static final int CHUNK_SIZE = 2_000;
+    // Characters buffered before a streaming report drains to its Writer
+    static final int WRITE_BUFFER_CHARS = 16 * 1024;
 
     protected final ReportFormatter formatter;
+    // Set when the formatter supports the cell SPI; rows are then appended without per-cell Strings
+    private final CellReportFormatter cells;
 
     protected ReportGenerator(ReportFormatter formatter) {
         this.formatter = formatter;
+        this.cells = formatter instanceof CellReportFormatter cellFormatter ? cellFormatter : null;
     }
 
     // Template Method
-    public final String generateReport(List<Transaction> transactions) {
+    public final String generateReport(List<? extends T> rows) {
         StringBuilder report = new StringBuilder();
-        report.append(formatter.formatHeader(getHeaderLabels()));
+        appendHeader(report);
+
+        appendRows(report, rows, 0, rows.size());
 
-        for (Transaction t : transactions) {
-            report.append(formatter.formatRow(getRowData(t)));
+        appendFooter(report);
+        return report.toString();
+    }
+
+    // Template Method (parallel): rows are rendered in chunks on the pool and stitched back in order.
+    // Output is identical to generateReport; getRowData and the formatter must be thread-safe.
+    public final String generateReport(List<? extends T> rows, ForkJoinPool pool) {
+        if (rows.size() < PARALLEL_THRESHOLD) {
+            return generateReport(rows);
         }
 
-        report.append(formatter.formatFooter(getFooterText()));
+        String[] chunks = new String[(rows.size() + CHUNK_SIZE - 1) / CHUNK_SIZE];
+        pool.invoke(new RenderChunks(rows, chunks, 0, chunks.length));
+
+        long length = 0;
+        for (String chunk : chunks) {
+            length += chunk.length();
+        }
+        StringBuilder report = new StringBuilder((int) Math.min(Integer.MAX_VALUE - 8, length + 1024));
+        appendHeader(report);
+        for (String chunk : chunks) {
+            report.append(chunk);
+        }
+        appendFooter(report);
         return report.toString();
     }
 
+    // Template Method (streaming): rows are written as they are read, nothing is accumulated.
+    // One buffer is reused for the whole report and drained through a reusable char[].
+    public final void writeReport(Stream<? extends T> rows, Writer writer) throws IOException {
+        StringBuilder buffer = new StringBuilder(WRITE_BUFFER_CHARS + 1024);
+        char[] scratch = new char[WRITE_BUFFER_CHARS + 1024];
+        appendHeader(buffer);
+
+        Iterator<? extends T> it = rows.iterator();
+        while (it.hasNext()) {
+            appendRow(buffer, it.next());
+            if (buffer.length() >= WRITE_BUFFER_CHARS) {
+                scratch = drain(buffer, scratch, writer);
+            }
+        }
+
+        appendFooter(buffer);
+        drain(buffer, scratch, writer);
+        writer.flush();
+    }
+
+    private static char[] drain(StringBuilder buffer, char[] scratch, Writer writer) throws IOException {
+        int length = buffer.length();
+        if (scratch.length < length) {
+            scratch = new char[length];
+        }
+        // getChars copies into our array; Writer.append(CharSequence) would allocate a String per drain
+        buffer.getChars(0, length, scratch, 0);
+        writer.write(scratch, 0, length);
+        buffer.setLength(0);
+        return scratch;
+    }
+
+    private void appendHeader(StringBuilder sb) {
+        if (cells != null) {
+            cells.appendHeader(sb, getHeaderLabels());
+        } else {
+            sb.append(formatter.formatHeader(getHeaderLabels()));
+        }
+    }
+
+    private void appendFooter(StringBuilder sb) {
+        if (cells != null) {
+            cells.appendFooter(sb, getFooterText());
+        } else {
+            sb.append(formatter.formatFooter(getFooterText()));
+        }
+    }
+
+    private void appendRow(StringBuilder sb, T row) {
+        if (cells != null) {
+            cells.startRow(sb);
+            appendCells(cells, sb, row);
+            cells.endRow(sb);
+        } else {
+            sb.append(formatter.formatRow(getRowData(row)));
+        }
+    }
+
+    private void appendRows(StringBuilder sb, List<? extends T> rows, int from, int to) {
+        for (int i = from; i < to; i++) {
+            appendRow(sb, rows.get(i));
+        }
+    }
+
+    // Splits the chunk range in halves until a single chunk is left, then renders it into its slot
+    private final class RenderChunks extends RecursiveAction {
+
+        private final List<? extends T> rows;
+        private final String[] chunks;
+        private final int firstChunk;
+        private final int endChunk;
+
+        RenderChunks(List<? extends T> rows, String[] chunks, int firstChunk, int endChunk) {
+            this.rows = rows;
+            this.chunks = chunks;
+            this.firstChunk = firstChunk;
+            this.endChunk = endChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (endChunk - firstChunk == 1) {
+                int from = firstChunk * CHUNK_SIZE;
+                int to = Math.min(from + CHUNK_SIZE, rows.size());
+                StringBuilder sb = new StringBuilder();
+                appendRows(sb, rows, from, to);
+                chunks[firstChunk] = sb.toString();
+                return;
+            }
+            int mid = (firstChunk + endChunk) >>> 1;
+            invokeAll(new RenderChunks(rows, chunks, firstChunk, mid),
+                    new RenderChunks(rows, chunks, mid, endChunk));
+        }
+    }
+
     protected abstract List<String> getHeaderLabels();
-    protected abstract List<String> getRowData(Transaction t);
+    protected abstract List<String> getRowData(T row);
+    // Cell SPI counterpart of getRowData: must produce the same cells, in the same order
+    protected abstract void appendCells(CellReportFormatter cells, StringBuilder out, T row);
     protected abstract String getFooterText();
 }
@@ -0,0 +1,175 @@
+package com.minimarket.service.report;
+
+import com.minimarket.repository.TransactionFilter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A report rendered in the background to a file under the jobs directory.
+ * State is written by the worker thread and read by request threads, so the
+ * mutable fields are volatile and progress is an AtomicLong.
+ */
+public class ReportJob {
+
+    public enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+    private final String id;
+    private final String type;
+    private final TransactionFilter filter;
+    private final Instant createdAt;
+    private final AtomicLong rowsWritten = new AtomicLong();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile long totalRows = -1;
+    private volatile Path file;
+    private volatile long sizeBytes;
+    private volatile String error;
+    private volatile Instant completedAt;
+
+    // Guarded by this: a purge and the start of a download must not interleave
+    private int activeDownloads;
+    private Instant lastDownloadAt;
+    private boolean purged;
+
+    public ReportJob(String id, String type, TransactionFilter filter, Instant createdAt) {
+        this.id = id;
+        this.type = type;
+        this.filter = filter;
+        this.createdAt = createdAt;
+    }
+
+    // Identical requests share a key; only one of them is queued or running at a time
+    public static String keyOf(String type, TransactionFilter filter) {
+        return type + ":" + filter;
+    }
+
+    public String getKey() {
+        return keyOf(type, filter);
+    }
+
+    public boolean isPending() {
+        return status == Status.QUEUED || status == Status.RUNNING;
+    }
+
+    /**
+     * Reserves the result file for a download until {@link #endDownload()}, and
+     * restarts the TTL. Returns false once the job has been purged.
+     */
+    public synchronized boolean beginDownload(Instant now) {
+        if (purged) {
+            return false;
+        }
+        activeDownloads++;
+        lastDownloadAt = now;
+        return true;
+    }
+
+    public synchronized void endDownload() {
+        activeDownloads--;
+    }
+
+    // Marks the job purged once its TTL has passed and no download is reading the file
+    public synchronized boolean purgeIfExpired(Instant now, Duration ttl) {
+        Instant lastUsed = lastDownloadAt != null ? lastDownloadAt : completedAt;
+        if (purged || activeDownloads > 0 || lastUsed == null || !lastUsed.plus(ttl).isBefore(now)) {
+            return false;
+        }
+        purged = true;
+        return true;
+    }
+
+    public void start(long totalRows) {
+        this.totalRows = totalRows;
+        this.status = Status.RUNNING;
+    }
+
+    public void complete(Path file, long sizeBytes, Instant completedAt) {
+        this.file = file;
+        this.sizeBytes = sizeBytes;
+        this.completedAt = completedAt;
+        this.status = Status.DONE;
+    }
+
+    public void fail(String error, Instant completedAt) {
+        this.error = error;
+        this.completedAt = completedAt;
+        this.status = Status.FAILED;
+    }
+
+    // 0-100, or -1 while the row count is not known yet
+    public int getProgressPercent() {
+        if (status == Status.DONE) {
+            return 100;
+        }
+        long total = totalRows;
+        if (total < 0) {
+            return -1;
+        }
+        return total == 0 ? 100 : (int) Math.min(100, rowsWritten.get() * 100 / total);
+    }
+
+    public Map<String, Object> toStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("id", id);
+        status.put("type", type);
+        status.put("filter", filter.toString());
+        status.put("status", this.status.name());
+        status.put("rowsWritten", rowsWritten.get());
+        status.put("totalRows", totalRows);
+        status.put("progressPercent", getProgressPercent());
+        status.put("sizeBytes", sizeBytes);
+        status.put("createdAt", createdAt.toString());
+        status.put("completedAt", completedAt == null ? null : completedAt.toString());
+        status.put("error", error);
+        return status;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public TransactionFilter getFilter() {
+        return filter;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public AtomicLong getRowsWritten() {
+        return rowsWritten;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+}
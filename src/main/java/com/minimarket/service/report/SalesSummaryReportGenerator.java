@@ -0,0 +1,45 @@
+package com.minimarket.service.report;
+
+import com.minimarket.model.DailySalesSummary;
+import com.minimarket.model.Money;
+import com.minimarket.service.report.formatter.CellReportFormatter;
+import com.minimarket.service.report.formatter.ReportFormatter;
+import java.util.Arrays;
+import java.util.List;
+
+public class SalesSummaryReportGenerator extends ReportGenerator<DailySalesSummary> {
+
+    public SalesSummaryReportGenerator(ReportFormatter formatter) {
+        super(formatter);
+    }
+
+    @Override
+    protected List<String> getHeaderLabels() {
+        return Arrays.asList("Day", "Product", "Type", "Units", "Revenue");
+    }
+
+    @Override
+    protected List<String> getRowData(DailySalesSummary s) {
+        return Arrays.asList(
+                s.getDay().toString(),
+                s.getProduct().getName(),
+                s.getTransactionType(),
+                String.valueOf(s.getUnits()),
+                Money.format(s.getRevenueMinor())
+        );
+    }
+
+    @Override
+    protected void appendCells(CellReportFormatter cells, StringBuilder out, DailySalesSummary s) {
+        cells.cell(out, 0, s.getDay());
+        cells.cell(out, 1, s.getProduct().getName());
+        cells.cell(out, 2, s.getTransactionType());
+        cells.cell(out, 3, s.getUnits());
+        cells.moneyCell(out, 4, s.getRevenueMinor());
+    }
+
+    @Override
+    protected String getFooterText() {
+        return "End of Daily Sales Summary";
+    }
+}
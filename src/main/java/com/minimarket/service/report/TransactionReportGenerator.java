@@ -1,11 +1,13 @@
 package com.minimarket.service.report;
 
-import com.minimarket.model.Transaction;
+import com.minimarket.model.Money;
+import com.minimarket.repository.TransactionRow;
+import com.minimarket.service.report.formatter.CellReportFormatter;
 import com.minimarket.service.report.formatter.ReportFormatter;
 import java.util.Arrays;
 import java.util.List;
 
-public class TransactionReportGenerator extends ReportGenerator {
+public class TransactionReportGenerator extends ReportGenerator<TransactionRow> {
 
     public TransactionReportGenerator(ReportFormatter formatter) {
         super(formatter);
@@ -17,17 +19,27 @@ public class TransactionReportGenerator extends ReportGenerator {
     }
 
     @Override
-    protected List<String> getRowData(Transaction t) {
+    protected List<String> getRowData(TransactionRow t) {
         return Arrays.asList(
                 String.valueOf(t.getId()),
                 t.getDate().toString(),
-                t.getClass().getSimpleName(),
-                t.getProduct().getName(),
+                t.getType(),
+                t.getProductName(),
                 String.valueOf(t.getQuantity()),
-                String.valueOf(t.getTotal())
+                Money.format(t.getTotalMinor())
         );
     }
 
+    @Override
+    protected void appendCells(CellReportFormatter cells, StringBuilder out, TransactionRow t) {
+        cells.cell(out, 0, t.getId());
+        cells.cell(out, 1, t.getDate());
+        cells.cell(out, 2, t.getType());
+        cells.cell(out, 3, t.getProductName());
+        cells.cell(out, 4, t.getQuantity());
+        cells.moneyCell(out, 5, t.getTotalMinor());
+    }
+
     @Override
     protected String getFooterText() {
         return "End of Transaction Report";
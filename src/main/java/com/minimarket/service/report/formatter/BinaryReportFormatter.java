@@ -0,0 +1,17 @@
+package com.minimarket.service.report.formatter;
+
+import com.minimarket.repository.TransactionRow;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.stream.Stream;
+
+// Implementor for machine-readable exports that need typed values rather than rendered text cells
+public interface BinaryReportFormatter {
+
+    void write(Stream<TransactionRow> rows, OutputStream out) throws IOException;
+
+    String getContentType();
+
+    String getFileExtension();
+}
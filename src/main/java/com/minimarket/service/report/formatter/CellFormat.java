@@ -0,0 +1,74 @@
+package com.minimarket.service.report.formatter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Allocation-free appenders shared by the cell formatters. Output is identical
+ * to the toString() of the same values, so reports look the same as before.
+ */
+public final class CellFormat {
+
+    private CellFormat() {
+    }
+
+    // Same text as LocalDate.toString(): yyyy-MM-dd
+    public static void appendDate(StringBuilder out, LocalDate date) {
+        if (date == null) {
+            out.append("null");
+            return;
+        }
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            // Signed and five-digit years are rare enough to take the slow path
+            out.append(date);
+            return;
+        }
+        appendPadded(out, year, 4);
+        out.append('-');
+        appendPadded(out, date.getMonthValue(), 2);
+        out.append('-');
+        appendPadded(out, date.getDayOfMonth(), 2);
+    }
+
+    // Same text as LocalDateTime.toString(): seconds and fractions only when non-zero
+    public static void appendDateTime(StringBuilder out, LocalDateTime dateTime) {
+        if (dateTime == null) {
+            out.append("null");
+            return;
+        }
+        appendDate(out, dateTime.toLocalDate());
+        out.append('T');
+        appendPadded(out, dateTime.getHour(), 2);
+        out.append(':');
+        appendPadded(out, dateTime.getMinute(), 2);
+
+        int second = dateTime.getSecond();
+        int nano = dateTime.getNano();
+        if (second == 0 && nano == 0) {
+            return;
+        }
+        out.append(':');
+        appendPadded(out, second, 2);
+        if (nano == 0) {
+            return;
+        }
+        out.append('.');
+        if (nano % 1_000_000 == 0) {
+            appendPadded(out, nano / 1_000_000, 3);
+        } else if (nano % 1_000 == 0) {
+            appendPadded(out, nano / 1_000, 6);
+        } else {
+            appendPadded(out, nano, 9);
+        }
+    }
+
+    static void appendPadded(StringBuilder out, int value, int width) {
+        for (int limit = 10, digits = 1; digits < width; limit *= 10, digits++) {
+            if (value < limit) {
+                out.append('0');
+            }
+        }
+        out.append(value);
+    }
+}
@@ -0,0 +1,82 @@
+package com.minimarket.service.report.formatter;
+
+import com.minimarket.model.Money;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Formatter SPI that appends cells straight into a caller-owned buffer instead
+ * of taking a List&lt;String&gt; per row and returning a new String.
+ *
+ * The buffer is a StringBuilder rather than an Appendable: its primitive
+ * append overloads write digits in place and never throw IOException. Callers
+ * reuse one buffer for many rows and drain it into their Writer.
+ *
+ * Implementations must be stateless; rows may be rendered on several threads
+ * at once, each into its own buffer.
+ */
+public interface CellReportFormatter {
+
+    void appendHeader(StringBuilder out, List<String> labels);
+
+    void startRow(StringBuilder out);
+
+    // column is zero-based so delimiter-separated formats know when to emit a separator
+    void startCell(StringBuilder out, int column);
+
+    void endCell(StringBuilder out);
+
+    void endRow(StringBuilder out);
+
+    void appendFooter(StringBuilder out, String footer);
+
+    // Text is escaped for the target format; null renders as "null" like String.valueOf
+    void appendEscaped(StringBuilder out, CharSequence value);
+
+    default void cell(StringBuilder out, int column, CharSequence value) {
+        startCell(out, column);
+        appendEscaped(out, value == null ? "null" : value);
+        endCell(out);
+    }
+
+    // Numbers and dates never contain characters that need escaping in any of our formats
+
+    default void cell(StringBuilder out, int column, long value) {
+        startCell(out, column);
+        out.append(value);
+        endCell(out);
+    }
+
+    default void cell(StringBuilder out, int column, int value) {
+        startCell(out, column);
+        out.append(value);
+        endCell(out);
+    }
+
+    default void cell(StringBuilder out, int column, double value) {
+        startCell(out, column);
+        out.append(value);
+        endCell(out);
+    }
+
+    // An amount of cents, printed like Money.toString()
+    default void moneyCell(StringBuilder out, int column, long minorUnits) {
+        startCell(out, column);
+        Money.appendTo(out, minorUnits);
+        endCell(out);
+    }
+
+    default void cell(StringBuilder out, int column, LocalDate value) {
+        startCell(out, column);
+        CellFormat.appendDate(out, value);
+        endCell(out);
+    }
+
+    default void cell(StringBuilder out, int column, LocalDateTime value) {
+        startCell(out, column);
+        CellFormat.appendDateTime(out, value);
+        endCell(out);
+    }
+}
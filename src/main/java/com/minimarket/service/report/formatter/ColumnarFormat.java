@@ -0,0 +1,50 @@
+package com.minimarket.service.report.formatter;
+
+/**
+ * Layout of the columnar transaction export. All numbers are big-endian.
+ *
+ * <pre>
+ * File    := MAGIC(int32) VERSION(int16) Block* 0(int32)
+ * Block   := rowCount(int32 &gt; 0)
+ *            newNames(int32) name(modified UTF-8)*   -- appended to the product name dictionary
+ *            id          IntColumn
+ *            date        IntColumn                   -- epoch millis of the local date-time read as UTC
+ *            productId   IntColumn
+ *            productName IntColumn                   -- index into the dictionary
+ *            type[rowCount](int8)                    -- TYPE_PURCHASE / TYPE_SALE
+ *            quantity    IntColumn
+ *            total       IntColumn                   -- cents (see Money)
+ * IntColumn := base(int64) width(int8) (value - base)[rowCount]
+ * </pre>
+ * Integer columns use frame-of-reference encoding: every value in a block is stored as an
+ * unsigned offset from the block minimum, at a fixed width of 1, 2, 4 or 8 bytes chosen
+ * per block. Ids and dates within a block are close together, so they shrink to 2-4 bytes.
+ */
+public final class ColumnarFormat {
+
+    public static final int MAGIC = 0x4D4D4352; // "MMCR"
+    // 2: totals are cents in an IntColumn instead of float64
+    public static final short VERSION = 2;
+    public static final int BLOCK_ROWS = 16_384;
+    public static final String FILE_EXTENSION = "mmcr";
+
+    public static final byte TYPE_PURCHASE = 0;
+    public static final byte TYPE_SALE = 1;
+
+    private ColumnarFormat() {
+    }
+
+    // Bytes needed to store an unsigned offset (a negative range means max - min overflowed)
+    static int widthFor(long range) {
+        if (range < 0) {
+            return 8;
+        } else if (range < 1L << 8) {
+            return 1;
+        } else if (range < 1L << 16) {
+            return 2;
+        } else if (range < 1L << 32) {
+            return 4;
+        }
+        return 8;
+    }
+}
@@ -0,0 +1,132 @@
+package com.minimarket.service.report.formatter;
+
+import com.minimarket.repository.TransactionRow;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Writes transactions as a compact column-oriented binary file (see {@link ColumnarFormat}).
+ * Rows are buffered one block at a time into primitive arrays, so memory stays bounded
+ * by {@link ColumnarFormat#BLOCK_ROWS} regardless of the report size.
+ */
+@Component("columnarFormatter")
+public class ColumnarFormatter implements BinaryReportFormatter {
+
+    @Override
+    public void write(Stream<TransactionRow> rows, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        data.writeInt(ColumnarFormat.MAGIC);
+        data.writeShort(ColumnarFormat.VERSION);
+
+        Block block = new Block();
+        Map<String, Integer> dictionary = new HashMap<>();
+        Iterator<TransactionRow> it = rows.iterator();
+        while (it.hasNext()) {
+            block.add(it.next(), dictionary);
+            if (block.size == ColumnarFormat.BLOCK_ROWS) {
+                block.writeTo(data);
+                block.clear();
+            }
+        }
+        if (block.size > 0) {
+            block.writeTo(data);
+        }
+
+        data.writeInt(0);
+        data.flush();
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/octet-stream";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return ColumnarFormat.FILE_EXTENSION;
+    }
+
+    private static final class Block {
+        private final long[] ids = new long[ColumnarFormat.BLOCK_ROWS];
+        private final long[] dates = new long[ColumnarFormat.BLOCK_ROWS];
+        private final long[] productIds = new long[ColumnarFormat.BLOCK_ROWS];
+        private final long[] productNames = new long[ColumnarFormat.BLOCK_ROWS];
+        private final byte[] types = new byte[ColumnarFormat.BLOCK_ROWS];
+        private final long[] quantities = new long[ColumnarFormat.BLOCK_ROWS];
+        private final long[] totals = new long[ColumnarFormat.BLOCK_ROWS];
+        // Dictionary entries first seen in this block, in index order
+        private final String[] newNames = new String[ColumnarFormat.BLOCK_ROWS];
+        private int newNameCount;
+        private int size;
+
+        void add(TransactionRow row, Map<String, Integer> dictionary) {
+            Integer nameIndex = dictionary.get(row.getProductName());
+            if (nameIndex == null) {
+                nameIndex = dictionary.size();
+                dictionary.put(row.getProductName(), nameIndex);
+                newNames[newNameCount++] = row.getProductName();
+            }
+
+            ids[size] = row.getId();
+            dates[size] = row.getDate().toInstant(ZoneOffset.UTC).toEpochMilli();
+            productIds[size] = row.getProductId();
+            productNames[size] = nameIndex;
+            types[size] = row.isSale() ? ColumnarFormat.TYPE_SALE : ColumnarFormat.TYPE_PURCHASE;
+            quantities[size] = row.getQuantity();
+            totals[size] = row.getTotalMinor();
+            size++;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(size);
+            out.writeInt(newNameCount);
+            for (int i = 0; i < newNameCount; i++) {
+                out.writeUTF(newNames[i]);
+            }
+            writeIntColumn(out, ids, size);
+            writeIntColumn(out, dates, size);
+            writeIntColumn(out, productIds, size);
+            writeIntColumn(out, productNames, size);
+            out.write(types, 0, size);
+            writeIntColumn(out, quantities, size);
+            writeIntColumn(out, totals, size);
+        }
+
+        // Frame-of-reference: offsets from the block minimum at the narrowest width that fits them all
+        private static void writeIntColumn(DataOutputStream out, long[] values, int size) throws IOException {
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < size; i++) {
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+            }
+            int width = ColumnarFormat.widthFor(max - min);
+
+            out.writeLong(min);
+            out.writeByte(width);
+            for (int i = 0; i < size; i++) {
+                long offset = values[i] - min;
+                switch (width) {
+                    case 1 -> out.writeByte((int) offset);
+                    case 2 -> out.writeShort((int) offset);
+                    case 4 -> out.writeInt((int) offset);
+                    default -> out.writeLong(offset);
+                }
+            }
+        }
+
+        void clear() {
+            size = 0;
+            newNameCount = 0;
+        }
+    }
+}
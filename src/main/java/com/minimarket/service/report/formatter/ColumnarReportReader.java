@@ -0,0 +1,143 @@
+package com.minimarket.service.report.formatter;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads files written by {@link ColumnarFormatter} one block at a time.
+ * <p>
+ * Only depends on the JDK, so it can be copied into downstream jobs. From the command line it
+ * prints the rows as CSV:
+ * {@code java -cp target/classes com.minimarket.service.report.formatter.ColumnarReportReader transactions.mmcr}
+ */
+public class ColumnarReportReader implements Closeable {
+
+    private final DataInputStream in;
+    private final List<String> dictionary = new ArrayList<>();
+    private boolean finished;
+
+    public ColumnarReportReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in, 64 * 1024));
+        if (this.in.readInt() != ColumnarFormat.MAGIC) {
+            throw new IOException("Not a columnar transaction export");
+        }
+        short version = this.in.readShort();
+        if (version != ColumnarFormat.VERSION) {
+            throw new IOException("Unsupported columnar export version: " + version);
+        }
+    }
+
+    // Returns the next block, or null after the last one
+    public Block readBlock() throws IOException {
+        if (finished) {
+            return null;
+        }
+        int rows = in.readInt();
+        if (rows == 0) {
+            finished = true;
+            return null;
+        }
+
+        int newNames = in.readInt();
+        for (int i = 0; i < newNames; i++) {
+            dictionary.add(in.readUTF());
+        }
+
+        Block block = new Block(rows, dictionary);
+        readIntColumn(block.ids);
+        readIntColumn(block.dates);
+        readIntColumn(block.productIds);
+        readIntColumn(block.productNames);
+        in.readFully(block.types);
+        readIntColumn(block.quantities);
+        readIntColumn(block.totals);
+        return block;
+    }
+
+    private void readIntColumn(long[] values) throws IOException {
+        long base = in.readLong();
+        int width = in.readByte();
+        for (int i = 0; i < values.length; i++) {
+            long offset = switch (width) {
+                case 1 -> in.readUnsignedByte();
+                case 2 -> in.readUnsignedShort();
+                case 4 -> in.readInt() & 0xFFFFFFFFL;
+                case 8 -> in.readLong();
+                default -> throw new IOException("Invalid column width: " + width);
+            };
+            values[i] = base + offset;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    public static final class Block {
+        private final int size;
+        private final List<String> dictionary;
+        final long[] ids;
+        final long[] dates;
+        final long[] productIds;
+        final long[] productNames;
+        final byte[] types;
+        final long[] quantities;
+        final long[] totals;
+
+        private Block(int size, List<String> dictionary) {
+            this.size = size;
+            this.dictionary = dictionary;
+            this.ids = new long[size];
+            this.dates = new long[size];
+            this.productIds = new long[size];
+            this.productNames = new long[size];
+            this.types = new byte[size];
+            this.quantities = new long[size];
+            this.totals = new long[size];
+        }
+
+        public int size() { return size; }
+        public long getId(int row) { return ids[row]; }
+        public long getEpochMillis(int row) { return dates[row]; }
+        public long getProductId(int row) { return productIds[row]; }
+        public String getProductName(int row) { return dictionary.get((int) productNames[row]); }
+        public boolean isSale(int row) { return types[row] == ColumnarFormat.TYPE_SALE; }
+        public int getQuantity(int row) { return (int) quantities[row]; }
+        // Cents
+        public long getTotalMinor(int row) { return totals[row]; }
+
+        public LocalDateTime getDate(int row) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(dates[row]), ZoneOffset.UTC);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: ColumnarReportReader <file." + ColumnarFormat.FILE_EXTENSION + ">");
+            System.exit(2);
+        }
+        PrintStream out = System.out;
+        out.println("ID,Date,Type,ProductId,Product,Quantity,Total");
+        try (ColumnarReportReader reader = new ColumnarReportReader(new FileInputStream(args[0]))) {
+            for (Block block = reader.readBlock(); block != null; block = reader.readBlock()) {
+                for (int i = 0; i < block.size(); i++) {
+                    out.println(block.getId(i) + "," + block.getDate(i) + "," + (block.isSale(i) ? "Sale" : "Purchase")
+                            + "," + block.getProductId(i) + "," + block.getProductName(i)
+                            + "," + block.getQuantity(i) + "," + BigDecimal.valueOf(block.getTotalMinor(i), 2).toPlainString());
+                }
+            }
+        }
+    }
+}
@@ -4,20 +4,101 @@ import org.springframework.stereotype.Component;
 import java.util.List;
 
 @Component("csvFormatter")
-public class CsvFormatter implements ReportFormatter {
+public class CsvFormatter implements ReportFormatter, CellReportFormatter {
 
     @Override
     public String formatHeader(List<String> headers) {
-        return String.join(",", headers) + "\n";
+        StringBuilder sb = new StringBuilder();
+        appendHeader(sb, headers);
+        return sb.toString();
     }
 
     @Override
     public String formatRow(List<String> values) {
-        return String.join(",", values) + "\n";
+        StringBuilder sb = new StringBuilder();
+        startRow(sb);
+        for (int i = 0; i < values.size(); i++) {
+            cell(sb, i, values.get(i));
+        }
+        endRow(sb);
+        return sb.toString();
     }
 
     @Override
     public String formatFooter(String footer) {
-        return "-- " + footer + " --";
+        StringBuilder sb = new StringBuilder();
+        appendFooter(sb, footer);
+        return sb.toString();
+    }
+
+    @Override
+    public void appendHeader(StringBuilder out, List<String> labels) {
+        startRow(out);
+        for (int i = 0; i < labels.size(); i++) {
+            cell(out, i, labels.get(i));
+        }
+        endRow(out);
+    }
+
+    @Override
+    public void startRow(StringBuilder out) {
+    }
+
+    @Override
+    public void startCell(StringBuilder out, int column) {
+        if (column > 0) {
+            out.append(',');
+        }
+    }
+
+    @Override
+    public void endCell(StringBuilder out) {
+    }
+
+    @Override
+    public void endRow(StringBuilder out) {
+        out.append('\n');
+    }
+
+    @Override
+    public void appendFooter(StringBuilder out, String footer) {
+        out.append("-- ").append(footer).append(" --");
+    }
+
+    // RFC 4180: fields containing a comma, quote or line break are quoted and quotes are doubled
+    @Override
+    public void appendEscaped(StringBuilder out, CharSequence value) {
+        int length = value.length();
+        int i = 0;
+        while (i < length && !needsQuoting(value.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    private static boolean needsQuoting(char c) {
+        return c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+
+    @Override
+    public String getContentType() {
+        return "text/csv";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "csv";
     }
 }
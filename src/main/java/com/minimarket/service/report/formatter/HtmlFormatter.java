@@ -4,32 +4,105 @@ import org.springframework.stereotype.Component;
 import java.util.List;
 
 @Component("htmlFormatter")
-public class HtmlFormatter implements ReportFormatter {
+public class HtmlFormatter implements ReportFormatter, CellReportFormatter {
 
     @Override
     public String formatHeader(List<String> headers) {
         StringBuilder sb = new StringBuilder();
-        sb.append("<html><body><table border='1'><tr>");
-        for (String h : headers) {
-            sb.append("<th>").append(h).append("</th>");
-        }
-        sb.append("</tr>");
+        appendHeader(sb, headers);
         return sb.toString();
     }
 
     @Override
     public String formatRow(List<String> values) {
         StringBuilder sb = new StringBuilder();
-        sb.append("<tr>");
-        for (String v : values) {
-            sb.append("<td>").append(v).append("</td>");
+        startRow(sb);
+        for (int i = 0; i < values.size(); i++) {
+            cell(sb, i, values.get(i));
         }
-        sb.append("</tr>");
+        endRow(sb);
         return sb.toString();
     }
 
     @Override
     public String formatFooter(String footer) {
-        return "</table><p>" + footer + "</p></body></html>";
+        StringBuilder sb = new StringBuilder();
+        appendFooter(sb, footer);
+        return sb.toString();
+    }
+
+    @Override
+    public void appendHeader(StringBuilder out, List<String> labels) {
+        out.append("<html><body><table border='1'><tr>");
+        for (String label : labels) {
+            out.append("<th>");
+            appendEscaped(out, label);
+            out.append("</th>");
+        }
+        out.append("</tr>");
+    }
+
+    @Override
+    public void startRow(StringBuilder out) {
+        out.append("<tr>");
+    }
+
+    @Override
+    public void startCell(StringBuilder out, int column) {
+        out.append("<td>");
+    }
+
+    @Override
+    public void endCell(StringBuilder out) {
+        out.append("</td>");
+    }
+
+    @Override
+    public void endRow(StringBuilder out) {
+        out.append("</tr>");
+    }
+
+    @Override
+    public void appendFooter(StringBuilder out, String footer) {
+        out.append("</table><p>");
+        appendEscaped(out, footer);
+        out.append("</p></body></html>");
+    }
+
+    // Escapes the five characters that can break out of text or attribute content;
+    // runs without any of them are appended in one call
+    @Override
+    public void appendEscaped(StringBuilder out, CharSequence value) {
+        int length = value.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            String entity = entityFor(value.charAt(i));
+            if (entity != null) {
+                out.append(value, start, i).append(entity);
+                start = i + 1;
+            }
+        }
+        out.append(value, start, length);
+    }
+
+    private static String entityFor(char c) {
+        switch (c) {
+            case '&': return "&amp;";
+            case '<': return "&lt;";
+            case '>': return "&gt;";
+            case '"': return "&quot;";
+            case '\'': return "&#39;";
+            default: return null;
+        }
+    }
+
+    @Override
+    public String getContentType() {
+        return "text/html";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "html";
     }
 }
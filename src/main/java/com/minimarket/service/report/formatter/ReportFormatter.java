@@ -6,4 +6,12 @@ public interface ReportFormatter {
     String formatHeader(List<String> headers);
     String formatRow(List<String> values);
     String formatFooter(String footer);
+
+    default String getContentType() {
+        return "text/plain";
+    }
+
+    default String getFileExtension() {
+        return "txt";
+    }
 }
@@ -1,15 +1,16 @@
 package com.minimarket.service.strategy;
 
+import com.minimarket.model.Money;
 import org.springframework.stereotype.Component;
 
 @Component("discountPricing")
 public class DiscountPricingStrategy implements PricingStrategy {
     @Override
-    public double calculateTotal(double price, int quantity) {
+    public long calculateTotal(long unitPriceMinor, int quantity) {
         // 10% discount for bulk orders (e.g., > 10 items)
         if (quantity > 10) {
-            return (price * quantity) * 0.90;
+            return Money.discounted(Money.times(unitPriceMinor, quantity), 1_000);
         }
-        return price * quantity;
+        return Money.times(unitPriceMinor, quantity);
     }
 }
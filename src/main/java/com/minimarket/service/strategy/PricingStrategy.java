@@ -1,5 +1,6 @@
 package com.minimarket.service.strategy;
 
+// Amounts are cents (see Money); the total is rounded to the cent by the strategy
 public interface PricingStrategy {
-    double calculateTotal(double price, int quantity);
+    long calculateTotal(long unitPriceMinor, int quantity);
 }
@@ -0,0 +1,8 @@
+package com.minimarket.service.strategy;
+
+import com.minimarket.model.Product;
+
+// A strategy whose total depends on which product is sold, not only on its price
+public interface ProductPricingStrategy extends PricingStrategy {
+    long calculateTotal(Product product, int quantity);
+}
@@ -0,0 +1,106 @@
+package com.minimarket.service.strategy;
+
+import com.minimarket.model.Money;
+import com.minimarket.model.Product;
+import com.minimarket.model.PromotionRule;
+import com.minimarket.repository.PromotionRuleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Prices lines with the promotions in the promotion_rules table. Rules are read
+ * in the background and compiled into a PromotionTable that checkouts only ever
+ * read, so a reload swaps the table without blocking anyone. When a promotion
+ * starts or ends between reloads, the first checkout to notice recompiles the
+ * rules it already has (no query) and publishes the new table.
+ */
+@Component("promotionPricing")
+public class PromotionPricingEngine implements ProductPricingStrategy {
+
+    private static final Logger log = LoggerFactory.getLogger(PromotionPricingEngine.class);
+
+    private final PromotionRuleRepository promotionRuleRepository;
+    private final Clock clock;
+    private final AtomicReference<PromotionTable> table = new AtomicReference<>(PromotionTable.empty());
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong recompiles = new AtomicLong();
+
+    @Autowired
+    public PromotionPricingEngine(PromotionRuleRepository promotionRuleRepository) {
+        this(promotionRuleRepository, Clock.systemDefaultZone());
+    }
+
+    public PromotionPricingEngine(PromotionRuleRepository promotionRuleRepository, Clock clock) {
+        this.promotionRuleRepository = promotionRuleRepository;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${minimarket.pricing.reload-interval-ms:30000}",
+            initialDelayString = "${minimarket.pricing.reload-interval-ms:30000}")
+    public void reload() {
+        long now = clock.millis();
+        try {
+            List<PromotionRule> rules = promotionRuleRepository.findCurrentAndUpcoming(
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(now), clock.getZone()));
+            table.set(PromotionTable.compile(rules, now, clock.getZone()));
+            reloads.incrementAndGet();
+        } catch (RuntimeException e) {
+            // Keep pricing with the rules we have rather than failing checkouts
+            log.error("Reloading promotion rules failed, keeping the current ones", e);
+        }
+    }
+
+    // Without a product only store-wide promotions can apply
+    @Override
+    public long calculateTotal(long unitPriceMinor, int quantity) {
+        int basisPoints = currentTable().basisPointsOff(null, null, quantity);
+        return Money.discounted(Money.times(unitPriceMinor, quantity), basisPoints);
+    }
+
+    @Override
+    public long calculateTotal(Product product, int quantity) {
+        int basisPoints = currentTable().basisPointsOff(product.getId(), product.getCategory(), quantity);
+        return Money.discounted(Money.times(product.getPrice().getMinorUnits(), quantity), basisPoints);
+    }
+
+    public Map<String, Object> getStats() {
+        PromotionTable current = table.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loadedRules", current.getLoadedRules());
+        stats.put("liveRules", current.getLiveRules());
+        stats.put("compiledAt", current.getCompiledAt() == 0 ? null : Instant.ofEpochMilli(current.getCompiledAt()).toString());
+        stats.put("validUntil", current.getValidUntil() == Long.MAX_VALUE ? null : Instant.ofEpochMilli(current.getValidUntil()).toString());
+        stats.put("reloads", reloads.get());
+        stats.put("recompiles", recompiles.get());
+        return stats;
+    }
+
+    private PromotionTable currentTable() {
+        PromotionTable current = table.get();
+        long now = clock.millis();
+        if (current.isValidAt(now)) {
+            return current;
+        }
+        // Losing the race just means another thread already published an equivalent table
+        PromotionTable next = current.recompile(now, clock.getZone());
+        if (table.compareAndSet(current, next)) {
+            recompiles.incrementAndGet();
+        }
+        return next;
+    }
+}
@@ -0,0 +1,156 @@
+package com.minimarket.service.strategy;
+
+import com.minimarket.model.Money;
+import com.minimarket.model.PromotionRule;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Promotion rules compiled for one point in time. Rules outside their window are
+ * dropped, and the rest are grouped by product, by category and store-wide. Each
+ * group becomes a tier table: ascending quantity thresholds with the best
+ * discount (in basis points) available at or above each one. A lookup is then two hash lookups
+ * plus a binary search over a handful of tiers, however many rules exist.
+ *
+ * Promotions don't stack: a line gets the single best discount it qualifies for.
+ * The table is immutable and valid until the next rule starts or ends.
+ */
+public final class PromotionTable {
+
+    private static final Tiers NONE = new Tiers(new int[0], new int[0]);
+
+    private final List<PromotionRule> rules;
+    private final Map<Long, Tiers> byProduct;
+    private final Map<String, Tiers> byCategory;
+    private final Tiers storeWide;
+    private final int liveRules;
+    private final long compiledAt;
+    private final long validUntil;
+
+    private PromotionTable(List<PromotionRule> rules, Map<Long, Tiers> byProduct, Map<String, Tiers> byCategory,
+                           Tiers storeWide, int liveRules, long compiledAt, long validUntil) {
+        this.rules = rules;
+        this.byProduct = byProduct;
+        this.byCategory = byCategory;
+        this.storeWide = storeWide;
+        this.liveRules = liveRules;
+        this.compiledAt = compiledAt;
+        this.validUntil = validUntil;
+    }
+
+    public static PromotionTable empty() {
+        return new PromotionTable(List.of(), Map.of(), Map.of(), NONE, 0, 0, Long.MAX_VALUE);
+    }
+
+    // rules may include ones that start later; they are kept so the table can be recompiled when they do
+    public static PromotionTable compile(List<PromotionRule> rules, long nowMillis, ZoneId zone) {
+        Map<Long, TreeMap<Integer, Integer>> products = new HashMap<>();
+        Map<String, TreeMap<Integer, Integer>> categories = new HashMap<>();
+        TreeMap<Integer, Integer> store = new TreeMap<>();
+        long validUntil = Long.MAX_VALUE;
+        int live = 0;
+
+        for (PromotionRule rule : rules) {
+            if (!Boolean.TRUE.equals(rule.getActive()) || rule.getPercentOff() == null
+                    || rule.getPercentOff() <= 0 || rule.getPercentOff() > 100) {
+                continue;
+            }
+            long startsAt = toMillis(rule.getStartsAt(), zone, Long.MIN_VALUE);
+            long endsAt = toMillis(rule.getEndsAt(), zone, Long.MAX_VALUE);
+            if (startsAt > nowMillis) {
+                validUntil = Math.min(validUntil, startsAt);
+                continue;
+            }
+            if (endsAt <= nowMillis) {
+                continue;
+            }
+            validUntil = Math.min(validUntil, endsAt);
+            live++;
+
+            TreeMap<Integer, Integer> tiers;
+            if (rule.getProductId() != null) {
+                tiers = products.computeIfAbsent(rule.getProductId(), k -> new TreeMap<>());
+            } else if (rule.getCategory() != null) {
+                tiers = categories.computeIfAbsent(rule.getCategory(), k -> new TreeMap<>());
+            } else {
+                tiers = store;
+            }
+            int minQuantity = rule.getMinQuantity() == null ? 1 : Math.max(1, rule.getMinQuantity());
+            tiers.merge(minQuantity, Money.toBasisPoints(rule.getPercentOff()), Math::max);
+        }
+
+        Map<Long, Tiers> byProduct = new HashMap<>(products.size() * 2);
+        products.forEach((id, tiers) -> byProduct.put(id, Tiers.of(tiers)));
+        Map<String, Tiers> byCategory = new HashMap<>(categories.size() * 2);
+        categories.forEach((category, tiers) -> byCategory.put(category, Tiers.of(tiers)));
+        return new PromotionTable(List.copyOf(rules), byProduct, byCategory, Tiers.of(store),
+                live, nowMillis, validUntil);
+    }
+
+    // Best discount for this line in basis points (1000 = 10%), 0 when no promotion applies
+    public int basisPointsOff(Long productId, String category, int quantity) {
+        int best = storeWide.basisPointsOff(quantity);
+        if (category != null) {
+            best = Math.max(best, byCategory.getOrDefault(category, NONE).basisPointsOff(quantity));
+        }
+        if (productId != null) {
+            best = Math.max(best, byProduct.getOrDefault(productId, NONE).basisPointsOff(quantity));
+        }
+        return best;
+    }
+
+    public boolean isValidAt(long nowMillis) {
+        return nowMillis < validUntil;
+    }
+
+    public PromotionTable recompile(long nowMillis, ZoneId zone) {
+        return compile(rules, nowMillis, zone);
+    }
+
+    public int getLoadedRules() { return rules.size(); }
+    public int getLiveRules() { return liveRules; }
+    public long getCompiledAt() { return compiledAt; }
+    public long getValidUntil() { return validUntil; }
+
+    private static long toMillis(LocalDateTime time, ZoneId zone, long ifMissing) {
+        return time == null ? ifMissing : time.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    // Ascending thresholds; basisPoints[i] is the best discount for any quantity >= thresholds[i]
+    private record Tiers(int[] thresholds, int[] basisPoints) {
+
+        static Tiers of(TreeMap<Integer, Integer> tiers) {
+            if (tiers.isEmpty()) {
+                return NONE;
+            }
+            List<Integer> thresholds = new ArrayList<>(tiers.size());
+            List<Integer> basisPoints = new ArrayList<>(tiers.size());
+            int best = 0;
+            for (Map.Entry<Integer, Integer> tier : tiers.entrySet()) {
+                // A higher threshold with a smaller discount would never be chosen
+                if (tier.getValue() > best) {
+                    best = tier.getValue();
+                    thresholds.add(tier.getKey());
+                    basisPoints.add(best);
+                }
+            }
+            return new Tiers(thresholds.stream().mapToInt(Integer::intValue).toArray(),
+                    basisPoints.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        int basisPointsOff(int quantity) {
+            int i = Arrays.binarySearch(thresholds, quantity);
+            if (i < 0) {
+                i = -i - 2;
+            }
+            return i < 0 ? 0 : basisPoints[i];
+        }
+    }
+}
@@ -1,11 +1,12 @@
 package com.minimarket.service.strategy;
 
+import com.minimarket.model.Money;
 import org.springframework.stereotype.Component;
 
 @Component("regularPricing")
 public class RegularPricingStrategy implements PricingStrategy {
     @Override
-    public double calculateTotal(double price, int quantity) {
-        return price * quantity;
+    public long calculateTotal(long unitPriceMinor, int quantity) {
+        return Money.times(unitPriceMinor, quantity);
     }
 }
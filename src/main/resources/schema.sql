@@ -0,0 +1,9 @@
+-- Runs after Hibernate's ddl-auto (spring.jpa.defer-datasource-initialization=true).
+-- SQLite cannot ALTER TABLE ... ADD CONSTRAINT, so constraints Hibernate would add that way are created here.
+
+-- Required by the ON CONFLICT upsert in DailySalesSummaryRepository.addToBucket
+CREATE UNIQUE INDEX IF NOT EXISTS uk_daily_sales_summary_bucket
+    ON daily_sales_summary (product_id, day, transaction_type);
+
+-- Rows created before Product.version existed: a null version would make Hibernate treat them as new
+UPDATE products SET version = 0 WHERE version IS NULL;
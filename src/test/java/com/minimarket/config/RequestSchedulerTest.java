@@ -0,0 +1,115 @@
+package com.minimarket.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestSchedulerTest {
+
+    @Test
+    void classify_ByMethodAndPath() {
+        assertEquals(RequestClass.CHECKOUT, RequestClass.of(new MockHttpServletRequest("POST", "/transactions/save")));
+        assertEquals(RequestClass.CHECKOUT, RequestClass.of(new MockHttpServletRequest("POST", "/api/transactions")));
+        assertEquals(RequestClass.INTERACTIVE, RequestClass.of(new MockHttpServletRequest("GET", "/api/transactions")));
+        assertEquals(RequestClass.INTERACTIVE, RequestClass.of(new MockHttpServletRequest("GET", "/transactions")));
+        assertEquals(RequestClass.REPORT, RequestClass.of(new MockHttpServletRequest("GET", "/reports/stream")));
+        assertEquals(RequestClass.INTERACTIVE, RequestClass.of(new MockHttpServletRequest("GET", "/reports")));
+        assertNull(RequestClass.of(new MockHttpServletRequest("GET", "/css/style.css")));
+        assertNull(RequestClass.of(new MockHttpServletRequest("GET", "/scheduling")));
+    }
+
+    @Test
+    void acquire_FullQueue_RejectsWithoutWaiting() throws Exception {
+        RequestScheduler scheduler = scheduler(1, 1, Duration.ofSeconds(10));
+        assertTrue(scheduler.acquire(RequestClass.REPORT));
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            // Takes the only queue slot
+            Future<Boolean> waiter = pool.submit(() -> scheduler.acquire(RequestClass.REPORT));
+            awaitQueueDepth(scheduler, 1);
+
+            long start = System.nanoTime();
+            assertFalse(scheduler.acquire(RequestClass.REPORT));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+            // Checkouts have their own limit and are not affected
+            assertTrue(scheduler.acquire(RequestClass.CHECKOUT));
+            scheduler.release(RequestClass.CHECKOUT);
+
+            scheduler.release(RequestClass.REPORT);
+            assertTrue(waiter.get(5, TimeUnit.SECONDS));
+            scheduler.release(RequestClass.REPORT);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Map<String, Object> report = stats(scheduler, "report");
+        assertEquals(2L, report.get("admitted"));
+        assertEquals(1L, report.get("queued"));
+        assertEquals(1L, report.get("rejected"));
+        assertEquals(0, report.get("active"));
+        assertEquals(0, report.get("queueDepth"));
+    }
+
+    @Test
+    void acquire_WaitsAtMostMaxWait() {
+        RequestScheduler scheduler = scheduler(1, 4, Duration.ofMillis(50));
+        assertTrue(scheduler.acquire(RequestClass.REPORT));
+
+        assertFalse(scheduler.acquire(RequestClass.REPORT));
+
+        assertEquals(1L, stats(scheduler, "report").get("timedOut"));
+        assertEquals(1L, scheduler.getRetryAfterSeconds(RequestClass.REPORT));
+    }
+
+    @Test
+    void filter_OverTheLimit_Answers503WithRetryAfter() throws Exception {
+        RequestScheduler scheduler = scheduler(1, 0, Duration.ZERO);
+        RequestSchedulingFilter filter = new RequestSchedulingFilter(scheduler);
+        assertTrue(scheduler.acquire(RequestClass.REPORT));
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/reports/generate"), rejected, chain);
+
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertNull(chain.getRequest());
+
+        // Released after the chain returns
+        scheduler.release(RequestClass.REPORT);
+        MockHttpServletResponse ok = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/reports/generate"), ok, new MockFilterChain());
+        assertEquals(200, ok.getStatus());
+        assertEquals(0, stats(scheduler, "report").get("active"));
+    }
+
+    private static RequestScheduler scheduler(int reportConcurrent, int reportQueue, Duration reportWait) {
+        return new RequestScheduler(4, 4, Duration.ofSeconds(1), 4, 4, Duration.ofSeconds(1),
+                reportConcurrent, reportQueue, reportWait, 200);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> stats(RequestScheduler scheduler, String requestClass) {
+        return (Map<String, Object>) scheduler.getStats().get(requestClass);
+    }
+
+    private static void awaitQueueDepth(RequestScheduler scheduler, int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!Integer.valueOf(depth).equals(stats(scheduler, "report").get("queueDepth"))) {
+            assertTrue(System.nanoTime() < deadline, "request never queued");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.minimarket.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/security-config-test.db",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+class SecurityConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void api_BasicCredentials_AuthenticateWithoutASession() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/products").with(httpBasic("admin", "admin123")))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertNull(result.getRequest().getSession(false));
+    }
+
+    @Test
+    void api_FormLoginSession_IsNotTrusted() throws Exception {
+        MockHttpSession session = (MockHttpSession) mockMvc.perform(post("/login")
+                        .param("username", "admin")
+                        .param("password", "admin123")
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andReturn().getRequest().getSession(false);
+        assertNotNull(session);
+
+        mockMvc.perform(post("/api/transactions").session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"SALE\",\"productId\":1,\"quantity\":1}"))
+                .andExpect(status().isUnauthorized());
+    }
+}
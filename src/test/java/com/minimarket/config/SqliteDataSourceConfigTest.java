@@ -0,0 +1,51 @@
+package com.minimarket.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/split-datasource-test.db",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "minimarket.datasource.split=true"
+})
+class SqliteDataSourceConfigTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void readOnlyTransactions_UseTheQueryOnlyReadPool() {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Integer queryOnly = readOnly.execute(status -> jdbc.queryForObject("PRAGMA query_only", Integer.class));
+        assertEquals(1, queryOnly);
+    }
+
+    @Test
+    void writeTransactions_UseTheWritePoolInWalMode() {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        TransactionTemplate write = new TransactionTemplate(transactionManager);
+
+        Integer queryOnly = write.execute(status -> jdbc.queryForObject("PRAGMA query_only", Integer.class));
+        Integer synchronous = write.execute(status -> jdbc.queryForObject("PRAGMA synchronous", Integer.class));
+
+        assertEquals(0, queryOnly);
+        assertEquals("wal", write.execute(status -> jdbc.queryForObject("PRAGMA journal_mode", String.class)));
+        // NORMAL
+        assertEquals(1, synchronous);
+    }
+}
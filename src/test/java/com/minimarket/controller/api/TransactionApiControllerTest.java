@@ -0,0 +1,161 @@
+package com.minimarket.controller.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.minimarket.config.MoneyJsonComponent;
+import com.minimarket.model.Money;
+import com.minimarket.model.Product;
+import com.minimarket.model.Sale;
+import com.minimarket.model.Transaction;
+import com.minimarket.repository.Keyset;
+import com.minimarket.repository.KeysetPage;
+import com.minimarket.repository.TransactionFilter;
+import com.minimarket.repository.TransactionRow;
+import com.minimarket.repository.TransactionSort;
+import com.minimarket.service.InsufficientStockException;
+import com.minimarket.service.QueueFullException;
+import com.minimarket.service.facade.MinimarketFacade;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class TransactionApiControllerTest {
+
+    private final Product apple = new Product.Builder("P001", "Apple").id(1L).price(Money.parse("1.25")).stock(100).build();
+
+    private MinimarketFacade facade;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        facade = mock(MinimarketFacade.class);
+        // The same Money handling Spring Boot picks up from the @JsonComponent
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .registerModule(new SimpleModule()
+                        .addSerializer(Money.class, new MoneyJsonComponent.Serializer())
+                        .addDeserializer(Money.class, new MoneyJsonComponent.Deserializer()));
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new TransactionApiController(facade), new ProductApiController(facade))
+                .setControllerAdvice(new ApiExceptionHandler())
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper))
+                .build();
+    }
+
+    @Test
+    void createTransaction_ReturnsCreatedWithCompactBody() throws Exception {
+        Sale sale = new Sale(apple, 4, Money.parse("5.00"), null);
+        sale.setId(7L);
+        when(facade.createTransaction("SALE", 1L, 4, "regularPricing", null)).thenReturn(sale);
+
+        mockMvc.perform(post("/api/transactions").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"SALE\",\"productId\":1,\"quantity\":4}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.productId").value(1))
+                .andExpect(jsonPath("$.total").value(5.0))
+                .andExpect(content().string(containsString("\"total\":5.00")))
+                // Null extraInfo is left out, and the product is only referenced by id
+                .andExpect(jsonPath("$.extraInfo").doesNotExist())
+                .andExpect(jsonPath("$.product").doesNotExist());
+    }
+
+    @Test
+    void createTransaction_MapsServiceErrorsToStatusCodes() throws Exception {
+        when(facade.createTransaction(anyString(), eq(1L), anyInt(), anyString(), isNull()))
+                .thenThrow(new InsufficientStockException(1L));
+        when(facade.createTransaction(anyString(), eq(2L), anyInt(), anyString(), isNull()))
+                .thenThrow(new QueueFullException("Transaction write queue is full, try again later"));
+
+        mockMvc.perform(post("/api/transactions").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"SALE\",\"productId\":1,\"quantity\":4}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409));
+        mockMvc.perform(post("/api/transactions").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"SALE\",\"productId\":2,\"quantity\":4}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+        mockMvc.perform(post("/api/transactions").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"SALE\",\"productId\":1,\"quantity\":0}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/transactions").contentType(MediaType.APPLICATION_JSON).content("{\"type\":"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void createTransactions_StoresTheWholeBatch() throws Exception {
+        Sale first = new Sale(apple, 1, Money.parse("1.25"), "Ann");
+        first.setId(1L);
+        Sale second = new Sale(apple, 2, Money.parse("2.50"), null);
+        second.setId(2L);
+        when(facade.createTransactions(anyList())).thenReturn(List.<Transaction>of(first, second));
+
+        mockMvc.perform(post("/api/transactions/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"type\":\"SALE\",\"productId\":1,\"quantity\":1,\"extraInfo\":\"Ann\"},"
+                                + "{\"type\":\"SALE\",\"productId\":1,\"quantity\":2}]"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].extraInfo").value("Ann"));
+
+        mockMvc.perform(post("/api/transactions/batch").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void listTransactions_PassesTheCursorAndReturnsTheNextOne() throws Exception {
+        TransactionRow row = new TransactionRow(3L, LocalDateTime.of(2024, 6, 1, 12, 0), Sale.class, 1L, "Apple",
+                2, Money.parse("2.50"), null, null);
+        when(facade.getTransactionPage(any(TransactionFilter.class), eq(TransactionSort.TOTAL), eq(Sort.Direction.ASC),
+                any(Keyset.class), eq(2))).thenReturn(new KeysetPage<>(List.of(row, row), "next-cursor", null));
+
+        mockMvc.perform(get("/api/transactions").param("sort", "TOTAL").param("direction", "ASC").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.next").value("next-cursor"))
+                .andExpect(jsonPath("$.previous").doesNotExist())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].type").value("SALE"));
+
+        mockMvc.perform(get("/api/transactions").param("size", "5000"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/transactions").param("after", "not a cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/transactions").param("sort", "COLOUR"))
+                .andExpect(status().isBadRequest());
+        verify(facade, times(1)).getTransactionPage(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getProduct_FoundAndMissing() throws Exception {
+        when(facade.getProductByCode("P001")).thenReturn(Optional.of(apple));
+        when(facade.getProductById(anyLong())).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/products/code/P001"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price").value(1.25))
+                .andExpect(jsonPath("$.version").doesNotExist());
+        mockMvc.perform(get("/api/products/42"))
+                .andExpect(status().isNotFound());
+    }
+}
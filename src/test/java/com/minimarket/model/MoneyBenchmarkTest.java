@@ -0,0 +1,82 @@
+package com.minimarket.model;
+
+import com.minimarket.service.strategy.DiscountPricingStrategy;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Pricing and summing a day's worth of lines the old way (boxed Double) and with cents in a long
+@Tag("benchmark")
+class MoneyBenchmarkTest {
+
+    private static final int LINES = 2_000_000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void pricingAndAggregation_DoubleVersusCents(TestReporter reporter) {
+        Random random = new Random(7);
+        long[] unitPrices = new long[LINES];
+        int[] quantities = new int[LINES];
+        for (int i = 0; i < LINES; i++) {
+            unitPrices[i] = 1 + random.nextInt(5_000);
+            quantities[i] = 1 + random.nextInt(20);
+        }
+        Double[] boxedPrices = new Double[LINES];
+        for (int i = 0; i < LINES; i++) {
+            boxedPrices[i] = unitPrices[i] / 100.0;
+        }
+        DiscountPricingStrategy pricing = new DiscountPricingStrategy();
+
+        double doubleSum = 0;
+        long centsSum = 0;
+        long doubleNanos = Long.MAX_VALUE;
+        long centsNanos = Long.MAX_VALUE;
+        // Best of several rounds; the first ones double as JIT warm-up
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            doubleSum = sumWithDoubles(boxedPrices, quantities);
+            doubleNanos = Math.min(doubleNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            centsSum = sumWithCents(pricing, unitPrices, quantities);
+            centsNanos = Math.min(centsNanos, System.nanoTime() - start);
+        }
+
+        BigDecimal exact = BigDecimal.ZERO;
+        for (int i = 0; i < LINES; i++) {
+            BigDecimal line = BigDecimal.valueOf(unitPrices[i], 2).multiply(BigDecimal.valueOf(quantities[i]));
+            if (quantities[i] > 10) {
+                line = line.multiply(new BigDecimal("0.90")).setScale(2, Money.ROUNDING);
+            }
+            exact = exact.add(line);
+        }
+
+        reporter.publishEntry("aggregation", String.format("%d lines: Double %.1f ms (error %s), cents %.1f ms (error %s)",
+                LINES, doubleNanos / 1e6, new BigDecimal(doubleSum).subtract(exact).toPlainString(),
+                centsNanos / 1e6, BigDecimal.valueOf(centsSum, 2).subtract(exact).toPlainString()));
+        assertEquals(exact, BigDecimal.valueOf(centsSum, 2));
+    }
+
+    // What DiscountPricingStrategy and DailySalesSummary.add did before: boxed totals summed as doubles
+    private static double sumWithDoubles(Double[] prices, int[] quantities) {
+        Double revenue = 0.0;
+        for (int i = 0; i < prices.length; i++) {
+            Double total = quantities[i] > 10 ? (prices[i] * quantities[i]) * 0.90 : prices[i] * quantities[i];
+            revenue += total;
+        }
+        return revenue;
+    }
+
+    private static long sumWithCents(DiscountPricingStrategy pricing, long[] unitPrices, int[] quantities) {
+        long revenue = 0;
+        for (int i = 0; i < unitPrices.length; i++) {
+            revenue = Math.addExact(revenue, pricing.calculateTotal(unitPrices[i], quantities[i]));
+        }
+        return revenue;
+    }
+}
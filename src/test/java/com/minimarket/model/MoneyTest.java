@@ -0,0 +1,64 @@
+package com.minimarket.model;
+
+import com.minimarket.service.strategy.DiscountPricingStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void parse_RoundsToTheCentHalfUp() {
+        assertEquals(1_250L, Money.parse("12.5").getMinorUnits());
+        assertEquals(1_001L, Money.parse("10.005").getMinorUnits());
+        assertEquals(1_000L, Money.parse("10.004").getMinorUnits());
+        assertEquals(-1_001L, Money.parse("-10.005").getMinorUnits());
+    }
+
+    @Test
+    void toString_AlwaysHasTwoDecimals() {
+        assertEquals("12.50", Money.parse("12.5").toString());
+        assertEquals("0.05", Money.ofMinor(5).toString());
+        assertEquals("-0.05", Money.ofMinor(-5).toString());
+        assertEquals("-3.00", Money.parse("-3").toString());
+        assertEquals(new BigDecimal("12.50"), Money.parse("12.5").toBigDecimal());
+    }
+
+    @Test
+    void discounted_RoundsHalfUpLikeBigDecimal() {
+        for (long cents = -2_000; cents <= 2_000; cents++) {
+            for (int basisPoints : new int[]{1, 250, 333, 1_000, 1_250, 5_000, 9_999}) {
+                long expected = BigDecimal.valueOf(cents, 2)
+                        .multiply(BigDecimal.valueOf(10_000 - basisPoints, 4))
+                        .setScale(2, Money.ROUNDING)
+                        .unscaledValue().longValueExact();
+                assertEquals(expected, Money.discounted(cents, basisPoints), cents + " at " + basisPoints + " bp");
+            }
+        }
+    }
+
+    @Test
+    void arithmetic_IsExactAndFailsOnOverflow() {
+        assertEquals(Money.parse("0.30"), Money.parse("0.10").plus(Money.parse("0.20")));
+        assertEquals(Money.parse("37.47"), Money.parse("12.49").times(3));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE / 2).times(3));
+    }
+
+    @Test
+    void discountPricing_HasNoFloatingPointResidue() {
+        // 13 x 1.00 with 10% off was 11.700000000000001 as a double
+        assertEquals(Money.parse("11.70"), Money.ofMinor(new DiscountPricingStrategy().calculateTotal(100, 13)));
+        // 11 x 8.99 = 98.89, 10% off = 89.001, rounded to the cent
+        assertEquals(Money.parse("89.00"), Money.ofMinor(new DiscountPricingStrategy().calculateTotal(899, 11)));
+    }
+
+    @Test
+    void equalsAndCompare_UseTheAmount() {
+        assertEquals(Money.parse("1.5"), Money.parse("1.50"));
+        assertEquals(Money.parse("1.5").hashCode(), Money.parse("1.50").hashCode());
+        assertTrue(Money.parse("1.49").compareTo(Money.parse("1.50")) < 0);
+        assertSame(Money.ZERO, Money.ofMinor(0));
+    }
+}
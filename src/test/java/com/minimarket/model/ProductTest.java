@@ -9,7 +9,7 @@ class ProductTest {
     void builder_CreatesProductWithCorrectValues() {
         Product product = new Product.Builder("P001", "Test Product")
                 .id(1L)
-                .price(100.0)
+                .price(Money.parse("100.00"))
                 .stock(50)
                 .build();
 
@@ -17,7 +17,7 @@ class ProductTest {
         assertEquals(1L, product.getId());
         assertEquals("P001", product.getCode());
         assertEquals("Test Product", product.getName());
-        assertEquals(100.0, product.getPrice());
+        assertEquals(Money.parse("100.00"), product.getPrice());
         assertEquals(50, product.getStock());
     }
 
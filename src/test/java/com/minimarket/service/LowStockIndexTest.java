@@ -0,0 +1,125 @@
+package com.minimarket.service;
+
+import com.minimarket.model.Money;
+import com.minimarket.model.Product;
+import com.minimarket.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LowStockIndexTest {
+
+    private ProductRepository productRepository;
+    private final List<LowStockEvent> events = new ArrayList<>();
+    private LowStockIndex index;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        when(productRepository.findByReorderLevelIsNotNull()).thenReturn(List.of(
+                product(1L, "MILK", 12, 10),
+                product(2L, "BREAD", 3, 5),
+                product(3L, "EGGS", 40, 20)));
+        index = new LowStockIndex(productRepository, event -> events.add((LowStockEvent) event));
+        index.rebuild();
+    }
+
+    @Test
+    void rebuild_ListsLowProductsWithoutAnnouncingThem() {
+        assertEquals(List.of(2L), ids(index.getLow(10)));
+        assertTrue(events.isEmpty());
+        assertEquals(3, index.getStats().get("tracked"));
+    }
+
+    @Test
+    void adjustStock_CrossingTheLevel_PublishesOnce() {
+        index.adjustStock(1L, -1);
+        assertTrue(events.isEmpty());
+
+        // 11 -> 10 reaches the reorder level
+        index.adjustStock(1L, -1);
+        index.adjustStock(1L, -4);
+        assertEquals(1, events.size());
+        assertTrue(events.get(0).low());
+        assertEquals(10, events.get(0).level().stock());
+
+        // Lowest relative to its level first: MILK is 4 under, BREAD 2 under
+        assertEquals(List.of(1L, 2L), ids(index.getLow(10)));
+        assertEquals(List.of(1L), ids(index.getLow(1)));
+
+        index.adjustStock(1L, 50);
+        assertEquals(2, events.size());
+        assertFalse(events.get(1).low());
+        assertEquals(List.of(2L), ids(index.getLow(10)));
+        assertEquals(1L, index.getStats().get("alerts"));
+    }
+
+    @Test
+    void adjustStock_UntrackedProduct_Ignored() {
+        index.adjustStock(99L, -100);
+
+        assertEquals(List.of(2L), ids(index.getLow(10)));
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void put_ManualEdit_UpdatesLevelAndStock() {
+        // New level puts EGGS below it
+        index.put(product(3L, "EGGS", 40, 50));
+        assertEquals(List.of(3L, 2L), ids(index.getLow(10)));
+        assertEquals(1, events.size());
+
+        // No reorder level any more: no longer tracked
+        index.put(product(2L, "BREAD", 3, null));
+        assertEquals(List.of(3L), ids(index.getLow(10)));
+        assertEquals(2, index.getStats().get("tracked"));
+    }
+
+    @Test
+    void put_NewProductAlreadyLow_IsAnnounced() {
+        index.put(product(4L, "SALT", 0, 2));
+
+        assertEquals(1, events.size());
+        assertEquals(4L, events.get(0).level().id());
+    }
+
+    @Test
+    void rebuild_WriteDuringLoad_IsReadAgainNotLost() {
+        // A sale of 5 MILK commits while the startup load runs: the loaded row predates it
+        when(productRepository.findByReorderLevelIsNotNull()).thenAnswer(invocation -> {
+            index.adjustStock(1L, -5);
+            return List.of(product(1L, "MILK", 12, 10), product(2L, "BREAD", 3, 5));
+        });
+        when(productRepository.findAllById(Set.of(1L))).thenReturn(List.of(product(1L, "MILK", 7, 10)));
+
+        index.rebuild();
+
+        assertEquals(List.of(1L, 2L), ids(index.getLow(10)));
+        assertEquals(7, index.getLow(10).get(0).stock());
+        assertEquals(2, index.getStats().get("tracked"));
+        verify(productRepository).findAllById(Set.of(1L));
+
+        // Back to plain incremental updates once the rebuild is over
+        index.adjustStock(2L, 10);
+        assertEquals(List.of(1L), ids(index.getLow(10)));
+    }
+
+    private static List<Long> ids(List<StockLevel> levels) {
+        return levels.stream().map(StockLevel::id).toList();
+    }
+
+    private static Product product(Long id, String code, int stock, Integer reorderLevel) {
+        return new Product.Builder(code, code)
+                .id(id)
+                .price(Money.ofMinor(100))
+                .stock(stock)
+                .reorderLevel(reorderLevel)
+                .build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.minimarket.service;
+
+import com.minimarket.model.Money;
+import com.minimarket.model.Product;
+import com.minimarket.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductCacheTest {
+
+    private ProductRepository productRepository;
+    private ProductCache cache;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        cache = new ProductCache(productRepository, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void adjustStock_LoadBetweenCommitAndAdjust_IsNotCountedTwice() {
+        TransactionSynchronizationManager.initSynchronization();
+        cache.adjustStockAfterCommit(1L, -3);
+
+        // The UPDATE has committed, the after-commit adjust has not run yet, and a miss loads the new row
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product(7, 1L)));
+        assertEquals(7, cache.getById(1L).orElseThrow().getStock());
+        finishTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        Product cached = cache.getById(1L).orElseThrow();
+        assertEquals(7, cached.getStock());
+        assertEquals(1L, cached.getVersion());
+    }
+
+    @Test
+    void adjustStock_RolledBack_LetsLoadsBeCachedAgain() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product(10, 0L)));
+        TransactionSynchronizationManager.initSynchronization();
+        cache.adjustStockAfterCommit(1L, -3);
+        finishTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(10, cache.getById(1L).orElseThrow().getStock());
+        assertEquals(10, cache.getById(1L).orElseThrow().getStock());
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void adjustStock_CachedProduct_AppliesChangeAndVersionBump() {
+        cache.put(product(10, 0L));
+
+        cache.adjustStockAfterCommit(1L, 5);
+
+        Product cached = cache.getById(1L).orElseThrow();
+        assertEquals(15, cached.getStock());
+        assertEquals(1L, cached.getVersion());
+        verifyNoInteractions(productRepository);
+    }
+
+    // The callbacks a transaction manager makes once the transaction has ended
+    private static void finishTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private static Product product(int stock, long version) {
+        Product product = new Product.Builder("P001", "Apple").id(1L).price(Money.parse("1.25")).stock(stock).build();
+        product.setVersion(version);
+        return product;
+    }
+}
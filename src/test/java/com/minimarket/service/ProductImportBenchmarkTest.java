@@ -0,0 +1,105 @@
+package com.minimarket.service;
+
+import com.minimarket.repository.ProductRepository;
+import com.minimarket.repository.StockSnapshotRepository;
+import com.minimarket.repository.TransactionRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.Reader;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// A supplier catalog of 100k rows imported into an empty store, then again as all updates
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/product-import-benchmark-test.db",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+@Tag("benchmark")
+class ProductImportBenchmarkTest {
+
+    private static final int ROWS = 100_000;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private StockSnapshotRepository snapshotRepository;
+
+    @Test
+    void importCsv_HundredThousandRows(TestReporter reporter) throws Exception {
+        snapshotRepository.deleteAll();
+        transactionRepository.deleteAll();
+        productRepository.deleteAll();
+
+        ProductImportJob inserts = timedImport(reporter, "inserts", "");
+        assertEquals(ROWS, inserts.getInserted());
+        assertEquals(0, inserts.getFailed());
+
+        ProductImportJob updates = timedImport(reporter, "updates", " v2");
+        assertEquals(ROWS, updates.getUpdated());
+        assertEquals(ROWS, productRepository.count());
+        assertEquals("Product 99999 v2", productRepository.findByCode("P99999").orElseThrow().getName());
+    }
+
+    private ProductImportJob timedImport(TestReporter reporter, String label, String nameSuffix) throws Exception {
+        ProductImportJob job = new ProductImportJob(label, label + ".csv", 0, 100, Instant.now());
+        long start = System.nanoTime();
+        productImportService.importCsv(job, new CatalogReader(nameSuffix));
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        reporter.publishEntry(label, String.format("%,d rows in %d ms, %,d rows/s",
+                ROWS, millis, ROWS * 1000L / Math.max(1, millis)));
+        assertEquals(ProductImportJob.Status.DONE, job.getStatus());
+        // Generous bound for slow CI machines; about 20 s per pass on a developer laptop
+        assertTrue(millis < 60_000, "import took " + millis + " ms");
+        return job;
+    }
+
+    // Generates the CSV row by row, so the file is never held in memory on either side
+    private static final class CatalogReader extends Reader {
+        private final String nameSuffix;
+        private final StringBuilder buffer = new StringBuilder("code,name,price,stock,category\n");
+        private int position;
+        private int row;
+
+        CatalogReader(String nameSuffix) {
+            this.nameSuffix = nameSuffix;
+        }
+
+        @Override
+        public int read(char[] target, int offset, int length) {
+            if (position == buffer.length()) {
+                if (row == ROWS) {
+                    return -1;
+                }
+                buffer.setLength(0);
+                position = 0;
+                buffer.append('P').append(row).append(",\"Product ").append(row).append(nameSuffix).append("\",")
+                        .append(1 + row % 50).append('.').append(row % 10).append("9,")
+                        .append(row % 200).append(",Category ").append(row % 20).append('\n');
+                row++;
+            }
+            int count = Math.min(length, buffer.length() - position);
+            buffer.getChars(position, position + count, target, offset);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.minimarket.service;
+
+import com.minimarket.model.Money;
+import com.minimarket.model.Product;
+import com.minimarket.repository.ProductRepository;
+import com.minimarket.repository.StockSnapshotRepository;
+import com.minimarket.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/product-import-test.db",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "minimarket.products.import.dir=target/product-imports",
+        "minimarket.products.import.chunk-size=3"
+})
+class ProductImportServiceTest {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private StockSnapshotRepository snapshotRepository;
+
+    @BeforeEach
+    void setUp() {
+        snapshotRepository.deleteAll();
+        transactionRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void importCsv_UpsertsByCode() throws Exception {
+        productService.saveProduct(new Product.Builder("A001", "Old name")
+                .price(Money.parse("1.00")).stock(7).category("Dairy").build());
+
+        ProductImportJob job = importCsv("""
+                Code,Name,Price,Stock,Reorder Level
+                A001,Whole milk,1.25,,3
+                B001,Bread,2.10,12,
+                """);
+
+        assertEquals(ProductImportJob.Status.DONE, job.getStatus());
+        assertEquals(1, job.getInserted());
+        assertEquals(1, job.getUpdated());
+
+        Product updated = productRepository.findByCode("A001").orElseThrow();
+        assertEquals("Whole milk", updated.getName());
+        assertEquals(Money.parse("1.25"), updated.getPrice());
+        // No stock given and no category column: both left as they were
+        assertEquals(7, updated.getStock());
+        assertEquals("Dairy", updated.getCategory());
+        assertEquals(3, updated.getReorderLevel());
+        // Price-only update: the baseline from the first save is still the one the ledger folds from
+        assertEquals(1, snapshotRepository.findByProductIdOrderByLastTransactionIdAscIdAsc(updated.getId()).size());
+
+        Product inserted = productRepository.findByCode("B001").orElseThrow();
+        assertEquals(12, inserted.getStock());
+        assertNull(inserted.getReorderLevel());
+        assertEquals(1, snapshotRepository.findByProductIdOrderByLastTransactionIdAscIdAsc(inserted.getId()).size());
+        assertEquals("Bread", productService.searchProducts("bread", 10).get(0).name());
+    }
+
+    @Test
+    void importCsv_InvalidRows_AreReportedWithTheirLine() throws Exception {
+        ProductImportJob job = importCsv("""
+                code,name,price,stock
+                C001,Cheese,4.50,1
+                ,No code,1.00,1
+                C002,Cream,abc,1
+                C003,Curd,1.00,-2
+                C004,Cider,3.00,2
+                """);
+
+        assertEquals(ProductImportJob.Status.DONE, job.getStatus());
+        assertEquals(5, job.getRowsRead());
+        assertEquals(2, job.getInserted());
+        assertEquals(3, job.getFailed());
+        assertEquals(List.of(3L, 4L, 5L), job.getErrors().stream().map(ProductImportError::line).toList());
+        assertEquals("C002", job.getErrors().get(1).code());
+        assertTrue(job.getErrors().get(1).message().contains("price"));
+        assertTrue(productRepository.findByCode("C004").isPresent());
+    }
+
+    @Test
+    void importCsv_RepeatedCode_LastRowWins() throws Exception {
+        ProductImportJob job = importCsv("""
+                code,name,price
+                D001,First,1.00
+                D001,Second,2.00
+                """);
+
+        assertEquals(1, job.getInserted());
+        assertEquals(1, job.getUpdated());
+        assertEquals("Second", productRepository.findByCode("D001").orElseThrow().getName());
+    }
+
+    @Test
+    void importCsv_QuotedFields_KeepCommasAndNewlines() throws Exception {
+        ProductImportJob job = importCsv("""
+                code,name,price,category
+                E001,"Eggs, free range",3.20,"Dairy ""and"" eggs"
+                E002,"Two
+                lines",1.00,
+                """);
+
+        assertEquals(ProductImportJob.Status.DONE, job.getStatus());
+        assertEquals("Eggs, free range", productRepository.findByCode("E001").orElseThrow().getName());
+        assertEquals("Dairy \"and\" eggs", productRepository.findByCode("E001").orElseThrow().getCategory());
+        assertEquals("Two\nlines", productRepository.findByCode("E002").orElseThrow().getName());
+    }
+
+    @Test
+    void importCsv_MissingRequiredColumn_FailsTheJob() {
+        assertThrows(IOException.class,
+                () -> productImportService.importCsv(newJob(), new StringReader("code,name\nF001,Flour\n")));
+        assertEquals(0, productRepository.count());
+    }
+
+    @Test
+    void importCsv_UnclosedQuote_ImportsTheRowsBeforeIt() {
+        // Chunks of 3: one is committed in the loop, H004 is still buffered when the broken row is read
+        IOException e = assertThrows(IOException.class, () -> productImportService.importCsv(newJob(), new StringReader("""
+                code,name,price
+                H001,Ham,1.00
+                H002,Honey,1.00
+                H003,Hummus,1.00
+                H004,Herbs,1.00
+                H005,"Hazelnuts,1.00
+                """)));
+
+        assertTrue(e.getMessage().startsWith("Line 6"));
+        assertEquals(4, productRepository.count());
+        assertFalse(productRepository.findByCode("H005").isPresent());
+    }
+
+    @Test
+    void submit_RunsInTheBackgroundAndReportsProgress() throws Exception {
+        byte[] csv = "code,name,price\nG001,Grapes,2.00\n".getBytes(StandardCharsets.UTF_8);
+        ProductImportJob job = productImportService.submit("grapes.csv", new ByteArrayInputStream(csv));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (job.isPending()) {
+            assertTrue(System.nanoTime() < deadline, "import never finished");
+            Thread.sleep(20);
+        }
+        assertEquals(ProductImportJob.Status.DONE, job.getStatus());
+        assertEquals(100, job.getProgressPercent());
+        assertEquals(csv.length, job.getBytesRead().get());
+        assertTrue(productImportService.getJob(job.getId()).isPresent());
+        assertTrue(productRepository.findByCode("G001").isPresent());
+    }
+
+    private ProductImportJob importCsv(String csv) throws Exception {
+        ProductImportJob job = newJob();
+        try {
+            productImportService.importCsv(job, new StringReader(csv));
+        } catch (IOException e) {
+            job.fail(e.getMessage(), Instant.now());
+        }
+        return job;
+    }
+
+    private static ProductImportJob newJob() {
+        return new ProductImportJob("test", "test.csv", 0, 100, Instant.now());
+    }
+}
@@ -0,0 +1,69 @@
+package com.minimarket.service;
+
+import com.minimarket.model.Product;
+import com.minimarket.repository.ProductRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Building the index for a large catalog and answering typeahead lookups as a cashier types
+@Tag("benchmark")
+class ProductSearchIndexBenchmarkTest {
+
+    private static final int PRODUCTS = 100_000;
+    private static final int LOOKUPS = 2_000;
+    private static final String[] WORDS = {"leche", "cafe", "arroz", "azucar", "aceite", "harina", "galletas",
+            "jabon", "queso", "yogur", "pan", "fideos", "atun", "sal", "te", "cacao", "manteca", "miel"};
+    private static final String[] QUERIES = {"l", "le", "lec", "lech", "ca", "caf", "az", "ga", "qu",
+            "leche ent", "cafe mol", "ar int", "p12", "p123", "p1234"};
+
+    @Test
+    void search_HundredThousandProducts(TestReporter reporter) {
+        Random random = new Random(11);
+        String[] sizes = {"entera", "molido", "integral", "grande", "chico", "light", "clasico", "premium"};
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + sizes[random.nextInt(sizes.length)]
+                    + " " + (100 + random.nextInt(900)) + "g";
+            products.add(ProductSearchIndexTest.product((long) i + 1, "P" + i, name));
+        }
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAll()).thenReturn(products);
+        ProductCache productCache = new ProductCache(productRepository, PRODUCTS);
+        productCache.getAll();
+
+        long start = System.nanoTime();
+        ProductSearchIndex index = new ProductSearchIndex(productCache);
+        index.rebuild();
+        long buildNanos = System.nanoTime() - start;
+        assertEquals(PRODUCTS, index.getSize());
+
+        // Warm-up
+        for (int i = 0; i < LOOKUPS; i++) {
+            index.search(QUERIES[i % QUERIES.length], 10);
+        }
+        reporter.publishEntry("build", String.format("%,d products in %d ms", PRODUCTS, buildNanos / 1_000_000));
+        long worstMicros = 0;
+        for (String query : QUERIES) {
+            int found = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                found = index.search(query, 10).size();
+            }
+            long micros = (System.nanoTime() - start) / 1_000 / LOOKUPS;
+            worstMicros = Math.max(worstMicros, micros);
+            reporter.publishEntry("\"" + query + "\"", String.format("%d results, %d us per lookup", found, micros));
+            assertTrue(found > 0, query);
+        }
+
+        // Typing latency budget is tens of milliseconds; stay far below it even on a slow CI machine
+        assertTrue(worstMicros < 50_000, "slowest lookup took " + worstMicros + " us");
+    }
+}
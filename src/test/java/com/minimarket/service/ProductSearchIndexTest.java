@@ -0,0 +1,107 @@
+package com.minimarket.service;
+
+import com.minimarket.model.Money;
+import com.minimarket.model.Product;
+import com.minimarket.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductSearchIndexTest {
+
+    private ProductRepository productRepository;
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        when(productRepository.findAll()).thenReturn(List.of(
+                product(1L, "CF-100", "Café Molido"),
+                product(2L, "CF-200", "Café en Grano Tostado"),
+                product(3L, "LC-100", "Leche Entera"),
+                product(4L, "CAFE", "Taza de Cerámica")));
+        index = new ProductSearchIndex(new ProductCache(productRepository, 100));
+        index.rebuild();
+    }
+
+    @Test
+    void search_FoldsAccentsAndCase() {
+        assertEquals(List.of(4L, 1L, 2L), ids(index.search("cafe", 10)));
+        assertEquals(List.of(4L), ids(index.search("CERAMICA", 10)));
+    }
+
+    @Test
+    void search_ExactCodeRanksFirst() {
+        // Product 4's code is exactly the query; the others only have it in their names
+        assertEquals(4L, index.search("CAFE", 10).get(0).id());
+        assertEquals(List.of(1L), ids(index.search("cf100", 10)));
+        assertEquals(List.of(1L, 2L), ids(index.search("cf-", 10)));
+    }
+
+    @Test
+    void search_EveryWordMustMatch() {
+        assertEquals(List.of(2L), ids(index.search("caf tost", 10)));
+        assertEquals(List.of(), ids(index.search("cafe leche", 10)));
+        assertEquals(List.of(), ids(index.search("  ", 10)));
+    }
+
+    @Test
+    void search_LimitsResults() {
+        assertEquals(1, index.search("c", 1).size());
+    }
+
+    @Test
+    void put_ReplacesRenamedProduct() {
+        index.put(product(3L, "LC-100", "Leche Descremada"));
+
+        assertEquals(List.of(), ids(index.search("entera", 10)));
+        assertEquals(List.of(3L), ids(index.search("descr", 10)));
+        assertEquals(4, index.getSize());
+    }
+
+    @Test
+    void remove_DropsProduct() {
+        index.remove(1L);
+
+        assertEquals(List.of(4L, 2L), ids(index.search("cafe", 10)));
+        assertEquals(List.of(), ids(index.search("molido", 10)));
+        assertEquals(3, index.getSize());
+    }
+
+    @Test
+    void rebuild_WriteDuringLoad_IsReadAgainNotLost() {
+        ProductCache productCache = new ProductCache(productRepository, 100);
+        ProductSearchIndex racing = new ProductSearchIndex(productCache);
+        // A rename commits while the startup load runs: the loaded catalog predates it
+        when(productRepository.findAll()).thenAnswer(invocation -> {
+            Product renamed = product(3L, "LC-100", "Leche Descremada");
+            productCache.put(renamed);
+            racing.put(renamed);
+            return List.of(product(1L, "CF-100", "Café Molido"), product(3L, "LC-100", "Leche Entera"));
+        });
+
+        racing.rebuild();
+
+        assertEquals(List.of(3L), ids(racing.search("descr", 10)));
+        assertEquals(List.of(), ids(racing.search("entera", 10)));
+        assertEquals(List.of(1L), ids(racing.search("molido", 10)));
+        assertEquals(2, racing.getSize());
+    }
+
+    private static List<Long> ids(List<ProductSuggestion> suggestions) {
+        return suggestions.stream().map(ProductSuggestion::id).toList();
+    }
+
+    static Product product(Long id, String code, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setCode(code);
+        product.setName(name);
+        product.setPrice(Money.ofMinor(1_000));
+        return product;
+    }
+}
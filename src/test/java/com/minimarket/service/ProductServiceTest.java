@@ -1,10 +1,11 @@
 package com.minimarket.service;
 
+import com.minimarket.model.Money;
 import com.minimarket.model.Product;
 import com.minimarket.repository.ProductRepository;
+import com.minimarket.service.report.ReportCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
@@ -20,12 +21,20 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
-    @InjectMocks
+    @Mock
+    private ReportCache reportCache;
+
+    @Mock
+    private StockLedger stockLedger;
+
     private ProductService productService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ProductCache productCache = new ProductCache(productRepository, 100);
+        productService = new ProductService(productRepository, reportCache, productCache,
+                new ProductSearchIndex(productCache), new LowStockIndex(productRepository, event -> { }), stockLedger);
     }
 
     @Test
@@ -62,7 +71,9 @@ class ProductServiceTest {
     @Test
     void saveProduct_ReturnsSavedProduct() {
         Product p = new Product();
+        p.setId(1L);
         p.setName("Apple");
+        p.setStock(10);
 
         when(productRepository.save(p)).thenReturn(p);
 
@@ -71,6 +82,8 @@ class ProductServiceTest {
         assertNotNull(saved);
         assertEquals("Apple", saved.getName());
         verify(productRepository, times(1)).save(p);
+        verify(stockLedger).recordBaseline(p);
+        verify(reportCache).invalidateAfterCommit();
     }
 
     @Test
@@ -80,5 +93,36 @@ class ProductServiceTest {
         productService.deleteProduct(1L);
 
         verify(productRepository, times(1)).deleteById(1L);
+        verify(stockLedger).forget(1L);
+        verify(reportCache).invalidateAfterCommit();
+    }
+
+    @Test
+    void getProductById_SecondLookup_IsServedFromCache() {
+        Product p = new Product.Builder("P001", "Apple").id(1L).price(Money.parse("1.00")).stock(5).build();
+        when(productRepository.findById(1L)).thenReturn(Optional.of(p));
+
+        productService.getProductById(1L);
+        Optional<Product> found = productService.getProductById(1L);
+
+        assertEquals("Apple", found.orElseThrow().getName());
+        assertNotSame(p, found.get());
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void saveProduct_UpdatesCachedCopy() {
+        Product p = new Product.Builder("P001", "Apple").id(1L).price(Money.parse("1.00")).stock(5).build();
+        when(productRepository.findById(1L)).thenReturn(Optional.of(p));
+        productService.getProductById(1L);
+
+        Product renamed = new Product.Builder("P001", "Green apple").id(1L).price(Money.parse("1.5")).stock(5).build();
+        when(productRepository.save(renamed)).thenReturn(renamed);
+        productService.saveProduct(renamed);
+
+        assertEquals("Green apple", productService.getProductById(1L).orElseThrow().getName());
+        assertEquals("Green apple", productService.getProductByCode("P001").orElseThrow().getName());
+        verify(productRepository, times(1)).findById(1L);
+        verify(productRepository, never()).findByCode(any());
     }
 }
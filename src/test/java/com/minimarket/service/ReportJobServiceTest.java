@@ -0,0 +1,200 @@
+package com.minimarket.service;
+
+import com.minimarket.repository.TransactionFilter;
+import com.minimarket.service.report.ReportJob;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReportJobServiceTest {
+
+    @Mock
+    private ReportService reportService;
+
+    @TempDir
+    Path directory;
+
+    private ReportJobService reportJobService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(reportService.getFileExtension("csv")).thenReturn("csv");
+        when(reportService.countRows(any(TransactionFilter.class))).thenReturn(2L);
+        reportJobService = new ReportJobService(reportService, directory.toString(), 1, 1, Duration.ofMinutes(5));
+        reportJobService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportJobService.shutdown();
+    }
+
+    @Test
+    void submit_WritesResultFileAndReportsProgress() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            AtomicLong rowsWritten = invocation.getArgument(3);
+            out.write("ID,Date\n1,a\n2,b\n".getBytes(StandardCharsets.UTF_8));
+            rowsWritten.addAndGet(2);
+            return null;
+        }).when(reportService).writeReport(eq("csv"), any(TransactionFilter.class), any(OutputStream.class), any(AtomicLong.class));
+
+        ReportJob job = reportJobService.submit("csv", TransactionFilter.none());
+        awaitCompletion(job);
+
+        assertEquals(ReportJob.Status.DONE, job.getStatus());
+        assertEquals(100, job.getProgressPercent());
+        assertEquals(2L, job.getRowsWritten().get());
+        assertEquals(directory.resolve(job.getId() + ".csv"), job.getFile());
+        assertEquals("ID,Date\n1,a\n2,b\n", Files.readString(job.getFile()));
+        assertEquals(Files.size(job.getFile()), job.getSizeBytes());
+        assertTrue(reportJobService.getJob(job.getId()).isPresent());
+    }
+
+    @Test
+    void submit_IdenticalPendingRequest_ReturnsSameJob() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(reportService).writeReport(eq("csv"), any(TransactionFilter.class), any(OutputStream.class), any(AtomicLong.class));
+
+        TransactionFilter filter = new TransactionFilter(null, null, 1L, "sale");
+        ReportJob first = reportJobService.submit("csv", filter);
+        ReportJob second = reportJobService.submit("csv", new TransactionFilter(null, null, 1L, "SALE"));
+        ReportJob other = reportJobService.submit("csv", TransactionFilter.none());
+
+        assertSame(first, second);
+        assertNotSame(first, other);
+
+        release.countDown();
+        awaitCompletion(first);
+        awaitCompletion(other);
+
+        // Once the first job is done an identical request renders again, the data may have changed
+        ReportJob third = reportJobService.submit("csv", filter);
+        assertNotSame(first, third);
+        awaitCompletion(third);
+        verify(reportService, times(3)).writeReport(eq("csv"), any(TransactionFilter.class), any(OutputStream.class), any(AtomicLong.class));
+    }
+
+    @Test
+    void submit_QueueFull_Rejects() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(reportService).writeReport(eq("csv"), any(TransactionFilter.class), any(OutputStream.class), any(AtomicLong.class));
+
+        // One worker thread and a queue of one: the third distinct job has nowhere to go
+        ReportJob running = reportJobService.submit("csv", new TransactionFilter(null, null, 1L, null));
+        waitUntil(() -> reportJobService.getQueueDepth() == 0);
+        ReportJob queued = reportJobService.submit("csv", new TransactionFilter(null, null, 2L, null));
+
+        assertThrows(QueueFullException.class,
+                () -> reportJobService.submit("csv", new TransactionFilter(null, null, 3L, null)));
+        assertEquals(2, reportJobService.getJobs().size());
+        release.countDown();
+        // Let both finish writing before the temp directory is removed
+        awaitCompletion(running);
+        awaitCompletion(queued);
+    }
+
+    @Test
+    void submit_WriteFails_MarksJobFailedAndRemovesPartialFile() throws Exception {
+        doThrow(new IllegalStateException("boom"))
+                .when(reportService).writeReport(eq("csv"), any(TransactionFilter.class), any(OutputStream.class), any(AtomicLong.class));
+
+        ReportJob job = reportJobService.submit("csv", TransactionFilter.none());
+        awaitCompletion(job);
+
+        assertEquals(ReportJob.Status.FAILED, job.getStatus());
+        assertEquals("boom", job.getError());
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void submit_UnknownFormat_ThrowsBeforeQueueing() {
+        when(reportService.getFileExtension("pdf")).thenThrow(new IllegalArgumentException("Unknown report format: pdf"));
+
+        assertThrows(IllegalArgumentException.class, () -> reportJobService.submit("pdf", TransactionFilter.none()));
+        assertTrue(reportJobService.getJobs().isEmpty());
+    }
+
+    @Test
+    void purgeExpired_DeletesResultsPastTtl() throws Exception {
+        ReportJob job = reportJobService.submit("csv", TransactionFilter.none());
+        awaitCompletion(job);
+        assertTrue(Files.exists(job.getFile()));
+
+        assertEquals(0, reportJobService.purgeExpired(Instant.now()));
+        assertEquals(1, reportJobService.purgeExpired(Instant.now().plus(Duration.ofMinutes(6))));
+
+        assertFalse(Files.exists(job.getFile()));
+        assertTrue(reportJobService.getJob(job.getId()).isEmpty());
+    }
+
+    @Test
+    void purgeExpired_DownloadInProgress_KeepsResultUntilItEnds() throws Exception {
+        ReportJob job = reportJobService.submit("csv", TransactionFilter.none());
+        awaitCompletion(job);
+        Instant downloadStarted = Instant.now().plus(Duration.ofMinutes(4));
+
+        assertTrue(job.beginDownload(downloadStarted));
+        assertEquals(0, reportJobService.purgeExpired(downloadStarted.plus(Duration.ofMinutes(6))));
+        assertTrue(Files.exists(job.getFile()));
+
+        job.endDownload();
+        // The TTL restarted when the download began
+        assertEquals(0, reportJobService.purgeExpired(downloadStarted.plus(Duration.ofMinutes(4))));
+        assertEquals(1, reportJobService.purgeExpired(downloadStarted.plus(Duration.ofMinutes(6))));
+
+        assertFalse(Files.exists(job.getFile()));
+        assertFalse(job.beginDownload(downloadStarted.plus(Duration.ofMinutes(7))));
+    }
+
+    @Test
+    void init_RemovesResultsLeftByPreviousRun() throws Exception {
+        Path stale = Files.writeString(directory.resolve("0b7c6f1e-2f4e-4a59-9a51-3c1d2e4f5a6b.csv.part"), "x");
+        Path unrelated = Files.writeString(directory.resolve("notes.txt"), "keep");
+
+        reportJobService.init();
+
+        assertFalse(Files.exists(stale));
+        assertTrue(Files.exists(unrelated));
+    }
+
+    private static void awaitCompletion(ReportJob job) throws InterruptedException {
+        waitUntil(() -> !job.isPending());
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for report job");
+            Thread.sleep(10);
+        }
+    }
+}
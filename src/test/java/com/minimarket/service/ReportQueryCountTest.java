@@ -0,0 +1,183 @@
+package com.minimarket.service;
+
+import com.minimarket.model.Money;
+import com.minimarket.model.Product;
+import com.minimarket.model.Purchase;
+import com.minimarket.model.Sale;
+import com.minimarket.repository.Keyset;
+import com.minimarket.repository.KeysetPage;
+import com.minimarket.repository.ProductRepository;
+import com.minimarket.repository.ProductSort;
+import com.minimarket.repository.TransactionFilter;
+import com.minimarket.repository.TransactionRepository;
+import com.minimarket.repository.TransactionRow;
+import com.minimarket.repository.TransactionSort;
+import com.minimarket.service.report.ReportCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the read models against N+1 regressions: a report or listing must cost one
+ * SQL statement no matter how many transactions and products it covers.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/report-query-count-test.db",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ReportQueryCountTest {
+
+    private static final int PRODUCTS = 3;
+    private static final int TRANSACTIONS_PER_PRODUCT = 10;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ReportCache reportCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        productRepository.deleteAll();
+        for (int p = 0; p < PRODUCTS; p++) {
+            Product product = productRepository.save(new Product.Builder("P00" + p, "Product " + p)
+                    .price(Money.parse("2.00"))
+                    .stock(100)
+                    .build());
+            for (int i = 0; i < TRANSACTIONS_PER_PRODUCT; i++) {
+                transactionRepository.save(i % 2 == 0
+                        ? new Sale(product, 1, Money.parse("2.00"), "Customer")
+                        : new Purchase(product, 5, Money.parse("10.00"), "Supplier"));
+            }
+        }
+
+        reportCache.invalidate();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void generateReport_UsesSingleStatement() {
+        String report = reportService.generateReport("csv", TransactionFilter.none());
+
+        assertEquals(PRODUCTS * TRANSACTIONS_PER_PRODUCT + 2, report.split("\n").length);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void writeReport_UsesSingleStatement() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reportService.writeReport("html", TransactionFilter.none(), out);
+
+        assertTrue(out.toString().contains("Product 2"));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void getTransactionPage_UsesSingleStatement() {
+        KeysetPage<TransactionRow> page = allTransactionRows();
+        List<TransactionRow> rows = page.getItems();
+
+        assertEquals(PRODUCTS * TRANSACTIONS_PER_PRODUCT, rows.size());
+        assertFalse(page.hasNext());
+        assertEquals("Customer", rows.get(0).getExtraInfo());
+        assertEquals("Supplier", rows.get(1).getExtraInfo());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void getTransactionPage_WalksEveryRowOnceInBothDirections() {
+        // Totals repeat (2.00 / 10.00), so most of the order comes from the id tie-breaker
+        List<Long> expected = allTransactionRows().getItems().stream()
+                .sorted(Comparator.comparingLong(TransactionRow::getTotalMinor)
+                        .thenComparingLong(TransactionRow::getId).reversed())
+                .map(TransactionRow::getId)
+                .toList();
+        statistics.clear();
+
+        KeysetPage<TransactionRow> page = transactionPage(Keyset.first());
+        List<Long> forward = new ArrayList<>(ids(page));
+        int pages = 1;
+        while (page.hasNext()) {
+            page = transactionPage(Keyset.after(page.getNextCursor()));
+            forward.addAll(ids(page));
+            pages++;
+        }
+        assertEquals(expected, forward);
+        assertEquals(5, pages);
+        // One statement per page: no count query and no product loads
+        assertEquals(pages, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        List<Long> backward = new ArrayList<>(ids(page));
+        while (page.hasPrevious()) {
+            page = transactionPage(Keyset.before(page.getPreviousCursor()));
+            backward.addAll(0, ids(page));
+        }
+        assertEquals(expected, backward);
+        assertEquals(7, page.getItems().size());
+    }
+
+    @Test
+    void getProductPage_SeeksByName() {
+        KeysetPage<Product> first = productService.getProductPage(ProductSort.NAME, Sort.Direction.ASC, Keyset.first(), 2);
+        KeysetPage<Product> second = productService.getProductPage(ProductSort.NAME, Sort.Direction.ASC,
+                Keyset.after(first.getNextCursor()), 2);
+
+        assertEquals(List.of("Product 0", "Product 1"), first.getItems().stream().map(Product::getName).toList());
+        assertFalse(first.hasPrevious());
+        assertEquals(List.of("Product 2"), second.getItems().stream().map(Product::getName).toList());
+        assertFalse(second.hasNext());
+        assertTrue(second.hasPrevious());
+    }
+
+    // Every row on one page, oldest first
+    private KeysetPage<TransactionRow> allTransactionRows() {
+        return transactionService.getTransactionPage(TransactionFilter.none(), TransactionSort.DATE,
+                Sort.Direction.ASC, Keyset.first(), PRODUCTS * TRANSACTIONS_PER_PRODUCT);
+    }
+
+    private KeysetPage<TransactionRow> transactionPage(Keyset keyset) {
+        return transactionService.getTransactionPage(TransactionFilter.none(), TransactionSort.TOTAL,
+                Sort.Direction.DESC, keyset, 7);
+    }
+
+    private static List<Long> ids(KeysetPage<TransactionRow> page) {
+        return page.getItems().stream().map(TransactionRow::getId).toList();
+    }
+}
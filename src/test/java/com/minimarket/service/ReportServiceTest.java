@@ -1,21 +1,32 @@
 package com.minimarket.service;
 
+import com.minimarket.model.DailySalesSummary;
+import com.minimarket.model.Money;
 import com.minimarket.model.Product;
 import com.minimarket.model.Sale;
-import com.minimarket.model.Transaction;
+import com.minimarket.repository.DailySalesSummaryRepository;
+import com.minimarket.repository.TransactionFilter;
 import com.minimarket.repository.TransactionRepository;
+import com.minimarket.repository.TransactionRow;
+import com.minimarket.service.report.ReportCache;
 import com.minimarket.service.report.formatter.ReportFormatter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
@@ -24,9 +35,14 @@ class ReportServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private DailySalesSummaryRepository summaryRepository;
+
     @Mock
     private ReportFormatter reportFormatter;
 
+    private ReportCache reportCache;
+
     private ReportService reportService;
 
     @BeforeEach
@@ -34,23 +50,17 @@ class ReportServiceTest {
         MockitoAnnotations.openMocks(this);
         Map<String, ReportFormatter> formatters = new HashMap<>();
         formatters.put("csvFormatter", reportFormatter);
+        reportCache = new ReportCache(1024 * 1024);
 
-        reportService = new ReportService(transactionRepository, formatters);
+        reportService = new ReportService(transactionRepository, summaryRepository, formatters, Collections.emptyMap(), reportCache);
     }
 
     @Test
     void generateReport_ValidType_GeneratesReport() {
-        Product product = new Product();
-        product.setName("Test Product");
-
-        Transaction transaction = new Sale();
-        transaction.setId(1L);
-        transaction.setDate(LocalDateTime.now());
-        transaction.setProduct(product);
-        transaction.setQuantity(1);
-        transaction.setTotal(10.0);
+        TransactionRow transaction = new TransactionRow(
+                1L, LocalDateTime.now(), Sale.class, 1L, "Test Product", 1, Money.parse("10.00"), null, "None");
 
-        when(transactionRepository.findAll()).thenReturn(Collections.singletonList(transaction));
+        when(transactionRepository.findRows(any(TransactionFilter.class))).thenReturn(Collections.singletonList(transaction));
         when(reportFormatter.formatHeader(anyList())).thenReturn("Header\n");
         when(reportFormatter.formatRow(anyList())).thenReturn("Row\n");
         when(reportFormatter.formatFooter(anyString())).thenReturn("Footer");
@@ -62,12 +72,103 @@ class ReportServiceTest {
         assertTrue(report.contains("Row"));
         assertTrue(report.contains("Footer"));
 
-        verify(transactionRepository).findAll();
+        verify(transactionRepository).findRows(any(TransactionFilter.class));
         verify(reportFormatter).formatHeader(anyList());
         verify(reportFormatter).formatRow(anyList());
         verify(reportFormatter).formatFooter(anyString());
     }
 
+    @Test
+    void writeReport_ValidType_StreamsRows() throws Exception {
+        TransactionRow transaction = new TransactionRow(
+                1L, LocalDateTime.now(), Sale.class, 1L, "Test Product", 1, Money.parse("10.00"), null, "None");
+
+        when(transactionRepository.streamRows(any(TransactionFilter.class))).thenReturn(Stream.of(transaction));
+        when(reportFormatter.formatHeader(anyList())).thenReturn("Header\n");
+        when(reportFormatter.formatRow(anyList())).thenReturn("Row\n");
+        when(reportFormatter.formatFooter(anyString())).thenReturn("Footer");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reportService.writeReport("csv", TransactionFilter.none(), out);
+
+        assertEquals("Header\nRow\nFooter", out.toString(StandardCharsets.UTF_8));
+        verify(transactionRepository, never()).findAll();
+    }
+
+    @Test
+    void generateReport_WithFilter_PassesFilterToRepository() {
+        TransactionFilter filter = new TransactionFilter(
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 7), 3L, "SALE");
+
+        when(transactionRepository.findRows(filter)).thenReturn(Collections.emptyList());
+        when(reportFormatter.formatHeader(anyList())).thenReturn("Header\n");
+        when(reportFormatter.formatFooter(anyString())).thenReturn("Footer");
+
+        String report = reportService.generateReport("csv", filter);
+
+        assertEquals("Header\nFooter", report);
+        verify(transactionRepository).findRows(filter);
+        verify(transactionRepository, never()).findAll();
+        verify(reportFormatter, never()).formatRow(anyList());
+    }
+
+    @Test
+    void generateSummaryReport_ReadsAggregatesNotLedger() {
+        Product product = new Product();
+        product.setName("Test Product");
+        DailySalesSummary summary = new DailySalesSummary(product, LocalDate.of(2024, 1, 2), "SALE");
+        summary.add(3, 3_000);
+
+        TransactionFilter filter = new TransactionFilter(null, null, null, "sale");
+        when(summaryRepository.findByFilter(filter)).thenReturn(Collections.singletonList(summary));
+        when(reportFormatter.formatHeader(anyList())).thenReturn("Header\n");
+        when(reportFormatter.formatRow(anyList())).thenReturn("Row\n");
+        when(reportFormatter.formatFooter(anyString())).thenReturn("Footer");
+
+        String report = reportService.generateSummaryReport("csv", filter);
+
+        assertEquals("Header\nRow\nFooter", report);
+        verify(reportFormatter).formatRow(List.of("2024-01-02", "Test Product", "SALE", "3", "30.00"));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void generateReport_RepeatedRequest_ServedFromCacheUntilInvalidated() {
+        TransactionFilter filter = new TransactionFilter(null, null, 3L, null);
+        when(transactionRepository.findRows(any(TransactionFilter.class))).thenReturn(Collections.emptyList());
+        when(reportFormatter.formatHeader(anyList())).thenReturn("Header\n");
+        when(reportFormatter.formatFooter(anyString())).thenReturn("Footer");
+
+        reportService.generateReport("csv", filter);
+        reportService.generateReport("csv", new TransactionFilter(null, null, 3L, null));
+        verify(transactionRepository, times(1)).findRows(any(TransactionFilter.class));
+        assertEquals(1, reportCache.getHits());
+        assertEquals(1, reportCache.getMisses());
+
+        // A different filter is a different entry
+        reportService.generateReport("csv", TransactionFilter.none());
+        verify(transactionRepository, times(2)).findRows(any(TransactionFilter.class));
+
+        // A new transaction bumps the version
+        reportCache.invalidateAfterCommit();
+        reportService.generateReport("csv", filter);
+        verify(transactionRepository, times(3)).findRows(any(TransactionFilter.class));
+    }
+
+    @Test
+    void transactionFilter_ToBeforeFrom_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () ->
+            new TransactionFilter(LocalDate.of(2024, 1, 7), LocalDate.of(2024, 1, 1), null, null)
+        );
+    }
+
+    @Test
+    void transactionFilter_UnknownTransactionType_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () ->
+            new TransactionFilter(null, null, null, "REFUND")
+        );
+    }
+
     @Test
     void generateReport_UnknownType_ThrowsException() {
         assertThrows(IllegalArgumentException.class, () ->
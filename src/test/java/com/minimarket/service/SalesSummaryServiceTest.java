@@ -0,0 +1,96 @@
+package com.minimarket.service;
+
+import com.minimarket.model.DailySalesSummary;
+import com.minimarket.model.Money;
+import com.minimarket.model.Product;
+import com.minimarket.model.Purchase;
+import com.minimarket.model.Sale;
+import com.minimarket.repository.DailySalesSummaryRepository;
+import com.minimarket.repository.OutboxEventRepository;
+import com.minimarket.repository.TransactionFilter;
+import com.minimarket.repository.TransactionRepository;
+import com.minimarket.repository.TransactionRow;
+import com.minimarket.service.observer.DailySalesAggregator;
+import com.minimarket.service.report.ReportCache;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SalesSummaryServiceTest {
+
+    @Mock
+    private DailySalesSummaryRepository summaryRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ReportCache reportCache;
+
+    @Mock
+    private OutboxEventRepository outboxRepository;
+
+    private SalesSummaryService salesSummaryService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        salesSummaryService = new SalesSummaryService(summaryRepository, transactionRepository, entityManager, reportCache,
+                outboxRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuild_GroupsLedgerByProductDayAndType() {
+        Product apple = new Product.Builder("P001", "Apple").id(1L).build();
+        LocalDateTime morning = LocalDateTime.of(2024, 1, 2, 9, 0);
+
+        TransactionRow sale1 = new TransactionRow(1L, morning, Sale.class, 1L, "Apple", 2, Money.parse("20.00"), null, "A");
+        TransactionRow sale2 = new TransactionRow(2L, morning.plusHours(5), Sale.class, 1L, "Apple", 3, Money.parse("30.00"), null, "B");
+        TransactionRow purchase = new TransactionRow(3L, morning, Purchase.class, 1L, "Apple", 10, Money.parse("50.00"), "Supplier", null);
+        TransactionRow nextDaySale = new TransactionRow(4L, morning.plusDays(1), Sale.class, 1L, "Apple", 1, Money.parse("10.00"), null, "C");
+
+        when(entityManager.getReference(Product.class, 1L)).thenReturn(apple);
+        when(transactionRepository.streamRows(any(TransactionFilter.class)))
+                .thenReturn(Stream.of(sale1, sale2, purchase, nextDaySale));
+
+        int buckets = salesSummaryService.rebuild();
+
+        assertEquals(3, buckets);
+        InOrder inOrder = inOrder(summaryRepository);
+        inOrder.verify(summaryRepository).deleteAllInBatch();
+        ArgumentCaptor<Iterable<DailySalesSummary>> captor = ArgumentCaptor.forClass(Iterable.class);
+        inOrder.verify(summaryRepository).saveAll(captor.capture());
+
+        List<DailySalesSummary> saved = new ArrayList<>();
+        captor.getValue().forEach(saved::add);
+        DailySalesSummary firstDaySales = saved.get(0);
+        assertSame(apple, firstDaySales.getProduct());
+        assertEquals(LocalDate.of(2024, 1, 2), firstDaySales.getDay());
+        assertEquals("SALE", firstDaySales.getTransactionType());
+        assertEquals(5L, firstDaySales.getUnits());
+        assertEquals(Money.parse("50.00"), firstDaySales.getRevenue());
+        assertEquals("PURCHASE", saved.get(1).getTransactionType());
+        assertEquals(10L, saved.get(1).getUnits());
+        assertEquals(LocalDate.of(2024, 1, 3), saved.get(2).getDay());
+        verify(reportCache).invalidateAfterCommit();
+        verify(outboxRepository).deleteByObserver(DailySalesAggregator.NAME);
+    }
+}
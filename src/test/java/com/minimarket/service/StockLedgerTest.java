@@ -0,0 +1,170 @@
+package com.minimarket.service;
+
+import com.minimarket.model.Money;
+import com.minimarket.model.Product;
+import com.minimarket.model.StockSnapshot;
+import com.minimarket.repository.ProductRepository;
+import com.minimarket.repository.StockSnapshotRepository;
+import com.minimarket.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/stock-ledger-test.db",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "minimarket.stock.event-sourced=true",
+        "minimarket.stock.snapshot-interval=5"
+})
+class StockLedgerTest {
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private StockSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        snapshotRepository.deleteAll();
+        transactionRepository.deleteAll();
+        productRepository.deleteAll();
+        product = productService.saveProduct(new Product.Builder("L001", "Ledgered")
+                .price(Money.parse("1.00")).stock(20).build());
+    }
+
+    @Test
+    void sales_AreCheckedAgainstTheLedger() {
+        sell(15);
+
+        assertThrows(InsufficientStockException.class, () -> sell(6));
+        sell(5);
+
+        assertEquals(0, productRepository.findById(product.getId()).orElseThrow().getStock());
+        assertEquals(0, inTransaction(() -> stockLedger.currentStock(product.getId())));
+    }
+
+    @Test
+    void everySnapshotIntervalTransactions_ACheckpointIsWritten() {
+        for (int i = 0; i < 12; i++) {
+            transactionService.createTransaction(i % 3 == 0 ? "PURCHASE" : "SALE", product.getId(), 1, null, null);
+        }
+
+        List<StockSnapshot> snapshots = snapshotRepository.findByProductIdOrderByLastTransactionIdAscIdAsc(product.getId());
+        // The baseline from the save, then one checkpoint per 5 transactions
+        assertEquals(3, snapshots.size());
+        assertTrue(snapshots.get(0).isBaseline());
+        assertFalse(snapshots.get(1).isBaseline());
+        assertEquals(20 + 2 - 3, snapshots.get(1).getStock());
+        assertEquals(20 - 4, inTransaction(() -> stockLedger.currentStock(product.getId())));
+    }
+
+    @Test
+    void verify_ReportsAndRepairsDriftedColumn() {
+        for (int i = 0; i < 7; i++) {
+            sell(1);
+        }
+        // Changed behind the ledger's back
+        inTransaction(() -> productRepository.setStock(product.getId(), 50));
+
+        StockVerification report = stockLedger.verify(false);
+        assertEquals(1, report.products());
+        assertEquals(7, report.transactionsReplayed());
+        assertEquals(1, report.drifts().size());
+        assertEquals(50, report.drifts().get(0).storedStock());
+        assertEquals(13, report.drifts().get(0).ledgerStock());
+
+        stockLedger.verify(true);
+        assertEquals(13, productRepository.findById(product.getId()).orElseThrow().getStock());
+        assertTrue(stockLedger.verify(false).drifts().isEmpty());
+    }
+
+    @Test
+    void verify_FlagsCheckpointThatDisagreesWithTheLedger() {
+        for (int i = 0; i < 5; i++) {
+            sell(1);
+        }
+        StockSnapshot checkpoint = snapshotRepository.findFirstByProductIdOrderByLastTransactionIdDescIdDesc(product.getId())
+                .orElseThrow();
+        assertFalse(checkpoint.isBaseline());
+        checkpoint.setStock(99);
+        snapshotRepository.save(checkpoint);
+
+        List<StockDrift> drifts = stockLedger.verify(false).drifts();
+
+        assertEquals(1, drifts.size());
+        assertEquals(1, drifts.get(0).badSnapshots());
+        assertEquals(15, drifts.get(0).ledgerStock());
+    }
+
+    @Test
+    void savingAProduct_StartsANewBaseline() {
+        sell(4);
+        Product edited = productRepository.findById(product.getId()).orElseThrow();
+        edited.setStock(40);
+        productService.saveProduct(edited);
+        sell(1);
+
+        assertEquals(39, inTransaction(() -> stockLedger.currentStock(product.getId())));
+        assertTrue(stockLedger.verify(false).drifts().isEmpty());
+    }
+
+    @Test
+    void adopt_ProductWithoutSnapshot_StartsFromItsStockColumn() {
+        // Written behind ProductService, like rows that predate the ledger
+        Product legacy = productRepository.save(new Product.Builder("L002", "Legacy")
+                .price(Money.parse("1.00")).stock(8).build());
+
+        stockLedger.adopt();
+        transactionService.createTransaction("SALE", legacy.getId(), 3, null, null);
+
+        assertEquals(5, inTransaction(() -> stockLedger.currentStock(legacy.getId())));
+        assertEquals(5, productRepository.findById(legacy.getId()).orElseThrow().getStock());
+
+        // The adopted baseline took its id from the same generator, so later snapshots don't collide with it
+        Product added = productService.saveProduct(new Product.Builder("L003", "Added")
+                .price(Money.parse("1.00")).stock(2).build());
+        assertEquals(1, snapshotRepository.findByProductIdOrderByLastTransactionIdAscIdAsc(added.getId()).size());
+    }
+
+    @Test
+    void eventSourced_WithoutSingleWriteConnection_IsRefused() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new StockLedger(
+                snapshotRepository, transactionRepository, productRepository, null, null, transactionManager,
+                true, 5, 1, false));
+        assertTrue(e.getMessage().contains("minimarket.datasource.split"));
+    }
+
+    private void sell(int quantity) {
+        transactionService.createTransaction("SALE", product.getId(), quantity, null, null);
+    }
+
+    private <T> T inTransaction(java.util.function.Supplier<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> work.get());
+    }
+}
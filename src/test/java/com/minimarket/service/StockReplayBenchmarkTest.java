@@ -0,0 +1,130 @@
+package com.minimarket.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Replaying a 10M-transaction ledger per product, serially and in parallel, and what a snapshot saves a stock lookup
+@Tag("benchmark")
+class StockReplayBenchmarkTest {
+
+    private static final int PRODUCTS = 10_000;
+    private static final int TRANSACTIONS_PER_PRODUCT = 1_000;
+    private static final int SNAPSHOT_INTERVAL = 500;
+    private static final int ROUNDS = 3;
+
+    @Test
+    void replay_TenMillionTransactions(TestReporter reporter) throws Exception {
+        // Signed quantities, product-major; transaction ids interleave products like a real ledger would
+        Random random = new Random(3);
+        byte[] changes = new byte[PRODUCTS * TRANSACTIONS_PER_PRODUCT];
+        long[] expected = new long[PRODUCTS];
+        long[][] checkpointPositions = new long[PRODUCTS][];
+        int[][] checkpointStocks = new int[PRODUCTS][];
+        for (int product = 0; product < PRODUCTS; product++) {
+            int checkpoints = TRANSACTIONS_PER_PRODUCT / SNAPSHOT_INTERVAL;
+            checkpointPositions[product] = new long[checkpoints];
+            checkpointStocks[product] = new int[checkpoints];
+            long stock = 0;
+            for (int k = 0; k < TRANSACTIONS_PER_PRODUCT; k++) {
+                int quantity = 1 + random.nextInt(20);
+                byte change = (byte) (random.nextInt(3) == 0 ? quantity : -quantity);
+                changes[product * TRANSACTIONS_PER_PRODUCT + k] = change;
+                stock += change;
+                if ((k + 1) % SNAPSHOT_INTERVAL == 0) {
+                    checkpointPositions[product][k / SNAPSHOT_INTERVAL] = transactionId(product, k);
+                    checkpointStocks[product][k / SNAPSHOT_INTERVAL] = (int) stock;
+                }
+            }
+            expected[product] = stock;
+        }
+
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        long serialNanos = Long.MAX_VALUE;
+        long parallelNanos = Long.MAX_VALUE;
+        // Best of several rounds; the first ones double as JIT warm-up
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            assertArrayEquals(expected, replayAll(changes, checkpointPositions, checkpointStocks, 1));
+            serialNanos = Math.min(serialNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            assertArrayEquals(expected, replayAll(changes, checkpointPositions, checkpointStocks, threads));
+            parallelNanos = Math.min(parallelNanos, System.nanoTime() - start);
+        }
+
+        // A lookup folds at most one snapshot interval instead of the product's whole history
+        long fullNanos = Long.MAX_VALUE;
+        long boundedNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS * 100; round++) {
+            long start = System.nanoTime();
+            replay(changes, 0, 0, 0, new long[0], new int[0]);
+            fullNanos = Math.min(fullNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            replay(changes, 0, SNAPSHOT_INTERVAL, checkpointStocks[0][0], new long[0], new int[0]);
+            boundedNanos = Math.min(boundedNanos, System.nanoTime() - start);
+        }
+
+        long total = (long) PRODUCTS * TRANSACTIONS_PER_PRODUCT;
+        reporter.publishEntry("serial", String.format("%,d transactions over %,d products in %d ms (%,d transactions/s)",
+                total, PRODUCTS, serialNanos / 1_000_000, total * 1_000_000_000L / serialNanos));
+        reporter.publishEntry("parallel", String.format("%d threads: %d ms (%,d transactions/s)",
+                threads, parallelNanos / 1_000_000, total * 1_000_000_000L / parallelNanos));
+        reporter.publishEntry("oneProduct", String.format("%d transactions: %d us from its baseline, %d us from its latest snapshot",
+                TRANSACTIONS_PER_PRODUCT, fullNanos / 1_000, boundedNanos / 1_000));
+
+        // The fold itself must never be the bottleneck next to reading the ledger from SQLite
+        assertTrue(total * 1_000_000_000L / serialNanos > 5_000_000, "replay too slow");
+    }
+
+    private static long[] replayAll(byte[] changes, long[][] checkpointPositions, int[][] checkpointStocks, int threads)
+            throws Exception {
+        long[] stocks = new long[PRODUCTS];
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> running = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                int first = t;
+                running.add(pool.submit(() -> {
+                    for (int product = first; product < PRODUCTS; product += threads) {
+                        StockReplay replay = replay(changes, product, 0, 0,
+                                checkpointPositions[product], checkpointStocks[product]);
+                        assertEquals(0, replay.getBadCheckpoints());
+                        stocks[product] = replay.getStock();
+                    }
+                }));
+            }
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return stocks;
+    }
+
+    private static StockReplay replay(byte[] changes, int product, int from, int startStock,
+                                      long[] checkpointPositions, int[] checkpointStocks) {
+        StockReplay replay = new StockReplay(startStock, from == 0 ? 0 : transactionId(product, from - 1),
+                checkpointPositions, checkpointStocks);
+        int base = product * TRANSACTIONS_PER_PRODUCT;
+        for (int k = from; k < TRANSACTIONS_PER_PRODUCT; k++) {
+            replay.apply(transactionId(product, k), changes[base + k]);
+        }
+        return replay.finish();
+    }
+
+    private static long transactionId(int product, int k) {
+        return (long) k * PRODUCTS + product + 1;
+    }
+}
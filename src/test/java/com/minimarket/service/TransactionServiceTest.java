@@ -1,12 +1,15 @@
 package com.minimarket.service;
 
+import com.minimarket.model.Money;
 import com.minimarket.model.Product;
 import com.minimarket.model.Sale;
 import com.minimarket.model.Transaction;
+import com.minimarket.repository.OutboxEventRepository;
 import com.minimarket.repository.ProductRepository;
 import com.minimarket.repository.TransactionRepository;
 import com.minimarket.service.factory.TransactionFactory;
 import com.minimarket.service.observer.StockObserver;
+import com.minimarket.service.observer.TransactionEvents;
 import com.minimarket.service.strategy.PricingStrategy;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,6 +24,9 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 class TransactionServiceTest {
@@ -39,6 +45,9 @@ class TransactionServiceTest {
     @Mock
     private StockObserver stockObserver;
 
+    @Mock
+    private OutboxEventRepository outboxRepository;
+
     private TransactionService transactionService;
 
     @BeforeEach
@@ -52,9 +61,10 @@ class TransactionServiceTest {
         transactionService = new TransactionService(
                 transactionRepository,
                 productRepository,
+                new ProductCache(productRepository, 100),
                 transactionFactory,
                 strategies,
-                observers
+                new TransactionEvents(observers, outboxRepository, false)
         );
     }
 
@@ -62,13 +72,14 @@ class TransactionServiceTest {
     void createTransaction_ValidInput_CreatesAndSavesTransaction() {
         Product product = new Product();
         product.setId(1L);
-        product.setPrice(10.0);
+        product.setPrice(Money.parse("10.00"));
 
         // We don't mock the factory anymore, so we don't need to setup the transaction return
         // The factory will create a Sale object
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(pricingStrategy.calculateTotal(10.0, 5)).thenReturn(50.0);
+        when(productRepository.getReferenceById(1L)).thenReturn(product);
+        when(pricingStrategy.calculateTotal(1_000L, 5)).thenReturn(5_000L);
 
         // We need to mock the save to return the passed transaction (or a similar one)
         // Since we don't know the exact object instance the factory creates, we can use any() and return the argument
@@ -78,10 +89,10 @@ class TransactionServiceTest {
 
         assertNotNull(result);
         assertTrue(result instanceof Sale);
-        assertEquals(50.0, result.getTotal());
+        assertEquals(Money.parse("50.00"), result.getTotal());
 
         verify(productRepository).findById(1L);
-        verify(pricingStrategy).calculateTotal(10.0, 5);
+        verify(pricingStrategy).calculateTotal(1_000L, 5);
         verify(transactionRepository).save(any(Transaction.class));
         verify(stockObserver).onTransaction(any(Transaction.class));
     }
@@ -94,4 +105,80 @@ class TransactionServiceTest {
             transactionService.createTransaction("SALE", 1L, 5, "regularPricing", "None")
         );
     }
+
+    @Test
+    void createTransactions_LoadsProductsOnceAndSavesAllLinesTogether() {
+        Product apple = new Product();
+        apple.setId(1L);
+        apple.setPrice(Money.parse("2.00"));
+        Product pear = new Product();
+        pear.setId(2L);
+        pear.setPrice(Money.parse("3.00"));
+
+        when(productRepository.findAllById(any())).thenReturn(List.of(apple, pear));
+        when(productRepository.getReferenceById(1L)).thenReturn(apple);
+        when(productRepository.getReferenceById(2L)).thenReturn(pear);
+        when(pricingStrategy.calculateTotal(anyLong(), anyInt()))
+                .thenAnswer(i -> i.<Long>getArgument(0) * i.<Integer>getArgument(1));
+        when(transactionRepository.saveAll(anyList())).thenAnswer(i -> i.getArgument(0));
+
+        List<Transaction> result = transactionService.createTransactions(List.of(
+                new TransactionLine("SALE", 1L, 2, "regularPricing", null),
+                new TransactionLine("PURCHASE", 2L, 10, "regularPricing", "Supplier"),
+                new TransactionLine("SALE", 1L, 1, "regularPricing", null)));
+
+        assertEquals(3, result.size());
+        assertEquals(List.of(Money.parse("4.00"), Money.parse("30.00"), Money.parse("2.00")),
+                result.stream().map(Transaction::getTotal).toList());
+        assertSame(apple, result.get(2).getProduct());
+
+        verify(productRepository, times(1)).findAllById(any());
+        verify(productRepository, never()).findById(any());
+        verify(transactionRepository, times(1)).saveAll(anyList());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(stockObserver, times(1)).onTransactions(result);
+    }
+
+    @Test
+    void createTransaction_CachedProduct_IsNotLoadedAgain() {
+        Product product = new Product();
+        product.setId(1L);
+        product.setPrice(Money.parse("10.00"));
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.getReferenceById(1L)).thenReturn(product);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        transactionService.createTransaction("SALE", 1L, 1, "regularPricing", null);
+        transactionService.createTransaction("SALE", 1L, 2, "regularPricing", null);
+
+        verify(productRepository, times(1)).findById(1L);
+        verify(transactionRepository, times(2)).save(any(Transaction.class));
+    }
+
+    @Test
+    void createTransactions_UnknownProduct_ThrowsBeforeSaving() {
+        when(productRepository.findAllById(any())).thenReturn(List.of());
+
+        assertThrows(IllegalArgumentException.class, () ->
+            transactionService.createTransactions(List.of(new TransactionLine("SALE", 9L, 1, "regularPricing", null)))
+        );
+        verify(transactionRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void createTransactions_NonPositiveQuantity_ThrowsBeforeSaving() {
+        // A negative sale would otherwise raise the stock and offset the other lines
+        assertThrows(IllegalArgumentException.class, () ->
+            transactionService.createTransactions(List.of(
+                    new TransactionLine("SALE", 1L, 5, "regularPricing", null),
+                    new TransactionLine("SALE", 1L, -5, "regularPricing", null)))
+        );
+        assertThrows(IllegalArgumentException.class, () ->
+            transactionService.createTransaction("SALE", 1L, 0, "regularPricing", null)
+        );
+        verify(transactionRepository, never()).saveAll(anyList());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(stockObserver, never()).onTransactions(anyList());
+    }
 }
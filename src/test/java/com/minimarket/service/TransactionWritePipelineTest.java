@@ -0,0 +1,88 @@
+package com.minimarket.service;
+
+import com.minimarket.model.Money;
+import com.minimarket.model.Product;
+import com.minimarket.model.Sale;
+import com.minimarket.model.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class TransactionWritePipelineTest {
+
+    private final Product product = new Product.Builder("P001", "Apple").id(1L).price(Money.parse("1.00")).stock(10).build();
+
+    private TransactionService transactionService;
+    private TransactionWritePipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        transactionService = mock(TransactionService.class);
+        // Lines for product 9 fail, like an unknown product does in the real service
+        when(transactionService.createTransactions(anyList())).thenAnswer(i -> {
+            List<TransactionLine> lines = i.getArgument(0);
+            if (lines.stream().anyMatch(line -> line.getProductId() == 9L)) {
+                throw new IllegalArgumentException("Product not found: 9");
+            }
+            return lines.stream()
+                    .map(line -> (Transaction) new Sale(product, line.getQuantity(), Money.parse("1.00"), null))
+                    .toList();
+        });
+        // Long enough that everything submitted below lands in the first batch
+        pipeline = new TransactionWritePipeline(transactionService, 100, Duration.ofMillis(300), 10);
+        pipeline.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void submit_ConcurrentCommands_AreCommittedAsOneBatch() throws Exception {
+        CompletableFuture<List<Transaction>> first = pipeline.submit(List.of(line(1L, 1)));
+        CompletableFuture<List<Transaction>> second = pipeline.submit(List.of(line(1L, 2), line(1L, 3)));
+
+        assertEquals(List.of(1), quantities(first.get(5, TimeUnit.SECONDS)));
+        assertEquals(List.of(2, 3), quantities(second.get(5, TimeUnit.SECONDS)));
+        verify(transactionService, times(1)).createTransactions(anyList());
+        assertEquals(1L, pipeline.getStats().get("commits"));
+        assertEquals(3, pipeline.getStats().get("lastBatchSize"));
+    }
+
+    @Test
+    void submit_FailingCommand_OnlyFailsItsOwnCaller() throws Exception {
+        CompletableFuture<List<Transaction>> good = pipeline.submit(List.of(line(1L, 1)));
+        CompletableFuture<List<Transaction>> bad = pipeline.submit(List.of(line(9L, 1)));
+        CompletableFuture<List<Transaction>> alsoGood = pipeline.submit(List.of(line(1L, 4)));
+
+        assertEquals(List.of(1), quantities(good.get(5, TimeUnit.SECONDS)));
+        assertEquals(List.of(4), quantities(alsoGood.get(5, TimeUnit.SECONDS)));
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, failure.getCause());
+        assertEquals(1L, pipeline.getStats().get("failedBatches"));
+    }
+
+    @Test
+    void write_RethrowsTheServiceException() {
+        assertThrows(IllegalArgumentException.class, () -> pipeline.write(line(9L, 1)));
+    }
+
+    private static TransactionLine line(Long productId, int quantity) {
+        return new TransactionLine("SALE", productId, quantity, "regularPricing", null);
+    }
+
+    private static List<Integer> quantities(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getQuantity).toList();
+    }
+}
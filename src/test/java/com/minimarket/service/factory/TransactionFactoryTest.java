@@ -1,5 +1,6 @@
 package com.minimarket.service.factory;
 
+import com.minimarket.model.Money;
 import com.minimarket.model.Product;
 import com.minimarket.model.Purchase;
 import com.minimarket.model.Sale;
@@ -14,26 +15,26 @@ class TransactionFactoryTest {
     @Test
     void createTransaction_PurchaseType_ReturnsPurchaseInstance() {
         Product product = new Product();
-        Transaction transaction = factory.createTransaction("PURCHASE", product, 10, 100.0, "Supplier A");
+        Transaction transaction = factory.createTransaction("PURCHASE", product, 10, Money.parse("100.00"), "Supplier A");
 
         assertNotNull(transaction);
         assertTrue(transaction instanceof Purchase);
         assertEquals(product, transaction.getProduct());
         assertEquals(10, transaction.getQuantity());
-        assertEquals(100.0, transaction.getTotal());
+        assertEquals(Money.parse("100.00"), transaction.getTotal());
         assertEquals("Supplier A", ((Purchase) transaction).getSupplier());
     }
 
     @Test
     void createTransaction_SaleType_ReturnsSaleInstance() {
         Product product = new Product();
-        Transaction transaction = factory.createTransaction("SALE", product, 5, 50.0, "Customer B");
+        Transaction transaction = factory.createTransaction("SALE", product, 5, Money.parse("50.00"), "Customer B");
 
         assertNotNull(transaction);
         assertTrue(transaction instanceof Sale);
         assertEquals(product, transaction.getProduct());
         assertEquals(5, transaction.getQuantity());
-        assertEquals(50.0, transaction.getTotal());
+        assertEquals(Money.parse("50.00"), transaction.getTotal());
         assertEquals("Customer B", ((Sale) transaction).getCustomer());
     }
 
@@ -41,7 +42,7 @@ class TransactionFactoryTest {
     void createTransaction_UnknownType_ThrowsException() {
         Product product = new Product();
         assertThrows(IllegalArgumentException.class, () ->
-            factory.createTransaction("UNKNOWN", product, 1, 10.0, "Info")
+            factory.createTransaction("UNKNOWN", product, 1, Money.parse("10.00"), "Info")
         );
     }
 }
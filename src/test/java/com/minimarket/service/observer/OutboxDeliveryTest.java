@@ -0,0 +1,112 @@
+package com.minimarket.service.observer;
+
+import com.minimarket.model.DailySalesSummary;
+import com.minimarket.model.Money;
+import com.minimarket.model.OutboxEvent;
+import com.minimarket.model.Product;
+import com.minimarket.model.Sale;
+import com.minimarket.repository.DailySalesSummaryRepository;
+import com.minimarket.repository.OutboxEventRepository;
+import com.minimarket.repository.ProductRepository;
+import com.minimarket.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/outbox-delivery-test.db",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "minimarket.events.async=true",
+        // Polled by the tests themselves
+        "minimarket.events.poll-interval-ms=3600000"
+})
+class OutboxDeliveryTest {
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private TransactionEvents transactionEvents;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private DailySalesSummaryRepository summaryRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+        summaryRepository.deleteAll();
+        transactionRepository.deleteAll();
+        productRepository.deleteAll();
+        product = productRepository.save(new Product.Builder("O001", "Outboxed").price(Money.parse("2.50")).stock(10).build());
+    }
+
+    @Test
+    void poll_DeliversToTheAggregatorAndAcknowledges() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                transactionEvents.publish(transactionRepository.save(new Sale(product, 2, Money.parse("5.00"), null))));
+        assertEquals(1, outboxRepository.count());
+
+        outboxDispatcher.poll();
+
+        assertEquals(0, outboxRepository.count());
+        List<DailySalesSummary> buckets = summaryRepository.findAll();
+        assertEquals(1, buckets.size());
+        assertEquals(2, buckets.get(0).getUnits());
+        assertEquals(500, buckets.get(0).getRevenueMinor());
+    }
+
+    @Test
+    void findPending_RetryHoldsBackLaterEventsOfTheSameProductOnly() {
+        LocalDateTime now = LocalDateTime.now();
+        OutboxEvent retrying = save(1L, now.plusMinutes(1), null);
+        OutboxEvent behind = save(1L, null, null);
+        OutboxEvent other = save(2L, null, null);
+
+        assertEquals(List.of(other.getId()), pendingIds(now));
+        // Once the delay has passed both are due again, in order
+        assertEquals(List.of(retrying.getId(), behind.getId(), other.getId()), pendingIds(now.plusMinutes(2)));
+
+        retrying.setParkedAt(now);
+        outboxRepository.save(retrying);
+        assertEquals(List.of(behind.getId(), other.getId()), pendingIds(now));
+    }
+
+    private OutboxEvent save(Long productId, LocalDateTime retryAt, LocalDateTime parkedAt) {
+        OutboxEvent event = new OutboxEvent();
+        event.setObserver("Audit");
+        event.setTransactionId(1L);
+        event.setProductId(productId);
+        event.setCreatedAt(LocalDateTime.now());
+        event.setRetryAt(retryAt);
+        event.setParkedAt(parkedAt);
+        return outboxRepository.save(event);
+    }
+
+    private List<Long> pendingIds(LocalDateTime now) {
+        return outboxRepository.findPending(now, PageRequest.of(0, 10)).stream().map(OutboxEvent::getId).toList();
+    }
+}
@@ -0,0 +1,124 @@
+package com.minimarket.service.observer;
+
+import com.minimarket.model.Money;
+import com.minimarket.model.OutboxEvent;
+import com.minimarket.model.Product;
+import com.minimarket.model.Sale;
+import com.minimarket.model.Transaction;
+import com.minimarket.repository.OutboxEventRepository;
+import com.minimarket.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class OutboxDispatcherTest {
+
+    private final OutboxEventRepository outboxRepository = mock(OutboxEventRepository.class);
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final List<Long> seen = Collections.synchronizedList(new ArrayList<>());
+
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        // Records delivered transaction ids; fails for product 2
+        StockObserver audit = new StockObserver() {
+            @Override
+            public void onTransaction(Transaction transaction) {
+                if (transaction.getProduct().getId() == 2L) {
+                    throw new IllegalStateException("audit store unavailable");
+                }
+                seen.add(transaction.getId());
+            }
+
+            @Override
+            public String getName() {
+                return "Audit";
+            }
+        };
+        TransactionEvents events = new TransactionEvents(List.of(audit), outboxRepository, true);
+        dispatcher = new OutboxDispatcher(events, outboxRepository, transactionRepository,
+                mock(PlatformTransactionManager.class), 2, 100, 3, Duration.ofSeconds(1));
+
+        when(transactionRepository.findAllById(any())).thenAnswer(i -> {
+            List<Transaction> found = new ArrayList<>();
+            for (Long id : i.<Iterable<Long>>getArgument(0)) {
+                found.add(sale(id, id % 10));
+            }
+            return found;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void poll_DeliversInOrderPerProductAndAcknowledgesOnlyDeliveredEvents() {
+        // Transaction id % 10 is its product: products 1 and 3 deliver, product 2 fails
+        when(outboxRepository.findPending(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(
+                event(1L, 11L), event(2L, 12L), event(3L, 21L), event(4L, 13L), event(5L, 31L), event(6L, 22L)));
+
+        dispatcher.poll();
+
+        assertEquals(List.of(11L, 21L, 31L), seen.stream().filter(id -> id % 10 == 1).toList());
+        assertEquals(List.of(13L), seen.stream().filter(id -> id % 10 == 3).toList());
+        // One acknowledgement per poll, and the failed run is scheduled for a retry instead
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L, 3L, 4L, 5L));
+        verify(outboxRepository, times(1)).deleteAllByIdInBatch(anyList());
+        verify(outboxRepository).recordFailure(eq(List.of(2L, 6L)), any(LocalDateTime.class));
+        verify(outboxRepository, never()).parkExhausted(anyList(), anyInt(), any(LocalDateTime.class));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> audit = (Map<String, Object>) dispatcher.getStats().get("Audit");
+        assertEquals(4L, audit.get("delivered"));
+        assertEquals(1L, audit.get("failed"));
+    }
+
+    @Test
+    void poll_LastAttemptFails_ParksTheRun() {
+        OutboxEvent failing = event(1L, 12L);
+        failing.setAttempts(2);
+        when(outboxRepository.findPending(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(failing));
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.poll();
+
+        ArgumentCaptor<LocalDateTime> retryAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxRepository).recordFailure(eq(List.of(1L)), retryAt.capture());
+        // Third attempt: 1s doubled twice
+        assertFalse(retryAt.getValue().isBefore(before.plusSeconds(4)));
+        verify(outboxRepository).parkExhausted(eq(List.of(1L)), eq(3), any(LocalDateTime.class));
+        verify(outboxRepository, never()).deleteAllByIdInBatch(anyList());
+    }
+
+    private static OutboxEvent event(Long id, Long transactionId) {
+        OutboxEvent event = new OutboxEvent("Audit", sale(transactionId, transactionId % 10));
+        event.setId(id);
+        return event;
+    }
+
+    private static Transaction sale(Long id, Long productId) {
+        Sale sale = new Sale(new Product.Builder("P00" + productId, "Product " + productId).id(productId).build(), 1, Money.parse("1.00"), null);
+        sale.setId(id);
+        return sale;
+    }
+}
@@ -0,0 +1,129 @@
+package com.minimarket.service.observer;
+
+import com.minimarket.model.Money;
+import com.minimarket.model.Product;
+import com.minimarket.model.Purchase;
+import com.minimarket.model.Sale;
+import com.minimarket.repository.ProductRepository;
+import com.minimarket.repository.TransactionRepository;
+import com.minimarket.service.InsufficientStockException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/stock-updater-concurrency-test.db",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+class StockUpdaterConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int ATTEMPTS_PER_THREAD = 25;
+
+    @Autowired
+    private StockUpdater stockUpdater;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        productRepository.deleteAll();
+        tx = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void concurrentSales_NeverOversellAndNeverLoseUpdates() throws Exception {
+        Product product = productRepository.save(new Product.Builder("C001", "Contended").price(Money.parse("1.00")).stock(100).build());
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(() -> {
+            try {
+                tx.executeWithoutResult(status -> stockUpdater.onTransaction(new Sale(product, 1, Money.parse("1.00"), null)));
+                sold.incrementAndGet();
+            } catch (InsufficientStockException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(100, sold.get());
+        assertEquals(THREADS * ATTEMPTS_PER_THREAD - 100, rejected.get());
+        assertEquals(0, productRepository.findById(product.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void concurrentPurchasesAndSales_EndOnExactStock() throws Exception {
+        Product product = productRepository.save(new Product.Builder("C002", "Busy").price(Money.parse("1.00")).stock(1_000).build());
+        AtomicInteger turn = new AtomicInteger();
+
+        // Half the attempts buy 3, half sell 2; stock is high enough that no sale is rejected
+        runConcurrently(() -> tx.executeWithoutResult(status -> stockUpdater.onTransaction(turn.getAndIncrement() % 2 == 0
+                ? new Purchase(product, 3, Money.parse("3.00"), null)
+                : new Sale(product, 2, Money.parse("2.00"), null))));
+
+        int attempts = THREADS * ATTEMPTS_PER_THREAD;
+        assertEquals(1_000 + attempts / 2 * 3 - attempts / 2 * 2,
+                productRepository.findById(product.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void staleProductSave_AfterStockChange_IsRejected() {
+        Product stale = productRepository.save(new Product.Builder("C003", "Edited").price(Money.parse("1.00")).stock(10).build());
+        tx.executeWithoutResult(status -> stockUpdater.onTransaction(new Sale(stale, 4, Money.parse("4.00"), null)));
+
+        stale.setPrice(Money.parse("2.00"));
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> productRepository.save(stale));
+        assertEquals(6, productRepository.findById(stale.getId()).orElseThrow().getStock());
+    }
+
+    private void runConcurrently(Runnable attempt) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                Callable<Void> worker = () -> {
+                    start.await();
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        attempt.run();
+                    }
+                    return null;
+                };
+                futures.add(executor.submit(worker));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.minimarket.service.observer;
+
+import com.minimarket.model.Money;
+import com.minimarket.model.OutboxEvent;
+import com.minimarket.model.Product;
+import com.minimarket.model.Sale;
+import com.minimarket.model.Transaction;
+import com.minimarket.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TransactionEventsTest {
+
+    private final StockObserver syncObserver = mock(StockObserver.class);
+    private final StockObserver asyncObserver = mock(StockObserver.class);
+    private final OutboxEventRepository outboxRepository = mock(OutboxEventRepository.class);
+
+    TransactionEventsTest() {
+        when(syncObserver.canRunAsync()).thenReturn(false);
+        when(asyncObserver.canRunAsync()).thenReturn(true);
+        when(asyncObserver.getName()).thenReturn("Audit");
+    }
+
+    @Test
+    void publish_SyncMode_CallsEveryObserverInline() {
+        TransactionEvents events = new TransactionEvents(List.of(syncObserver, asyncObserver), outboxRepository, false);
+        Transaction sale = sale(7L);
+
+        events.publish(sale);
+
+        verify(syncObserver).onTransaction(sale);
+        verify(asyncObserver).onTransaction(sale);
+        verifyNoInteractions(outboxRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publish_AsyncMode_WritesOutboxRowsInsteadOfCallingAsyncObservers() {
+        TransactionEvents events = new TransactionEvents(List.of(syncObserver, asyncObserver), outboxRepository, true);
+        List<Transaction> sales = List.of(sale(7L), sale(8L));
+
+        events.publish(sales);
+
+        verify(syncObserver).onTransactions(sales);
+        verify(asyncObserver, never()).onTransactions(any());
+        verify(asyncObserver, never()).onTransaction(any());
+
+        ArgumentCaptor<Iterable<OutboxEvent>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(outboxRepository).saveAll(captor.capture());
+        List<OutboxEvent> rows = new ArrayList<>();
+        captor.getValue().forEach(rows::add);
+        assertEquals(List.of(7L, 8L), rows.stream().map(OutboxEvent::getTransactionId).toList());
+        assertTrue(rows.stream().allMatch(row -> "Audit".equals(row.getObserver()) && row.getProductId() == 1L));
+    }
+
+    private static Transaction sale(Long id) {
+        Sale sale = new Sale(new Product.Builder("P001", "Apple").id(1L).build(), 1, Money.parse("1.00"), null);
+        sale.setId(id);
+        return sale;
+    }
+}
@@ -0,0 +1,77 @@
+package com.minimarket.service.report;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportCacheTest {
+
+    @Test
+    void get_SameKeyAndVersion_RendersOnce() {
+        ReportCache cache = new ReportCache(1024);
+        AtomicInteger renders = new AtomicInteger();
+
+        Supplier<String> renderer = () -> {
+            renders.incrementAndGet();
+            return "report";
+        };
+
+        assertEquals("report", cache.get("k", renderer));
+        assertEquals("report", cache.get("k", renderer));
+
+        assertEquals(1, renders.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void invalidate_DropsEntriesAndBumpsVersion() {
+        ReportCache cache = new ReportCache(1024);
+        cache.get("k", () -> "old");
+
+        cache.invalidate();
+
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cache.getBytes());
+        assertEquals("new", cache.get("k", () -> "new"));
+        assertEquals(1, cache.getVersion());
+    }
+
+    @Test
+    void get_RenderedWhileInvalidated_IsNotCached() {
+        ReportCache cache = new ReportCache(1024);
+
+        cache.get("k", () -> {
+            cache.invalidate();
+            return "stale";
+        });
+
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void get_OverByteBudget_EvictsLeastRecentlyUsed() {
+        // Each 10-char report accounts for 20 bytes
+        ReportCache cache = new ReportCache(50);
+        cache.get("a", () -> "aaaaaaaaaa");
+        cache.get("b", () -> "bbbbbbbbbb");
+        cache.get("a", () -> "unused");
+        cache.get("c", () -> "cccccccccc");
+
+        assertEquals(2, cache.getSize());
+        assertEquals(40, cache.getBytes());
+        assertEquals("aaaaaaaaaa", cache.get("a", () -> "miss"));
+        assertEquals("miss", cache.get("b", () -> "miss"));
+    }
+
+    @Test
+    void get_LargerThanBudget_IsServedButNotCached() {
+        ReportCache cache = new ReportCache(10);
+
+        assertEquals("too large for the cache", cache.get("k", () -> "too large for the cache"));
+        assertEquals(0, cache.getSize());
+    }
+}
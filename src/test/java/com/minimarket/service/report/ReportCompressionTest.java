@@ -0,0 +1,52 @@
+package com.minimarket.service.report;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportCompressionTest {
+
+    @Test
+    void negotiate_PrefersGzipAndHonoursQZero() {
+        assertEquals(ReportCompression.NONE, ReportCompression.negotiate(null));
+        assertEquals(ReportCompression.NONE, ReportCompression.negotiate("identity"));
+        assertEquals(ReportCompression.GZIP, ReportCompression.negotiate("gzip, deflate, br"));
+        assertEquals(ReportCompression.GZIP, ReportCompression.negotiate("deflate;q=0.5, GZIP;q=0.8"));
+        assertEquals(ReportCompression.DEFLATE, ReportCompression.negotiate("gzip;q=0, deflate"));
+        assertEquals(ReportCompression.GZIP, ReportCompression.negotiate("*"));
+    }
+
+    @Test
+    void wrap_Gzip_RoundTrips() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(ReportCompression.GZIP, out, "ID,Date\n1,2024-01-01\n");
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals("ID,Date\n1,2024-01-01\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void wrap_Deflate_RoundTrips() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(ReportCompression.DEFLATE, out, "<tr><td>1</td></tr>".repeat(1000));
+
+        try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals("<tr><td>1</td></tr>".repeat(1000), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertTrue(out.size() < 1000);
+    }
+
+    private void write(ReportCompression compression, OutputStream out, String content) throws Exception {
+        OutputStream target = compression.wrap(out);
+        target.write(content.getBytes(StandardCharsets.UTF_8));
+        compression.finish(target);
+    }
+}
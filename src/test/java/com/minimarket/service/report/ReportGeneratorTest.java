@@ -0,0 +1,63 @@
+package com.minimarket.service.report;
+
+import com.minimarket.model.Money;
+import com.minimarket.model.Purchase;
+import com.minimarket.model.Sale;
+import com.minimarket.repository.TransactionRow;
+import com.minimarket.service.report.formatter.CsvFormatter;
+import com.minimarket.service.report.formatter.HtmlFormatter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportGeneratorTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void generateReport_Parallel_IsIdenticalToSequential() {
+        // Not a multiple of CHUNK_SIZE, so the last chunk is partial
+        List<TransactionRow> transactions = transactions(ReportGenerator.PARALLEL_THRESHOLD * 2 + 123);
+
+        for (ReportGenerator<TransactionRow> generator : List.of(
+                new TransactionReportGenerator(new CsvFormatter()),
+                new TransactionReportGenerator(new HtmlFormatter()))) {
+            assertEquals(generator.generateReport(transactions), generator.generateReport(transactions, pool));
+        }
+    }
+
+    @Test
+    void generateReport_BelowThreshold_StaysSequential() {
+        List<TransactionRow> transactions = transactions(10);
+        TransactionReportGenerator generator = new TransactionReportGenerator(new CsvFormatter());
+        ForkJoinPool unused = new ForkJoinPool(1);
+        unused.shutdown();
+
+        // A shut down pool rejects tasks, so this only passes if the pool is never used
+        assertEquals(generator.generateReport(transactions), generator.generateReport(transactions, unused));
+    }
+
+    private List<TransactionRow> transactions(int count) {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 8, 0);
+        List<TransactionRow> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            transactions.add(i % 3 == 0
+                    ? new TransactionRow((long) i + 1, start.plusMinutes(i), Purchase.class, 1L, "Apple",
+                            i % 50 + 1, Money.ofMinor((i % 50 + 1) * 150L), "Supplier", null)
+                    : new TransactionRow((long) i + 1, start.plusMinutes(i), Sale.class, 1L, "Apple",
+                            i % 7 + 1, Money.ofMinor((i % 7 + 1) * 150L), null, "Customer"));
+        }
+        return transactions;
+    }
+}
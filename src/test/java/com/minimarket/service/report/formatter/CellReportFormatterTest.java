@@ -0,0 +1,55 @@
+package com.minimarket.service.report.formatter;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CellReportFormatterTest {
+
+    @Test
+    void csv_QuotesOnlyFieldsThatNeedIt() {
+        CsvFormatter csv = new CsvFormatter();
+
+        assertEquals("plain,\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\"\n",
+                csv.formatRow(List.of("plain", "a,b", "say \"hi\"", "two\nlines")));
+    }
+
+    @Test
+    void html_EscapesMarkupInCellsHeaderAndFooter() {
+        HtmlFormatter html = new HtmlFormatter();
+
+        assertEquals("<tr><td>&lt;b&gt;Tom &amp; Jerry&#39;s&lt;/b&gt;</td><td>ok</td></tr>",
+                html.formatRow(List.of("<b>Tom & Jerry's</b>", "ok")));
+        assertTrue(html.formatHeader(List.of("\"Qty\"")).contains("<th>&quot;Qty&quot;</th>"));
+        assertTrue(html.formatFooter("a<b").contains("<p>a&lt;b</p>"));
+    }
+
+    @Test
+    void primitiveAndDateCells_MatchStringValueOf() {
+        CsvFormatter csv = new CsvFormatter();
+        LocalDate day = LocalDate.of(2024, 3, 7);
+        List<LocalDateTime> dateTimes = List.of(
+                LocalDateTime.of(2024, 1, 2, 3, 4),
+                LocalDateTime.of(2024, 1, 2, 3, 4, 5),
+                LocalDateTime.of(2024, 1, 2, 3, 4, 5, 120_000_000),
+                LocalDateTime.of(2024, 1, 2, 3, 4, 0, 1_000),
+                LocalDateTime.of(2024, 1, 2, 3, 4, 0, 7));
+
+        StringBuilder sb = new StringBuilder();
+        csv.cell(sb, 0, 42L);
+        csv.cell(sb, 1, 7);
+        csv.cell(sb, 2, 12.5);
+        csv.cell(sb, 3, day);
+        assertEquals("42,7,12.5," + day, sb.toString());
+
+        for (LocalDateTime dateTime : dateTimes) {
+            sb.setLength(0);
+            csv.cell(sb, 0, dateTime);
+            assertEquals(String.valueOf(dateTime), sb.toString());
+        }
+    }
+}
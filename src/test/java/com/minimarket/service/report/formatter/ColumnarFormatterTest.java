@@ -0,0 +1,84 @@
+package com.minimarket.service.report.formatter;
+
+import com.minimarket.model.Money;
+import com.minimarket.model.Purchase;
+import com.minimarket.model.Sale;
+import com.minimarket.repository.TransactionRow;
+import com.minimarket.service.report.TransactionReportGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarFormatterTest {
+
+    private final ColumnarFormatter formatter = new ColumnarFormatter();
+
+    @Test
+    void write_ThenRead_RoundTripsEveryColumnAcrossBlocks() throws Exception {
+        List<TransactionRow> rows = rows(ColumnarFormat.BLOCK_ROWS + 10);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        formatter.write(rows.stream(), out);
+
+        int read = 0;
+        int blocks = 0;
+        try (ColumnarReportReader reader = new ColumnarReportReader(new ByteArrayInputStream(out.toByteArray()))) {
+            for (ColumnarReportReader.Block block = reader.readBlock(); block != null; block = reader.readBlock()) {
+                blocks++;
+                for (int i = 0; i < block.size(); i++) {
+                    TransactionRow expected = rows.get(read++);
+                    assertEquals(expected.getId(), block.getId(i));
+                    assertEquals(expected.getDate(), block.getDate(i));
+                    assertEquals(expected.getProductId(), block.getProductId(i));
+                    assertEquals(expected.getProductName(), block.getProductName(i));
+                    assertEquals(expected.isSale(), block.isSale(i));
+                    assertEquals(expected.getQuantity(), block.getQuantity(i));
+                    assertEquals(expected.getTotalMinor(), block.getTotalMinor(i));
+                }
+            }
+            assertNull(reader.readBlock());
+        }
+        assertEquals(rows.size(), read);
+        assertEquals(2, blocks);
+    }
+
+    @Test
+    void write_IsMuchSmallerThanCsv() throws Exception {
+        List<TransactionRow> rows = rows(50_000);
+
+        ByteArrayOutputStream columnar = new ByteArrayOutputStream();
+        formatter.write(rows.stream(), columnar);
+        String csv = new TransactionReportGenerator(new CsvFormatter()).generateReport(rows);
+
+        assertTrue(columnar.size() * 3 < csv.getBytes(StandardCharsets.UTF_8).length,
+                "columnar " + columnar.size() + " bytes vs csv " + csv.length());
+    }
+
+    @Test
+    void reader_RejectsOtherFiles() {
+        byte[] csv = "ID,Date\n".getBytes(StandardCharsets.UTF_8);
+        assertThrows(java.io.IOException.class, () -> new ColumnarReportReader(new ByteArrayInputStream(csv)));
+    }
+
+    private List<TransactionRow> rows(int count) {
+        LocalDateTime start = LocalDateTime.of(2024, 3, 1, 8, 30, 15, 123_000_000);
+        List<TransactionRow> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long productId = i % 40 + 1;
+            String name = "Product number " + productId;
+            rows.add(i % 4 == 0
+                    ? new TransactionRow((long) i + 1, start.plusSeconds(i * 37L), Purchase.class, productId, name,
+                            i % 90 + 10, Money.ofMinor((i % 90 + 10) * 75L), "Supplier", null)
+                    : new TransactionRow((long) i + 1, start.plusSeconds(i * 37L), Sale.class, productId, name,
+                            i % 5 + 1, Money.ofMinor((i % 5 + 1) * 125L), null, "Customer"));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,106 @@
+package com.minimarket.service.strategy;
+
+import com.minimarket.model.PromotionRule;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Thousands of live rules: lookups must agree with a brute-force scan and stay in the sub-microsecond range.
+// Timed, so it only runs with -Pbenchmark
+@Tag("benchmark")
+class PromotionPricingBenchmarkTest {
+
+    private static final int PRODUCTS = 2_000;
+    private static final int CATEGORIES = 50;
+    private static final int RULES = 5_000;
+    private static final int LOOKUPS = 2_000_000;
+    private static final ZoneId ZONE = ZoneOffset.UTC;
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    @Test
+    void compiledTable_ManyRules_MatchesBruteForceAndIsFast(TestReporter reporter) {
+        Random random = new Random(42);
+        List<PromotionRule> rules = new ArrayList<>(RULES);
+        for (int i = 0; i < RULES; i++) {
+            int scope = random.nextInt(10);
+            PromotionRule rule = new PromotionRule("Rule " + i,
+                    scope < 7 ? (long) random.nextInt(PRODUCTS) : null,
+                    scope >= 7 && scope < 9 ? category(random.nextInt(CATEGORIES)) : null,
+                    1 + random.nextInt(24),
+                    1 + random.nextInt(40));
+            // A quarter are outside their window right now
+            if (random.nextInt(4) == 0) {
+                rule.setStartsAt(NOW.plusDays(1 + random.nextInt(5)));
+            } else {
+                rule.setEndsAt(NOW.plusDays(1 + random.nextInt(5)));
+            }
+            rules.add(rule);
+        }
+        long now = NOW.toInstant(ZoneOffset.UTC).toEpochMilli();
+
+        long compileStart = System.nanoTime();
+        PromotionTable table = PromotionTable.compile(rules, now, ZONE);
+        long compileMillis = (System.nanoTime() - compileStart) / 1_000_000;
+
+        for (int i = 0; i < 10_000; i++) {
+            long productId = random.nextInt(PRODUCTS);
+            String category = category((int) (productId % CATEGORIES));
+            int quantity = 1 + random.nextInt(30);
+            assertEquals(bruteForce(rules, productId, category, quantity),
+                    table.basisPointsOff(productId, category, quantity));
+        }
+
+        long[] productIds = new long[1024];
+        String[] categories = new String[1024];
+        int[] quantities = new int[1024];
+        for (int i = 0; i < productIds.length; i++) {
+            productIds[i] = random.nextInt(PRODUCTS);
+            categories[i] = category((int) (productIds[i] % CATEGORIES));
+            quantities[i] = 1 + random.nextInt(30);
+        }
+        long sink = 0;
+        // Warm-up, then the measured run
+        for (int i = 0; i < LOOKUPS; i++) {
+            int k = i & 1023;
+            sink += table.basisPointsOff(productIds[k], categories[k], quantities[k]);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            int k = i & 1023;
+            sink += table.basisPointsOff(productIds[k], categories[k], quantities[k]);
+        }
+        double nanosPerLookup = (double) (System.nanoTime() - start) / LOOKUPS;
+
+        reporter.publishEntry("promotionTable", String.format("%d rules (%d live) compiled in %d ms, %.1f ns per lookup (%d)",
+                RULES, table.getLiveRules(), compileMillis, nanosPerLookup, sink));
+        // Generous so a slow CI machine doesn't fail it; a linear scan of the rules takes tens of microseconds
+        assertTrue(nanosPerLookup < 2_000, "lookup took " + nanosPerLookup + " ns");
+    }
+
+    private static String category(int i) {
+        return "Category " + i;
+    }
+
+    private static int bruteForce(List<PromotionRule> rules, long productId, String category, int quantity) {
+        int best = 0;
+        for (PromotionRule rule : rules) {
+            boolean live = (rule.getStartsAt() == null || !rule.getStartsAt().isAfter(NOW))
+                    && (rule.getEndsAt() == null || rule.getEndsAt().isAfter(NOW));
+            boolean matches = rule.getProductId() != null ? rule.getProductId() == productId
+                    : rule.getCategory() == null || rule.getCategory().equals(category);
+            if (live && matches && quantity >= rule.getMinQuantity()) {
+                best = Math.max(best, (int) Math.round(rule.getPercentOff() * 100));
+            }
+        }
+        return best;
+    }
+}
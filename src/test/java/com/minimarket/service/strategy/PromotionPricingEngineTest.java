@@ -0,0 +1,141 @@
+package com.minimarket.service.strategy;
+
+import com.minimarket.model.Money;
+import com.minimarket.model.Product;
+import com.minimarket.model.PromotionRule;
+import com.minimarket.repository.PromotionRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PromotionPricingEngineTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    private final MutableClock clock = new MutableClock(NOON.toInstant(ZoneOffset.UTC));
+    private final Product apple = new Product.Builder("P001", "Apple").id(1L).price(Money.parse("2.00")).stock(100).category("Fruit").build();
+    private final Product pear = new Product.Builder("P002", "Pear").id(2L).price(Money.parse("4.00")).stock(100).category("Fruit").build();
+    private final Product soap = new Product.Builder("P003", "Soap").id(3L).price(Money.parse("1.00")).stock(100).build();
+
+    private PromotionRuleRepository repository;
+    private PromotionPricingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(PromotionRuleRepository.class);
+        engine = new PromotionPricingEngine(repository, clock);
+    }
+
+    @Test
+    void calculateTotal_NoRules_IsRegularPrice() {
+        assertEquals(2_000L, engine.calculateTotal(apple, 10));
+        assertEquals(2_000L, engine.calculateTotal(200L, 10));
+    }
+
+    @Test
+    void calculateTotal_PicksTheBestTierAndScope() {
+        load(new PromotionRule("Fruit week", null, "Fruit", 1, 5),
+                new PromotionRule("Apples by the box", 1L, null, 12, 20),
+                new PromotionRule("Apples by the bag", 1L, null, 6, 10),
+                new PromotionRule("Store-wide bulk", null, null, 50, 15));
+
+        assertEquals(570L, engine.calculateTotal(apple, 3));
+        assertEquals(1_080L, engine.calculateTotal(apple, 6));
+        assertEquals(1_920L, engine.calculateTotal(apple, 12));
+        // Product tiers don't leak to other products in the category
+        assertEquals(4_560L, engine.calculateTotal(pear, 12));
+        assertEquals(1_000L, engine.calculateTotal(soap, 10));
+        assertEquals(4_250L, engine.calculateTotal(soap, 50));
+        // Discounts don't stack: 20% beats 15% for 50 apples
+        assertEquals(8_000L, engine.calculateTotal(apple, 50));
+    }
+
+    @Test
+    void calculateTotal_TimeWindow_StartsAndEndsWithoutReload() {
+        PromotionRule happyHour = new PromotionRule("Happy hour", null, null, 1, 50);
+        happyHour.setStartsAt(NOON.plusHours(1));
+        happyHour.setEndsAt(NOON.plusHours(2));
+        load(happyHour);
+
+        assertEquals(1_000L, engine.calculateTotal(soap, 10));
+        clock.set(NOON.plusHours(1));
+        assertEquals(500L, engine.calculateTotal(soap, 10));
+        clock.set(NOON.plusHours(2));
+        assertEquals(1_000L, engine.calculateTotal(soap, 10));
+
+        verify(repository, times(1)).findCurrentAndUpcoming(any());
+        assertEquals(2L, engine.getStats().get("recompiles"));
+    }
+
+    @Test
+    void reload_PicksUpChangedRules() {
+        load(new PromotionRule("Apples", 1L, null, 1, 10));
+        assertEquals(1_800L, engine.calculateTotal(apple, 10));
+
+        load();
+        assertEquals(2_000L, engine.calculateTotal(apple, 10));
+        assertEquals(2L, engine.getStats().get("reloads"));
+    }
+
+    @Test
+    void reload_Failure_KeepsTheCurrentRules() {
+        load(new PromotionRule("Apples", 1L, null, 1, 10));
+        when(repository.findCurrentAndUpcoming(any())).thenThrow(new IllegalStateException("database is locked"));
+
+        engine.reload();
+
+        assertEquals(1_800L, engine.calculateTotal(apple, 10));
+    }
+
+    @Test
+    void compile_IgnoresInvalidAndInactiveRules() {
+        PromotionRule inactive = new PromotionRule("Off", 1L, null, 1, 30);
+        inactive.setActive(false);
+        load(inactive, new PromotionRule("Too much", 1L, null, 1, 150), new PromotionRule("Negative", 1L, null, 1, -5));
+
+        assertEquals(2_000L, engine.calculateTotal(apple, 10));
+        assertEquals(0, engine.getStats().get("liveRules"));
+    }
+
+    private void load(PromotionRule... rules) {
+        when(repository.findCurrentAndUpcoming(any())).thenReturn(List.of(rules));
+        engine.reload();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void set(LocalDateTime time) {
+            now = time.toInstant(ZoneOffset.UTC);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}